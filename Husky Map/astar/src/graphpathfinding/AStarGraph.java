@@ -12,4 +12,12 @@ public interface AStarGraph<VERTEX> {
      *  the A* heuristic function for this graph.
      */
     double estimatedDistanceToGoal(VERTEX v, VERTEX goal);
+
+    /**
+     * Returns true if every edge weight and heuristic estimate in this graph is a non-negative
+     * integer, so that searches may keep their fringe in a bucket queue. False unless overridden.
+     */
+    default boolean hasIntegralWeights() {
+        return false;
+    }
 }
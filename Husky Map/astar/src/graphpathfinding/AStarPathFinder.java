@@ -1,12 +1,15 @@
 package graphpathfinding;
 
+import priorityqueues.BucketMinPQ;
 import priorityqueues.DoubleMapMinPQ;
 import timing.Timer;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @see ShortestPathFinder for more method documentation
@@ -15,62 +18,217 @@ public class AStarPathFinder<VERTEX> extends ShortestPathFinder<VERTEX> {
     AStarGraph<VERTEX> graph;
     HashMap<VERTEX, Double> visited;
     HashMap<VERTEX, VERTEX> previous;
-    DoubleMapMinPQ<VERTEX> unvisited;
+    Frontier<VERTEX> unvisited;
+    TieBreakingPolicy tieBreaking;
+    boolean bucketsAllowed = true;
+    ExpansionRecorder<VERTEX> recorder;
+    FringeRecorder<VERTEX> fringeRecorder;
 
     /**
      * Creates a new AStarPathFinder that works on the provided graph.
      */
     public AStarPathFinder(AStarGraph<VERTEX> graph) {
+        this(graph, TieBreakingPolicy.ARBITRARY);
+    }
+
+    /**
+     * Creates a new AStarPathFinder that works on the provided graph, breaking ties between
+     * vertices of equal priority according to the given policy.
+     *
+     * If the graph has integral weights, and the policy is ARBITRARY or LIFO, searches whose start
+     * and end offsets are also integers keep their fringe in a {@link BucketMinPQ}, which breaks
+     * ties in LIFO order, unless {@link #setBucketQueueAllowed(boolean)} forbids it.
+     */
+    public AStarPathFinder(AStarGraph<VERTEX> graph, TieBreakingPolicy tieBreaking) {
         this.graph = graph;
+        this.tieBreaking = tieBreaking;
         visited = new HashMap<>();
-        unvisited = new DoubleMapMinPQ<>();
+        unvisited = new TieBreakingFrontier<>(tieBreaking);
         previous = new HashMap<>();
     }
 
+    /**
+     * Allows or forbids keeping the fringe in a {@link BucketMinPQ} when the graph has integral
+     * weights; allowed by default. When forbidden, the fringe is always a {@link DoubleMapMinPQ}
+     * that breaks ties by this finder's policy, e.g. to measure the policy itself.
+     */
+    public void setBucketQueueAllowed(boolean allowed) {
+        this.bucketsAllowed = allowed;
+    }
+
+    /** Returns true if the last search kept its fringe in a {@link BucketMinPQ}. */
+    public boolean usedBucketQueue() {
+        return unvisited instanceof BucketFrontier;
+    }
+
+    /**
+     * Reports every vertex expansion of the search to the given recorder, or stops reporting if
+     * the recorder is null. Off by default, since it costs an extra heuristic call per expansion.
+     */
+    public void setExpansionRecorder(ExpansionRecorder<VERTEX> recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Reports every fringe operation of the search to the given recorder, or stops reporting if
+     * the recorder is null. Off by default.
+     */
+    public void setFringeRecorder(FringeRecorder<VERTEX> fringeRecorder) {
+        this.fringeRecorder = fringeRecorder;
+    }
+
     @Override
     public ShortestPathResult<VERTEX> findShortestPath(VERTEX start, VERTEX end, Duration timeout) {
-        unvisited.add(start, 0);
-        visited.put(start, 0.0);
+        return findShortestPath(Map.of(start, 0.0), Map.of(end, 0.0), timeout);
+    }
+
+    @Override
+    public ShortestPathResult<VERTEX> findShortestPath(Map<VERTEX, Double> starts, Map<VERTEX, Double> ends,
+                                                       Duration timeout) {
         Timer clock = new Timer(timeout);
+        if (canUseBuckets(starts, ends)) {
+            unvisited = new BucketFrontier<>();
+        }
+        if (fringeRecorder != null) {
+            fringeRecorder.started();
+        }
+        for (Map.Entry<VERTEX, Double> start : starts.entrySet()) {
+            relax(start.getKey(), start.getValue(), null, ends);
+        }
+        VERTEX best = null;
+        double bestWeight = Double.POSITIVE_INFINITY;
         while (!unvisited.isEmpty()) {
             VERTEX current = unvisited.removeMin();
+            if (fringeRecorder != null) {
+                fringeRecorder.removed(current);
+            }
             double currentDist = visited.get(current);
-            if (current.equals(end)) {
-                List<VERTEX> solution = findSolution(current);
-                return new ShortestPathResult.Solved<>(solution, visited.get(end),
-                    visited.size(), clock.elapsedDuration());
+            if (recorder != null) {
+                recorder.expanded(current, currentDist, estimatedDistanceToGoal(current, ends), unvisited.size());
+            }
+            Double endOffset = ends.get(current);
+            if (endOffset != null && currentDist + endOffset < bestWeight) {
+                best = current;
+                bestWeight = currentDist + endOffset;
+            }
+            //nothing left on the fringe can lead to a better end than the best one found
+            if (best != null && currentDist + estimatedDistanceToGoal(current, ends) >= bestWeight) {
+                return solved(best, bestWeight, clock);
             }
             for (WeightedEdge<VERTEX> element : graph.neighbors(current)) {
                 if (clock.isTimeUp()) {
                     return new ShortestPathResult.Timeout<>(visited.size(), clock.elapsedDuration());
                 }
-                VERTEX next = element.to();
                 //distance from beginning calculated passing through current
-                double nextDist = currentDist + element.weight();
-                if (!visited.containsKey(next)) { //if next has not been visited
-                    visited.put(next, nextDist);
-                    unvisited.add(next, nextDist + graph.estimatedDistanceToGoal(next, end));
-                    previous.put(next, current);
-                /*} else if (!unvisited.contains(next)) { //if next was removed from the fringe
-                    unvisited.add(next, nextDist + graph.estimatedDistanceToGoal(next, end));*/
-                } else if (visited.get(next) > nextDist) { //if this path is better than known
-                    visited.replace(next, nextDist);
-                    unvisited.changePriority(next, nextDist + graph.estimatedDistanceToGoal(next, end));
-                    previous.replace(next, current);
-                } //doesn't do anything other than the above conditions
+                relax(element.to(), currentDist + element.weight(), current, ends);
             }
         }
+        if (best != null) {
+            return solved(best, bestWeight, clock);
+        }
         return new ShortestPathResult.Unsolvable<>(visited.size(), clock.elapsedDuration());
     }
 
+    /**
+     * Records nextDist as the distance to next, reached from current (null for a start vertex),
+     * if that is better than what is known so far.
+     */
+    private void relax(VERTEX next, double nextDist, VERTEX current, Map<VERTEX, Double> ends) {
+        if (!visited.containsKey(next)) { //if next has not been visited
+            visited.put(next, nextDist);
+            double estimate = estimatedDistanceToGoal(next, ends);
+            unvisited.add(next, nextDist, estimate);
+            if (fringeRecorder != null) {
+                fringeRecorder.added(next, nextDist + estimate);
+            }
+            if (current != null) {
+                previous.put(next, current);
+            }
+        } else if (visited.get(next) > nextDist) { //if this path is better than known
+            visited.replace(next, nextDist);
+            double estimate = estimatedDistanceToGoal(next, ends);
+            unvisited.changePriority(next, nextDist, estimate);
+            if (fringeRecorder != null) {
+                fringeRecorder.changed(next, nextDist + estimate);
+            }
+            if (current != null) {
+                previous.put(next, current);
+            } else {
+                previous.remove(next);
+            }
+        } //doesn't do anything other than the above conditions
+    }
+
+    /**
+     * Returns true if every priority in a search between the given starts and ends is a
+     * non-negative integer, and the tie-breaking policy is satisfied by a bucket queue's LIFO order.
+     */
+    private boolean canUseBuckets(Map<VERTEX, Double> starts, Map<VERTEX, Double> ends) {
+        if (!bucketsAllowed || !graph.hasIntegralWeights()
+            || (tieBreaking != TieBreakingPolicy.ARBITRARY && tieBreaking != TieBreakingPolicy.LIFO)) {
+            return false;
+        }
+        for (double offset : starts.values()) {
+            if (!BucketMinPQ.accepts(offset)) {
+                return false;
+            }
+        }
+        for (double offset : ends.values()) {
+            if (!BucketMinPQ.accepts(offset)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Returns the lowest estimated distance from v through any end, including its offset. */
+    private double estimatedDistanceToGoal(VERTEX v, Map<VERTEX, Double> ends) {
+        double estimate = Double.POSITIVE_INFINITY;
+        for (Map.Entry<VERTEX, Double> end : ends.entrySet()) {
+            estimate = Math.min(estimate, graph.estimatedDistanceToGoal(v, end.getKey()) + end.getValue());
+        }
+        return estimate;
+    }
+
+    /**
+     * Returns the result for a path ending at end. Paths through an IndexedGraph are stored as
+     * primitive arrays; paths through other graphs as a list.
+     */
+    private ShortestPathResult<VERTEX> solved(VERTEX end, double solutionWeight, Timer clock) {
+        if (graph instanceof IndexedGraph) {
+            IndexedGraph<VERTEX> indexed = (IndexedGraph<VERTEX>) graph;
+            int length = 1;
+            for (VERTEX current = end; previous.containsKey(current); current = previous.get(current)) {
+                length += 1;
+            }
+            int[] indices = new int[length];
+            double[] distances = new double[length];
+            VERTEX current = end;
+            for (int i = length - 1; i >= 0; i -= 1) {
+                indices[i] = indexed.indexOf(current);
+                distances[i] = visited.get(current);
+                current = previous.get(current);
+            }
+            double startDistance = distances[0];
+            for (int i = 0; i < length; i += 1) {
+                distances[i] -= startDistance;
+            }
+            return new ShortestPathResult.CompactSolved<>(indices, distances, indexed::vertexAt,
+                solutionWeight, visited.size(), clock.elapsedDuration());
+        }
+        return new ShortestPathResult.Solved<>(findSolution(end), solutionWeight,
+            visited.size(), clock.elapsedDuration());
+    }
+
     private List<VERTEX> findSolution(VERTEX end) {
-        List<VERTEX> solution = new ArrayList<>(1);
+        List<VERTEX> solution = new ArrayList<>();
         VERTEX current = end;
         while (previous.containsKey(current)) {
-            solution.add(0, current);
+            solution.add(current);
             current = previous.get(current);
         }
-        solution.add(0, current);
+        solution.add(current);
+        Collections.reverse(solution);
         return solution;
     }
 
@@ -78,4 +236,81 @@ public class AStarPathFinder<VERTEX> extends ShortestPathFinder<VERTEX> {
     protected AStarGraph<VERTEX> graph() {
         return graph;
     }
+
+    /**
+     * The fringe of a search, keyed by distance plus estimate. The kind of fringe is chosen once
+     * per search, so that relaxing an edge needs no type tests.
+     */
+    private interface Frontier<VERTEX> {
+        void add(VERTEX v, double distance, double estimate);
+
+        void changePriority(VERTEX v, double distance, double estimate);
+
+        VERTEX removeMin();
+
+        int size();
+
+        default boolean isEmpty() {
+            return size() == 0;
+        }
+    }
+
+    /** A fringe in a DoubleMapMinPQ, breaking ties by a TieBreakingPolicy. */
+    private static class TieBreakingFrontier<VERTEX> implements Frontier<VERTEX> {
+        private final DoubleMapMinPQ<VERTEX> pq = new DoubleMapMinPQ<>();
+        private final TieBreakingPolicy tieBreaking;
+        /** The number of adds and changes so far, for policies that prefer recent vertices. */
+        private long updates = 0;
+
+        TieBreakingFrontier(TieBreakingPolicy tieBreaking) {
+            this.tieBreaking = tieBreaking;
+        }
+
+        @Override
+        public void add(VERTEX v, double distance, double estimate) {
+            updates += 1;
+            pq.add(v, distance + estimate, tieBreaking.tieBreaker(distance, estimate, updates));
+        }
+
+        @Override
+        public void changePriority(VERTEX v, double distance, double estimate) {
+            updates += 1;
+            pq.changePriority(v, distance + estimate, tieBreaking.tieBreaker(distance, estimate, updates));
+        }
+
+        @Override
+        public VERTEX removeMin() {
+            return pq.removeMin();
+        }
+
+        @Override
+        public int size() {
+            return pq.size();
+        }
+    }
+
+    /** A fringe in a BucketMinPQ, which breaks ties in LIFO order. */
+    private static class BucketFrontier<VERTEX> implements Frontier<VERTEX> {
+        private final BucketMinPQ<VERTEX> pq = new BucketMinPQ<>();
+
+        @Override
+        public void add(VERTEX v, double distance, double estimate) {
+            pq.add(v, distance + estimate);
+        }
+
+        @Override
+        public void changePriority(VERTEX v, double distance, double estimate) {
+            pq.changePriority(v, distance + estimate);
+        }
+
+        @Override
+        public VERTEX removeMin() {
+            return pq.removeMin();
+        }
+
+        @Override
+        public int size() {
+            return pq.size();
+        }
+    }
 }
@@ -0,0 +1,468 @@
+package graphpathfinding;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A shortest path finder that chooses among several registered engines, routing each query to the
+ * engine that has been fastest so far for queries of its {@link QueryClass}. Queries are classified
+ * as short or long by the graph's own heuristic estimate of the distance between start and end.
+ *
+ * Engines are profiled by {@link #calibrate(List, List, Duration)} on sample queries, which may run
+ * in the background while queries are routed, and keep being measured on every routed query.
+ * Engines are chosen by a moving average that weighs recent runs more. Every
+ * {@link #RESAMPLE_INTERVAL}th query of a class is also run, in the background, on the other engine
+ * that was run least recently for that class, so the choice follows any drift in latency; such a
+ * shadow run is only measured and never answers the query. Runs that time out are counted
+ * separately rather than averaged in, and an engine that has timed out on most of its runs of a
+ * class is not chosen for it. Before any engine has been measured for a class, queries of that
+ * class go to the first registered engine.
+ *
+ * Unlike other ShortestPathFinders, an AdaptivePathFinder creates a fresh engine for each query, so
+ * it may be called any number of times and shared between threads.
+ */
+public class AdaptivePathFinder<VERTEX> extends ShortestPathFinder<VERTEX> {
+    /** Every this many routed queries of a class, one is also shadowed on an engine not selected. */
+    public static final int RESAMPLE_INTERVAL = 50;
+    /** The weight of the latest run in an engine's moving average latency. */
+    private static final double RECENT_WEIGHT = 0.2;
+
+    private final AStarGraph<VERTEX> graph;
+    private final double longQueryThreshold;
+    private final Map<String, Function<AStarGraph<VERTEX>, ShortestPathFinder<VERTEX>>> engines;
+    private final Map<QueryClass, Map<String, Tally>> tallies;
+    private final Map<QueryClass, Long> routedQueries;
+    /** The number of runs recorded so far, used to tell which engine was run least recently. */
+    private long runs = 0;
+    /** Runs shadow queries; created on first use unless set. */
+    private Executor shadowRunner;
+
+    /** The classes of queries that engines are profiled and chosen for separately. */
+    public enum QueryClass {
+        /** Start and end are estimated to be closer than the long-query threshold. */
+        SHORT,
+        /** Start and end are estimated to be at least the long-query threshold apart. */
+        LONG
+    }
+
+    /** What a run was for: a sample query, a routed query, or a shadow of a routed query. */
+    private enum RunKind {
+        CALIBRATION,
+        ROUTED,
+        SHADOW
+    }
+
+    /** Running latency totals for one engine on one class of queries. */
+    private static class Tally {
+        long calibrationRuns = 0;
+        long routedQueries = 0;
+        long shadowRuns = 0;
+        /** Runs that timed out, which are not part of the latencies below. */
+        long timeouts = 0;
+        long totalNanos = 0;
+        /** The moving average latency of the runs that finished. */
+        double recentNanos = 0;
+        /** When this engine was last run, as a count of runs recorded before it. */
+        long lastRun = -1;
+
+        long runs() {
+            return calibrationRuns + routedQueries + shadowRuns;
+        }
+
+        long finishedRuns() {
+            return runs() - timeouts;
+        }
+
+        double meanNanos() {
+            return (double) totalNanos / finishedRuns();
+        }
+
+        /** Returns true if this engine has finished at least half of its runs. */
+        boolean isReliable() {
+            return finishedRuns() > 0 && timeouts <= finishedRuns();
+        }
+    }
+
+    /**
+     * Creates a new AdaptivePathFinder with no engines on the provided graph.
+     *
+     * @param longQueryThreshold the estimated distance at or above which a query counts as LONG
+     */
+    public AdaptivePathFinder(AStarGraph<VERTEX> graph, double longQueryThreshold) {
+        this.graph = graph;
+        this.longQueryThreshold = longQueryThreshold;
+        this.engines = new LinkedHashMap<>();
+        this.tallies = new EnumMap<>(QueryClass.class);
+        this.routedQueries = new EnumMap<>(QueryClass.class);
+        for (QueryClass queryClass : QueryClass.values()) {
+            tallies.put(queryClass, new LinkedHashMap<>());
+            routedQueries.put(queryClass, 0L);
+        }
+    }
+
+    /**
+     * Creates a new AdaptivePathFinder on the provided graph with every engine in this package
+     * registered: plain A* (the default until calibrated), A* preferring the lowest heuristic among
+     * ties, and Dijkstra's algorithm (A* with the heuristic ignored).
+     */
+    public static <VERTEX> AdaptivePathFinder<VERTEX> withDefaultEngines(AStarGraph<VERTEX> graph,
+                                                                      double longQueryThreshold) {
+        return withDefaultEngines(graph, longQueryThreshold, AStarPathFinder::new);
+    }
+
+    /**
+     * Like {@link #withDefaultEngines(AStarGraph, double)}, but creates the plain A* engine with the
+     * given factory instead of the AStarPathFinder constructor.
+     */
+    public static <VERTEX> AdaptivePathFinder<VERTEX> withDefaultEngines(
+            AStarGraph<VERTEX> graph, double longQueryThreshold,
+            Function<AStarGraph<VERTEX>, ShortestPathFinder<VERTEX>> astar) {
+        AdaptivePathFinder<VERTEX> finder = new AdaptivePathFinder<>(graph, longQueryThreshold);
+        finder.register("astar", astar);
+        finder.register("astar-lowest-h", g -> new AStarPathFinder<>(g, TieBreakingPolicy.LOWEST_H));
+        finder.register("dijkstra", g -> new AStarPathFinder<>(withoutHeuristic(g)));
+        return finder;
+    }
+
+    /**
+     * Returns a view of the given graph whose heuristic is always zero. The view is an IndexedGraph
+     * if the graph is, so that paths through it are still stored compactly.
+     */
+    static <VERTEX> AStarGraph<VERTEX> withoutHeuristic(AStarGraph<VERTEX> graph) {
+        if (graph instanceof IndexedGraph) {
+            return new WithoutHeuristicIndexed<>((IndexedGraph<VERTEX>) graph);
+        }
+        return new WithoutHeuristic<>(graph);
+    }
+
+    private static class WithoutHeuristic<VERTEX> implements AStarGraph<VERTEX> {
+        private final AStarGraph<VERTEX> graph;
+
+        WithoutHeuristic(AStarGraph<VERTEX> graph) {
+            this.graph = graph;
+        }
+
+        @Override
+        public Collection<WeightedEdge<VERTEX>> neighbors(VERTEX v) {
+            return graph.neighbors(v);
+        }
+
+        @Override
+        public double estimatedDistanceToGoal(VERTEX v, VERTEX goal) {
+            return 0;
+        }
+
+        @Override
+        public boolean hasIntegralWeights() {
+            return graph.hasIntegralWeights();
+        }
+    }
+
+    private static class WithoutHeuristicIndexed<VERTEX> extends WithoutHeuristic<VERTEX>
+            implements IndexedGraph<VERTEX> {
+        private final IndexedGraph<VERTEX> graph;
+
+        WithoutHeuristicIndexed(IndexedGraph<VERTEX> graph) {
+            super(graph);
+            this.graph = graph;
+        }
+
+        @Override
+        public int indexOf(VERTEX v) {
+            return graph.indexOf(v);
+        }
+
+        @Override
+        public VERTEX vertexAt(int index) {
+            return graph.vertexAt(index);
+        }
+    }
+
+    /**
+     * Registers an engine under the given name. The factory is called once per query with this
+     * finder's graph and must return a new, unused ShortestPathFinder.
+     *
+     * @throws IllegalArgumentException if an engine is already registered under the name
+     */
+    public synchronized void register(String name,
+                                      Function<AStarGraph<VERTEX>, ShortestPathFinder<VERTEX>> factory) {
+        if (engines.containsKey(name)) {
+            throw new IllegalArgumentException("Engine already registered: " + name);
+        }
+        engines.put(name, factory);
+        for (Map<String, Tally> byEngine : tallies.values()) {
+            byEngine.put(name, new Tally());
+        }
+    }
+
+    /**
+     * Runs every registered engine on each sample query (starts.get(i) to ends.get(i)) and records
+     * its latency, so that later queries go to the fastest engine for their class.
+     *
+     * @throws IllegalArgumentException if starts and ends are of different sizes
+     */
+    public void calibrate(List<VERTEX> starts, List<VERTEX> ends, Duration timeout) {
+        if (starts.size() != ends.size()) {
+            throw new IllegalArgumentException("Need as many sample starts as ends");
+        }
+        List<String> names;
+        synchronized (this) {
+            names = new ArrayList<>(engines.keySet());
+        }
+        for (int i = 0; i < starts.size(); i += 1) {
+            QueryClass queryClass = classify(starts.get(i), ends.get(i));
+            for (String name : names) {
+                ShortestPathResult<VERTEX> result = run(name, starts.get(i), ends.get(i), timeout);
+                record(queryClass, name, result, RunKind.CALIBRATION);
+            }
+        }
+    }
+
+    /**
+     * Like {@link #calibrate(List, List, Duration)}, but runs on a background thread and returns at
+     * once; until it finishes, queries are routed on whatever has been measured so far.
+     *
+     * @throws IllegalArgumentException if starts and ends are of different sizes
+     */
+    public Thread calibrateInBackground(List<VERTEX> starts, List<VERTEX> ends, Duration timeout) {
+        if (starts.size() != ends.size()) {
+            throw new IllegalArgumentException("Need as many sample starts as ends");
+        }
+        List<VERTEX> startsCopy = new ArrayList<>(starts);
+        List<VERTEX> endsCopy = new ArrayList<>(ends);
+        Thread thread = new Thread(() -> calibrate(startsCopy, endsCopy, timeout), "path-finder-calibration");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Runs shadow queries on the given executor instead of this finder's own background thread,
+     * e.g. {@code Runnable::run} to run each in the thread of the query it shadows.
+     */
+    public synchronized void setShadowExecutor(Executor executor) {
+        this.shadowRunner = executor;
+    }
+
+    @Override
+    public ShortestPathResult<VERTEX> findShortestPath(VERTEX start, VERTEX end, Duration timeout) {
+        QueryClass queryClass = classify(start, end);
+        String name = selectedEngine(queryClass);
+        String shadow = countRoutedQuery(queryClass, name);
+        ShortestPathResult<VERTEX> result = run(name, start, end, timeout);
+        record(queryClass, name, result, RunKind.ROUTED);
+        if (shadow != null) {
+            runInShadow(queryClass, shadow, engine -> engine.findShortestPath(start, end, timeout));
+        }
+        return result;
+    }
+
+    /**
+     * Routes the query to an engine as for a single start and end, with the class judged by an
+     * arbitrary start and end. Every engine must support multiple starts and ends.
+     */
+    @Override
+    public ShortestPathResult<VERTEX> findShortestPath(Map<VERTEX, Double> starts, Map<VERTEX, Double> ends,
+                                                       Duration timeout) {
+        if (starts.isEmpty() || ends.isEmpty()) {
+            throw new IllegalArgumentException("Need at least one start and one end");
+        }
+        QueryClass queryClass = classify(starts.keySet().iterator().next(), ends.keySet().iterator().next());
+        String name = selectedEngine(queryClass);
+        String shadow = countRoutedQuery(queryClass, name);
+        ShortestPathResult<VERTEX> result = engine(name).findShortestPath(starts, ends, timeout);
+        record(queryClass, name, result, RunKind.ROUTED);
+        if (shadow != null) {
+            runInShadow(queryClass, shadow, engine -> engine.findShortestPath(starts, ends, timeout));
+        }
+        return result;
+    }
+
+    /** Returns whether the given query counts as SHORT or LONG for this finder. */
+    public QueryClass classify(VERTEX start, VERTEX end) {
+        if (graph.estimatedDistanceToGoal(start, end) >= longQueryThreshold) {
+            return QueryClass.LONG;
+        }
+        return QueryClass.SHORT;
+    }
+
+    /**
+     * Returns the name of the engine that queries of the given class are currently routed to.
+     *
+     * @throws IllegalStateException if no engines are registered
+     */
+    public synchronized String selectedEngine(QueryClass queryClass) {
+        if (engines.isEmpty()) {
+            throw new IllegalStateException("No engines registered");
+        }
+        String best = engines.keySet().iterator().next();
+        double bestRecent = Double.POSITIVE_INFINITY;
+        for (Map.Entry<String, Tally> entry : tallies.get(queryClass).entrySet()) {
+            Tally tally = entry.getValue();
+            if (tally.isReliable() && tally.recentNanos < bestRecent) {
+                best = entry.getKey();
+                bestRecent = tally.recentNanos;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Counts a query of the given class routed to the selected engine, and returns the engine to
+     * shadow it on: on every RESAMPLE_INTERVALth query, the other engine run least recently, and
+     * otherwise (or if there is no other engine) null.
+     */
+    private synchronized String countRoutedQuery(QueryClass queryClass, String selected) {
+        long routed = routedQueries.get(queryClass) + 1;
+        routedQueries.put(queryClass, routed);
+        if (routed % RESAMPLE_INTERVAL != 0) {
+            return null;
+        }
+        String stalest = null;
+        long stalestRun = Long.MAX_VALUE;
+        for (Map.Entry<String, Tally> entry : tallies.get(queryClass).entrySet()) {
+            if (!entry.getKey().equals(selected) && entry.getValue().lastRun < stalestRun) {
+                stalest = entry.getKey();
+                stalestRun = entry.getValue().lastRun;
+            }
+        }
+        return stalest;
+    }
+
+    /**
+     * Runs a query on a new instance of the named engine in the background and records its latency.
+     * If one earlier shadow run is still running and another is waiting, the query is dropped.
+     */
+    private void runInShadow(QueryClass queryClass, String name,
+                             Function<ShortestPathFinder<VERTEX>, ShortestPathResult<VERTEX>> query) {
+        ShortestPathFinder<VERTEX> engine = engine(name);
+        shadowExecutor().execute(() -> record(queryClass, name, query.apply(engine), RunKind.SHADOW));
+    }
+
+    private synchronized Executor shadowExecutor() {
+        if (shadowRunner == null) {
+            shadowRunner = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1), runnable -> {
+                    Thread thread = new Thread(runnable, "path-finder-shadow");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+        }
+        return shadowRunner;
+    }
+
+    /** Returns a snapshot of the measured latencies and routing decisions for every engine. */
+    public synchronized List<EngineMetrics> metrics() {
+        List<EngineMetrics> metrics = new ArrayList<>();
+        for (QueryClass queryClass : QueryClass.values()) {
+            String selected = selectedEngine(queryClass);
+            for (Map.Entry<String, Tally> entry : tallies.get(queryClass).entrySet()) {
+                metrics.add(new EngineMetrics(entry.getKey(), queryClass,
+                    entry.getKey().equals(selected), entry.getValue()));
+            }
+        }
+        return metrics;
+    }
+
+    private ShortestPathResult<VERTEX> run(String name, VERTEX start, VERTEX end, Duration timeout) {
+        return engine(name).findShortestPath(start, end, timeout);
+    }
+
+    /** Returns a new, unused instance of the named engine. */
+    private ShortestPathFinder<VERTEX> engine(String name) {
+        Function<AStarGraph<VERTEX>, ShortestPathFinder<VERTEX>> factory;
+        synchronized (this) {
+            factory = engines.get(name);
+        }
+        return factory.apply(graph);
+    }
+
+    private synchronized void record(QueryClass queryClass, String name,
+                                     ShortestPathResult<VERTEX> result, RunKind kind) {
+        Tally tally = tallies.get(queryClass).get(name);
+        switch (kind) {
+            case CALIBRATION:
+                tally.calibrationRuns += 1;
+                break;
+            case ROUTED:
+                tally.routedQueries += 1;
+                break;
+            default:
+                tally.shadowRuns += 1;
+                break;
+        }
+        tally.lastRun = runs;
+        runs += 1;
+        if (result.isTimedOut()) {
+            tally.timeouts += 1;
+            return;
+        }
+        long nanos = result.explorationTime().toNanos();
+        tally.totalNanos += nanos;
+        if (tally.finishedRuns() == 1) {
+            tally.recentNanos = nanos;
+        } else {
+            tally.recentNanos += RECENT_WEIGHT * (nanos - tally.recentNanos);
+        }
+    }
+
+    @Override
+    protected AStarGraph<VERTEX> graph() {
+        return graph;
+    }
+
+    /** Measured latency of one engine on one class of queries, as of when it was taken. */
+    public static class EngineMetrics {
+        public final String engine;
+        public final QueryClass queryClass;
+        /** Whether queries of this class are currently routed to this engine. */
+        public final boolean selected;
+        public final long calibrationRuns;
+        public final long routedQueries;
+        /** Background runs of queries routed to another engine, measured but never returned. */
+        public final long shadowRuns;
+        /** Runs of any kind that timed out. */
+        public final long timeouts;
+        /** Mean latency over runs of any kind that finished; 0 if none did. */
+        public final double meanLatencyMillis;
+        /** Moving average latency, weighing recent runs more, that engines are chosen by. */
+        public final double recentLatencyMillis;
+
+        private EngineMetrics(String engine, QueryClass queryClass, boolean selected, Tally tally) {
+            this.engine = engine;
+            this.queryClass = queryClass;
+            this.selected = selected;
+            this.calibrationRuns = tally.calibrationRuns;
+            this.routedQueries = tally.routedQueries;
+            this.shadowRuns = tally.shadowRuns;
+            this.timeouts = tally.timeouts;
+            this.meanLatencyMillis = tally.finishedRuns() == 0 ? 0 : tally.meanNanos() / 1e6;
+            this.recentLatencyMillis = tally.recentNanos / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return "EngineMetrics{" +
+                "engine='" + engine + '\'' +
+                ", queryClass=" + queryClass +
+                ", selected=" + selected +
+                ", calibrationRuns=" + calibrationRuns +
+                ", routedQueries=" + routedQueries +
+                ", shadowRuns=" + shadowRuns +
+                ", timeouts=" + timeouts +
+                ", meanLatencyMillis=" + meanLatencyMillis +
+                ", recentLatencyMillis=" + recentLatencyMillis +
+                '}';
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package graphpathfinding;
+
+/**
+ * Receives a callback each time {@link AStarPathFinder} expands a vertex, i.e. removes it from the
+ * fringe and looks at its neighbors. Used to trace searches for tuning heuristics.
+ */
+@FunctionalInterface
+public interface ExpansionRecorder<VERTEX> {
+    /**
+     * Called when v is expanded.
+     *
+     * @param distance   the distance from the start to v along the best known path (g)
+     * @param estimate   the heuristic estimate of the distance from v to the goal (h)
+     * @param fringeSize the number of vertices left on the fringe after removing v
+     */
+    void expanded(VERTEX v, double distance, double estimate, int fringeSize);
+}
@@ -0,0 +1,19 @@
+package graphpathfinding;
+
+/**
+ * Receives a callback for each operation {@link AStarPathFinder} performs on its fringe, so that
+ * the exact sequence of priority queue operations of a search can be recorded and replayed.
+ */
+public interface FringeRecorder<VERTEX> {
+    /** Called before a search adds its first vertex to its (new, empty) fringe. */
+    void started();
+
+    /** Called when v is added to the fringe with the given priority. */
+    void added(VERTEX v, double priority);
+
+    /** Called when the priority of v, which is on the fringe, is changed. */
+    void changed(VERTEX v, double priority);
+
+    /** Called when v is removed from the fringe as the vertex with the least priority. */
+    void removed(VERTEX v);
+}
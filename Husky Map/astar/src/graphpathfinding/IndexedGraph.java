@@ -0,0 +1,13 @@
+package graphpathfinding;
+
+/**
+ * An AStarGraph whose vertices are numbered densely from 0, so that paths through it can be
+ * stored as arrays of indices instead of lists of vertex objects.
+ */
+public interface IndexedGraph<VERTEX> extends AStarGraph<VERTEX> {
+    /** Returns the index of the given vertex, between 0 (inclusive) and the number of vertices. */
+    int indexOf(VERTEX v);
+
+    /** Returns the vertex with the given index. */
+    VERTEX vertexAt(int index);
+}
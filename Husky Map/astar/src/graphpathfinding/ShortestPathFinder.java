@@ -1,6 +1,7 @@
 package graphpathfinding;
 
 import java.time.Duration;
+import java.util.Map;
 
 /**
  * Interface for shortest path solvers.
@@ -19,6 +20,23 @@ public abstract class ShortestPathFinder<VERTEX> {
      */
     public abstract ShortestPathResult<VERTEX> findShortestPath(VERTEX start, VERTEX end, Duration timeout);
 
+    /**
+     * Computes a shortest path from any of the given starts to any of the given ends, where each
+     * start and end is mapped to a non-negative offset that is added to the weight of any path
+     * beginning or finishing there. The returned solution is the path minimizing the weight
+     * including both offsets, and its solution weight includes them as well.
+     *
+     * Has the same single-use, TIMEOUT and UNSOLVABLE behavior as
+     * {@link #findShortestPath(Object, Object, Duration)}.
+     *
+     * @throws UnsupportedOperationException if this finder only supports a single start and end
+     */
+    public ShortestPathResult<VERTEX> findShortestPath(Map<VERTEX, Double> starts, Map<VERTEX, Double> ends,
+                                                       Duration timeout) {
+        throw new UnsupportedOperationException(getClass().getSimpleName()
+            + " does not support multiple starts or ends");
+    }
+
     /**
      * Returns the graph that this shortest path finder runs on.
      * Intended to be used for testing feedback only.
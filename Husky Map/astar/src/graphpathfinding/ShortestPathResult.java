@@ -1,7 +1,9 @@
 package graphpathfinding;
 
 import java.time.Duration;
+import java.util.AbstractList;
 import java.util.List;
+import java.util.function.IntFunction;
 
 /**
  * A result object returned by {@link ShortestPathFinder#findShortestPath(VERTEX, VERTEX, Duration)}.
@@ -92,6 +94,67 @@ public abstract class ShortestPathResult<VERTEX> {
         }
     }
 
+    /**
+     * A result representing a successfully-computed shortest path through an {@link IndexedGraph},
+     * stored as an array of vertex indices and an array of cumulative distances instead of a list
+     * of vertices. The solution list is a read-only view that looks up each vertex when accessed.
+     */
+    public static class CompactSolved<VERTEX> extends ShortestPathResult<VERTEX> {
+        private final int[] indices;
+        private final double[] distances;
+        private final IntFunction<VERTEX> vertexAt;
+        private final double solutionWeight;
+
+        CompactSolved(int[] indices, double[] distances, IntFunction<VERTEX> vertexAt, double solutionWeight,
+                      int numStatesExplored, Duration explorationTime) {
+            super(numStatesExplored, explorationTime);
+            this.indices = indices;
+            this.distances = distances;
+            this.vertexAt = vertexAt;
+            this.solutionWeight = solutionWeight;
+        }
+
+        @Override
+        protected SolverOutcome outcome() {
+            return SolverOutcome.SOLVED;
+        }
+
+        @Override
+        public List<VERTEX> solution() {
+            return new AbstractList<>() {
+                @Override
+                public VERTEX get(int i) {
+                    return vertexAt.apply(indices[i]);
+                }
+
+                @Override
+                public int size() {
+                    return indices.length;
+                }
+            };
+        }
+
+        @Override
+        public double solutionWeight() {
+            return this.solutionWeight;
+        }
+
+        /** The number of vertices in the solution. */
+        public int length() {
+            return indices.length;
+        }
+
+        /** The graph index of the i-th vertex of the solution. */
+        public int indexAt(int i) {
+            return indices[i];
+        }
+
+        /** The distance along the solution from its first vertex to its i-th vertex. */
+        public double distanceAt(int i) {
+            return distances[i];
+        }
+    }
+
     /**
      * A base class for results representing failed computations of shortest paths.
      */
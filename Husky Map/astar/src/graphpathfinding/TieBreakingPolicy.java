@@ -0,0 +1,51 @@
+package graphpathfinding;
+
+/**
+ * Decides which vertex {@link AStarPathFinder} expands next when several vertices on the frontier
+ * share the lowest f-value (distance so far plus estimated distance to goal).
+ *
+ * On unit-cost graphs such as sliding puzzles and word ladders, large plateaus of equal f are
+ * common, so the choice here can change the number of states explored considerably.
+ */
+public enum TieBreakingPolicy {
+    /** Leaves ties in whatever order the frontier happens to return them. */
+    ARBITRARY {
+        @Override
+        double tieBreaker(double distance, double estimate, long order) {
+            return 0;
+        }
+    },
+    /** Prefers the vertex with the lowest estimated distance to the goal. */
+    LOWEST_H {
+        @Override
+        double tieBreaker(double distance, double estimate, long order) {
+            return estimate;
+        }
+    },
+    /**
+     * Prefers the vertex with the highest distance from the start. Given equal f, this orders
+     * ties the same way as {@link #LOWEST_H} up to floating-point rounding.
+     */
+    HIGHEST_G {
+        @Override
+        double tieBreaker(double distance, double estimate, long order) {
+            return -distance;
+        }
+    },
+    /** Prefers the vertex most recently added to (or updated in) the frontier. */
+    LIFO {
+        @Override
+        double tieBreaker(double distance, double estimate, long order) {
+            return -order;
+        }
+    };
+
+    /**
+     * Returns the secondary key for a frontier entry; lower keys are expanded first among equals.
+     *
+     * @param distance the best known distance from the start to the vertex
+     * @param estimate the estimated distance from the vertex to the goal
+     * @param order    a counter that increases with each frontier insertion or update
+     */
+    abstract double tieBreaker(double distance, double estimate, long order);
+}
@@ -0,0 +1,165 @@
+package priorityqueues;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.NoSuchElementException;
+
+/**
+ * A bucket queue (Dial's algorithm) for small non-negative integer priorities, such as the
+ * f-values of searches with unit edge weights and integer heuristics.
+ *
+ * Bucket p holds a doubly-linked list of the items with priority p, so add and changePriority
+ * take O(1) time. removeMin scans upward from the lowest bucket that may be non-empty, which
+ * costs O(1) amortized time when priorities removed rarely decrease, as in A* with a consistent
+ * heuristic. The bucket array grows to the largest priority seen, so memory is proportional to
+ * that priority as well as to the number of items.
+ *
+ * Among items of equal priority, the most recently added or changed item is removed first.
+ */
+public class BucketMinPQ<T> implements ExtrinsicMinPQ<T> {
+    private static final int DEFAULT_BUCKETS = 64;
+    /** The largest priority accepted, so that the bucket array can always be allocated. */
+    public static final int MAX_PRIORITY = Integer.MAX_VALUE - 8;
+
+    private Node<T>[] buckets;
+    private final HashMap<T, Node<T>> nodes = new HashMap<>();
+    /** No bucket below this one holds any items. */
+    private int lowest = 0;
+
+    private static final class Node<T> {
+        private final T item;
+        private int priority;
+        private Node<T> prev;
+        private Node<T> next;
+
+        Node(T item) {
+            this.item = item;
+        }
+    }
+
+    public BucketMinPQ() {
+        this(DEFAULT_BUCKETS);
+    }
+
+    /** Creates a PQ that accepts priorities below the given bound without resizing. */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public BucketMinPQ(int initialBuckets) {
+        buckets = (Node<T>[]) new Node[Math.max(initialBuckets, 1)];
+    }
+
+    /** Returns true if the PQ can hold items with the given priority. */
+    public static boolean accepts(double priority) {
+        return priority >= 0 && priority <= MAX_PRIORITY && priority == Math.rint(priority);
+    }
+
+    private static int bucketOf(double priority) {
+        if (!accepts(priority)) {
+            throw new IllegalArgumentException("Priority must be an integer from 0 to "
+                + MAX_PRIORITY + ", not " + priority);
+        }
+        return (int) priority;
+    }
+
+    /** Pushes node onto the front of its bucket's list. */
+    private void link(Node<T> node, int bucket) {
+        if (bucket >= buckets.length) {
+            buckets = Arrays.copyOf(buckets, (int) Math.min(MAX_PRIORITY + 1L,
+                Math.max(bucket + 1L, 2L * buckets.length)));
+        }
+        node.priority = bucket;
+        node.prev = null;
+        node.next = buckets[bucket];
+        if (node.next != null) {
+            node.next.prev = node;
+        }
+        buckets[bucket] = node;
+        if (bucket < lowest) {
+            lowest = bucket;
+        }
+    }
+
+    private void unlink(Node<T> node) {
+        if (node.prev == null) {
+            buckets[node.priority] = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+    }
+
+    /**
+     * Adds an item with the given priority value.
+     *
+     * @throws IllegalArgumentException if item is null or is already present in the PQ, or if
+     *                                  priority is not an integer from 0 to MAX_PRIORITY
+     */
+    @Override
+    public void add(T item, double priority) {
+        if (item == null) {
+            throw new IllegalArgumentException("Item cannot be null");
+        } else if (nodes.containsKey(item)) {
+            throw new IllegalArgumentException("Already contains " + item);
+        }
+        int bucket = bucketOf(priority);
+        Node<T> node = new Node<>(item);
+        link(node, bucket);
+        nodes.put(item, node);
+    }
+
+    @Override
+    public boolean contains(T item) {
+        return nodes.containsKey(item);
+    }
+
+    /** Returns the first node in the lowest non-empty bucket. The PQ must not be empty. */
+    private Node<T> first() {
+        while (buckets[lowest] == null) {
+            lowest += 1;
+        }
+        return buckets[lowest];
+    }
+
+    @Override
+    public T peekMin() {
+        if (nodes.isEmpty()) {
+            throw new NoSuchElementException("PQ is empty.");
+        }
+        return first().item;
+    }
+
+    @Override
+    public T removeMin() {
+        if (nodes.isEmpty()) {
+            throw new NoSuchElementException("PQ is empty.");
+        }
+        Node<T> node = first();
+        unlink(node);
+        nodes.remove(node.item);
+        return node.item;
+    }
+
+    /**
+     * Changes the priority of the given item, and moves it ahead of the other items with the new
+     * priority.
+     *
+     * @throws NoSuchElementException if the item is not present in the PQ
+     * @throws IllegalArgumentException if priority is not an integer from 0 to MAX_PRIORITY
+     */
+    @Override
+    public void changePriority(T item, double priority) {
+        Node<T> node = nodes.get(item);
+        if (node == null) {
+            throw new NoSuchElementException(item + " not in PQ.");
+        }
+        int bucket = bucketOf(priority);
+        unlink(node);
+        link(node, bucket);
+    }
+
+    @Override
+    public int size() {
+        return nodes.size();
+    }
+}
@@ -4,16 +4,59 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
 
 /**
  * Use this PQ implementation if you don't want to use your ArrayHeapMinPQ.
  * This implementation is, in theory, slower than ArrayHeapMinPQ.
+ *
+ * Items may optionally be given a secondary tie-breaker value: among items with equal priority,
+ * the one with the lowest tie-breaker is removed first. Items with equal priority and equal
+ * tie-breaker are returned in no particular order.
  */
 public class DoubleMapMinPQ<T> implements ExtrinsicMinPQ<T> {
-    private TreeMap<Double, Set<T>> priorityToItem = new TreeMap<>();
-    private HashMap<T, Double> itemToPriority = new HashMap<>();
+    private TreeMap<Key, Set<T>> priorityToItem = new TreeMap<>();
+    private HashMap<T, Key> itemToPriority = new HashMap<>();
+
+    /** A priority paired with its tie-breaker, ordered by priority first. */
+    private static final class Key implements Comparable<Key> {
+        private final double priority;
+        private final double tieBreaker;
+
+        Key(double priority, double tieBreaker) {
+            this.priority = priority;
+            this.tieBreaker = tieBreaker;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int cmp = Double.compare(this.priority, other.priority);
+            if (cmp != 0) {
+                return cmp;
+            }
+            return Double.compare(this.tieBreaker, other.tieBreaker);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Double.compare(key.priority, priority) == 0 &&
+                Double.compare(key.tieBreaker, tieBreaker) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(priority, tieBreaker);
+        }
+    }
 
     public DoubleMapMinPQ() {}
 
@@ -24,15 +67,26 @@ public class DoubleMapMinPQ<T> implements ExtrinsicMinPQ<T> {
 
     @Override
     public void add(T item, double priority) {
+        add(item, priority, 0);
+    }
+
+    /**
+     * Adds an item with the given priority value. Ties with other items of the same priority are
+     * broken in favor of the lowest tie-breaker.
+     *
+     * @throws IllegalArgumentException if item is already present in the PQ
+     */
+    public void add(T item, double priority, double tieBreaker) {
         if (itemToPriority.containsKey(item)) {
             throw new IllegalArgumentException("Already contains " + item);
         }
-        if (!priorityToItem.containsKey(priority)) {
-            priorityToItem.put(priority, new HashSet<T>());
+        Key key = new Key(priority, tieBreaker);
+        if (!priorityToItem.containsKey(key)) {
+            priorityToItem.put(key, new HashSet<T>());
         }
-        Set<T> itemsWithPriority = priorityToItem.get(priority);
+        Set<T> itemsWithPriority = priorityToItem.get(key);
         itemsWithPriority.add(item);
-        itemToPriority.put(item, priority);
+        itemToPriority.put(item, key);
     }
 
     @Override
@@ -55,7 +109,7 @@ public class DoubleMapMinPQ<T> implements ExtrinsicMinPQ<T> {
             throw new NoSuchElementException("PQ is empty.");
         }
 
-        double lowestPriority = priorityToItem.firstKey();
+        Key lowestPriority = priorityToItem.firstKey();
 
         Set<T> itemsWithLowestPriority = priorityToItem.get(lowestPriority);
         T item = getItem(itemsWithLowestPriority);
@@ -70,11 +124,20 @@ public class DoubleMapMinPQ<T> implements ExtrinsicMinPQ<T> {
 
     @Override
     public void changePriority(T item, double priority) {
+        changePriority(item, priority, 0);
+    }
+
+    /**
+     * Changes the priority and tie-breaker of the given item.
+     *
+     * @throws IllegalArgumentException if the item is not present in the PQ
+     */
+    public void changePriority(T item, double priority, double tieBreaker) {
         if (!contains(item)) {
             throw new IllegalArgumentException(item + " not in PQ.");
         }
 
-        double oldP = itemToPriority.get(item);
+        Key oldP = itemToPriority.get(item);
         Set<T> itemsWithOldPriority = priorityToItem.get(oldP);
         itemsWithOldPriority.remove(item);
 
@@ -83,7 +146,7 @@ public class DoubleMapMinPQ<T> implements ExtrinsicMinPQ<T> {
         }
 
         itemToPriority.remove(item);
-        add(item, priority);
+        add(item, priority, tieBreaker);
     }
 
     @Override
@@ -1,7 +1,7 @@
 package puzzles;
 
 import graphpathfinding.AStarGraph;
-import graphpathfinding.AStarPathFinder;
+import graphpathfinding.AdaptivePathFinder;
 import graphpathfinding.LazySolver;
 import graphpathfinding.ShortestPathFinder;
 import graphpathfinding.ShortestPathResult;
@@ -16,14 +16,15 @@ public class ShortestPathUtil {
     /**
      * Runs a shortest path query and prints a summary of the results.
      *
-     * Attempts to use {@link graphpathfinding.AStarPathFinder} if possible; defaults to
-     * {@link graphpathfinding.LazySolver} otherwise.
+     * Attempts to use {@link graphpathfinding.AdaptivePathFinder} with its default engines if
+     * possible; defaults to {@link graphpathfinding.LazySolver} otherwise. Since only one query is
+     * run, the finder is not calibrated and the query goes to plain A*.
      */
     public static <VERTEX> void printShortestPath(AStarGraph<VERTEX> wdg, VERTEX start, VERTEX goal,
                                                   Duration timeout, String delimiter) {
         ShortestPathFinder<VERTEX> solver;
         try {
-            solver = new AStarPathFinder<>(wdg);
+            solver = AdaptivePathFinder.withDefaultEngines(wdg, Double.POSITIVE_INFINITY);
         } catch (UnsupportedOperationException e) {
             System.out.println("AStarPathFinder doesn't seem to be implemented yet; using LazySolver instead.");
             solver = new LazySolver<>(wdg);
@@ -0,0 +1,81 @@
+package puzzles;
+
+import edu.princeton.cs.algs4.In;
+import graphpathfinding.AStarGraph;
+import graphpathfinding.AStarPathFinder;
+import graphpathfinding.ShortestPathResult;
+import graphpathfinding.TieBreakingPolicy;
+import puzzles.slidingpuzzle.BoardGraph;
+import puzzles.slidingpuzzle.BoardState;
+import puzzles.wordladder.WordGraph;
+
+import java.io.File;
+import java.time.Duration;
+
+/**
+ * Compares the number of states explored by {@link AStarPathFinder} under each
+ * {@link TieBreakingPolicy} on the sliding puzzle and word ladder sets, and reports how many
+ * states each policy saves relative to {@link TieBreakingPolicy#ARBITRARY}.
+ *
+ * Every policy runs with a DoubleMapMinPQ fringe, since on these integer-weighted graphs A* would
+ * otherwise switch ARBITRARY and LIFO to a bucket queue; the search it does then is reported on
+ * its own line.
+ */
+public class TieBreakingDemo {
+    private static String[] puzzleFiles = {
+        "BasicPuzzle1.txt",
+        "BasicPuzzle2.txt",
+        "BasicPuzzle3.txt",
+        "BasicPuzzle4.txt",
+        "BasicPuzzle5.txt",
+    };
+
+    private static String[][] wordLadders = {
+        {"horse", "nurse"},
+        {"dog", "cat"},
+        {"bread", "toast"},
+    };
+
+    public static void main(String[] args) {
+        BoardGraph boardGraph = new BoardGraph();
+        for (String puzzleFile : puzzleFiles) {
+            BoardState start = BoardState.readBoard(new In(new File("astar/puzzles/", puzzleFile)));
+            BoardState goal = BoardState.solved(start.size());
+            compare(puzzleFile, boardGraph, start, goal, Duration.ofSeconds(30));
+        }
+
+        WordGraph wordGraph = WordGraph.readWords(new In(new File("astar/puzzles/words10000.txt")));
+        for (String[] ladder : wordLadders) {
+            compare(ladder[0] + "->" + ladder[1], wordGraph, ladder[0], ladder[1], Duration.ofSeconds(10));
+        }
+    }
+
+    private static <VERTEX> void compare(String name, AStarGraph<VERTEX> graph, VERTEX start, VERTEX goal,
+                                         Duration timeout) {
+        System.out.println();
+        System.out.println(name + ":");
+        int baseline = -1;
+        for (TieBreakingPolicy policy : TieBreakingPolicy.values()) {
+            AStarPathFinder<VERTEX> finder = new AStarPathFinder<>(graph, policy);
+            finder.setBucketQueueAllowed(false);
+            ShortestPathResult<VERTEX> result = finder.findShortestPath(start, goal, timeout);
+            if (policy == TieBreakingPolicy.ARBITRARY) {
+                baseline = result.numStatesExplored();
+            }
+            report(policy.toString(), result, baseline);
+        }
+        AStarPathFinder<VERTEX> finder = new AStarPathFinder<>(graph);
+        ShortestPathResult<VERTEX> result = finder.findShortestPath(start, goal, timeout);
+        if (finder.usedBucketQueue()) {
+            report("buckets", result, baseline);
+        }
+    }
+
+    private static <VERTEX> void report(String name, ShortestPathResult<VERTEX> result, int baseline) {
+        int explored = result.numStatesExplored();
+        String outcome = result.isSolved() ? "weight " + result.solutionWeight()
+            : result.isTimedOut() ? "timed out" : "unsolvable";
+        System.out.printf("  %-10s %8d states explored, saves %d vs ARBITRARY, %s%n",
+            name, explored, baseline - explored, outcome);
+    }
+}
@@ -31,6 +31,12 @@ public class BoardGraph implements AStarGraph<BoardState> {
         return totalDistance;
     }
 
+    /** Every edge has weight 1, and the heuristic is a count of moves. */
+    @Override
+    public boolean hasIntegralWeights() {
+        return true;
+    }
+
     private int manhattanDistance(BoardState b1, BoardState b2, int n) {
         int b1row = 0;
         int b1col = 0;
@@ -0,0 +1,44 @@
+package puzzles.slidingpuzzle;
+
+import graphpathfinding.AStarPathFinder;
+import tracing.FringeTraceWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Records the fringe operations of A* solving randomly scrambled sliding puzzles, for replay by
+ * the heap project's TraceReplayBenchmark.
+ *
+ * Usage: {@code RecordFringeTrace trace.bin [puzzles [scrambleMoves [size]]]}. Each puzzle is made
+ * by sliding tiles of the solved board at random, from a fixed seed, so runs are repeatable.
+ */
+public class RecordFringeTrace {
+    public static void main(String[] args) throws IOException {
+        Path path = Path.of(args[0]);
+        int puzzles = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int scrambleMoves = args.length > 2 ? Integer.parseInt(args[2]) : 40;
+        int size = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+
+        BoardGraph graph = new BoardGraph();
+        BoardState goal = BoardState.solved(size);
+        Random random = new Random(373);
+        try (FringeTraceWriter<BoardState> writer = new FringeTraceWriter<>(path)) {
+            for (int i = 0; i < puzzles; i += 1) {
+                BoardState start = goal;
+                for (int move = 0; move < scrambleMoves; move += 1) {
+                    List<BoardState> neighbors = start.neighbors();
+                    start = neighbors.get(random.nextInt(neighbors.size()));
+                }
+                AStarPathFinder<BoardState> finder = new AStarPathFinder<>(graph);
+                finder.setFringeRecorder(writer);
+                finder.findShortestPath(start, goal, Duration.ofSeconds(30));
+            }
+            System.out.printf("Recorded %d fringe operations over %d puzzles to %s%n",
+                writer.operations(), puzzles, path);
+        }
+    }
+}
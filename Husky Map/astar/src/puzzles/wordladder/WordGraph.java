@@ -81,6 +81,12 @@ public class WordGraph implements AStarGraph<String> {
         return editDistance(v, goal);
     }
 
+    /** Every edge has weight 1, and the heuristic is a count of moves. */
+    @Override
+    public boolean hasIntegralWeights() {
+        return true;
+    }
+
     public Set<String> getWords() {
         return Collections.unmodifiableSet(this.words);
     }
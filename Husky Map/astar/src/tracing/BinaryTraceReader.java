@@ -0,0 +1,96 @@
+package tracing;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.function.Consumer;
+
+/**
+ * Reads back traces written by {@link BinaryTraceWriter}, one expansion at a time in the order
+ * they happened.
+ */
+public class BinaryTraceReader {
+    /**
+     * Calls action on every expansion in the trace at path, in order.
+     *
+     * @throws IOException if the file cannot be read or is not a trace, or an expansion's index
+     *                     is negative
+     */
+    public static void forEach(Path path, Consumer<Expansion> action) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            DataInputStream data = new DataInputStream(in);
+            byte[] record = new byte[BinaryTraceWriter.RECORD_BYTES];
+            ByteBuffer buffer = ByteBuffer.wrap(record).order(ByteOrder.LITTLE_ENDIAN);
+            data.readFully(record, 0, 8);
+            if (buffer.getInt(0) != BinaryTraceWriter.MAGIC || buffer.getInt(4) != BinaryTraceWriter.VERSION) {
+                throw new IOException(path + " is not a version " + BinaryTraceWriter.VERSION + " trace");
+            }
+            while (true) {
+                try {
+                    data.readFully(record);
+                } catch (EOFException e) {
+                    return;
+                }
+                buffer.rewind();
+                int index = buffer.getInt();
+                if (index < 0) {
+                    throw new IOException(path + " records negative vertex index " + index);
+                }
+                action.accept(new Expansion(index, buffer.getFloat(), buffer.getFloat(),
+                    buffer.getInt(), buffer.getLong()));
+            }
+        }
+    }
+
+    /** Prints a summary of the trace file given as the first argument. */
+    public static void main(String[] args) throws IOException {
+        Summary summary = new Summary();
+        forEach(Path.of(args[0]), summary);
+        System.out.println(summary);
+    }
+
+    /** Aggregate statistics over the expansions of a trace. */
+    public static class Summary implements Consumer<Expansion> {
+        private final BitSet seen = new BitSet();
+        private long expansions = 0;
+        private long reexpansions = 0;
+        private int maxFringeSize = 0;
+        private float maxDistance = 0;
+        private Expansion first;
+        private Expansion last;
+
+        @Override
+        public void accept(Expansion e) {
+            if (first == null) {
+                first = e;
+            }
+            last = e;
+            expansions += 1;
+            if (seen.get(e.index)) {
+                reexpansions += 1;
+            }
+            seen.set(e.index);
+            maxFringeSize = Math.max(maxFringeSize, e.fringeSize);
+            maxDistance = Math.max(maxDistance, e.distance);
+        }
+
+        @Override
+        public String toString() {
+            if (first == null) {
+                return "Empty trace.";
+            }
+            double millis = (last.nanos - first.nanos) / 1e6;
+            return String.format("%d expansions (%d of them repeats) over %.3f ms%n"
+                    + "max fringe size %d, max distance from start %.4f%n"
+                    + "first: %s%nlast:  %s",
+                expansions, reexpansions, millis, maxFringeSize, maxDistance, first, last);
+        }
+    }
+}
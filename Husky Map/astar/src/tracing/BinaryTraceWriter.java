@@ -0,0 +1,188 @@
+package tracing;
+
+import graphpathfinding.ExpansionRecorder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.ToIntFunction;
+
+/**
+ * Streams vertex expansions to a compact binary file. Each expansion takes {@link #RECORD_BYTES}
+ * bytes: the vertex index, g and h as floats, the fringe size and a nanosecond timestamp.
+ *
+ * Expansions are written into a ring of {@link #SEGMENTS} reused in-memory segments. When the
+ * searching thread fills a segment, it hands the segment to a background thread, which writes it
+ * to the file and returns it to the ring, and carries on in the next free segment. Recording thus
+ * costs a few stores per expansion and the search never waits for the file system, unless the
+ * file system falls so far behind that every segment is waiting to be written; then the search
+ * waits for a segment to come free, and {@link #stalls()} counts how often that happened.
+ * The trace is incomplete until {@link #close()} is called.
+ */
+public class BinaryTraceWriter<VERTEX> implements ExpansionRecorder<VERTEX>, Closeable {
+    /** Marks the start of a trace file; spells "ATRC". */
+    static final int MAGIC = 0x41545243;
+    static final int VERSION = 1;
+    static final int RECORD_BYTES = 24;
+    /** The number of segments in the ring. */
+    static final int SEGMENTS = 4;
+    private static final int DEFAULT_CAPACITY = 1 << 14;
+    /** Handed to the background thread, after the last segment, to make it stop. */
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final FileChannel channel;
+    /** Segments that are free to be filled, and filled segments waiting to be written, in order. */
+    private final BlockingQueue<ByteBuffer> free;
+    private final BlockingQueue<ByteBuffer> filled;
+    private final Thread drainer;
+    private final ToIntFunction<VERTEX> indexOf;
+    private final long start;
+    /** The segment being filled. */
+    private ByteBuffer current;
+    private long stalls = 0;
+    /** The first error writing the file, if any; set by the background thread. */
+    private volatile IOException failure;
+
+    /**
+     * Creates (or truncates) the trace file at path.
+     *
+     * @param indexOf maps each vertex to the index recorded for it, e.g. IndexedGraph::indexOf
+     */
+    public BinaryTraceWriter(Path path, ToIntFunction<VERTEX> indexOf) throws IOException {
+        this(path, indexOf, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates (or truncates) the trace file at path, buffering up to about the given number of
+     * expansions in memory, spread over the ring's segments.
+     */
+    public BinaryTraceWriter(Path path, ToIntFunction<VERTEX> indexOf, int capacity) throws IOException {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        // Every segment must have room for the header, which takes less than one record.
+        int segmentBytes = Math.max(1, capacity / SEGMENTS) * RECORD_BYTES;
+        this.free = new ArrayBlockingQueue<>(SEGMENTS);
+        this.filled = new ArrayBlockingQueue<>(SEGMENTS + 1);
+        for (int i = 0; i < SEGMENTS; i += 1) {
+            free.add(ByteBuffer.allocateDirect(segmentBytes).order(ByteOrder.LITTLE_ENDIAN));
+        }
+        this.indexOf = indexOf;
+        this.start = System.nanoTime();
+        current = free.remove();
+        current.putInt(MAGIC).putInt(VERSION);
+        drainer = new Thread(this::drain, "trace-writer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    /**
+     * Appends an expansion to the trace.
+     *
+     * @throws IllegalArgumentException if indexOf maps v to a negative index, e.g. because v is
+     *                                  not in the graph; nothing is recorded
+     * @throws UncheckedIOException if an earlier part of the trace could not be written out
+     */
+    @Override
+    public void expanded(VERTEX v, double distance, double estimate, int fringeSize) {
+        int index = indexOf.applyAsInt(v);
+        if (index < 0) {
+            throw new IllegalArgumentException("Vertex " + v + " has negative index " + index);
+        }
+        if (current.remaining() < RECORD_BYTES) {
+            handOff();
+        }
+        current.putInt(index)
+            .putFloat((float) distance)
+            .putFloat((float) estimate)
+            .putInt(fringeSize)
+            .putLong(System.nanoTime() - start);
+    }
+
+    /**
+     * Returns the number of times the search had to wait for the background thread because every
+     * segment was full.
+     */
+    public long stalls() {
+        return stalls;
+    }
+
+    /** Hands the current segment to the background thread and moves on to a free one. */
+    private void handOff() {
+        if (failure != null) {
+            throw new UncheckedIOException(failure);
+        }
+        current.flip();
+        // Never blocks: filled has room for every segment.
+        filled.add(current);
+        current = free.poll();
+        if (current == null) {
+            stalls += 1;
+            try {
+                current = free.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new InterruptedIOException("Interrupted while tracing"));
+            }
+        }
+    }
+
+    /** Run by the background thread: writes filled segments in order until handed END. */
+    private void drain() {
+        while (true) {
+            ByteBuffer segment;
+            try {
+                segment = filled.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (segment == END) {
+                return;
+            }
+            // After a failure, segments are only recycled, so that the search never waits forever.
+            if (failure == null) {
+                try {
+                    while (segment.hasRemaining()) {
+                        channel.write(segment);
+                    }
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            segment.clear();
+            free.add(segment);
+        }
+    }
+
+    /** Writes out any buffered expansions, waits for the background thread, and closes the file. */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            current.flip();
+            filled.add(current);
+            filled.add(END);
+            drainer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while closing trace");
+        } finally {
+            channel.close();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
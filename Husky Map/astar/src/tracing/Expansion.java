@@ -0,0 +1,34 @@
+package tracing;
+
+/** A single vertex expansion read back from a trace written by {@link BinaryTraceWriter}. */
+public class Expansion {
+    /** The graph index of the expanded vertex. */
+    public final int index;
+    /** The distance from the start to the vertex (g). */
+    public final float distance;
+    /** The heuristic estimate of the distance from the vertex to the goal (h). */
+    public final float estimate;
+    /** The number of vertices left on the fringe after the expansion. */
+    public final int fringeSize;
+    /** Nanoseconds between the writer being created and the expansion. */
+    public final long nanos;
+
+    Expansion(int index, float distance, float estimate, int fringeSize, long nanos) {
+        this.index = index;
+        this.distance = distance;
+        this.estimate = estimate;
+        this.fringeSize = fringeSize;
+        this.nanos = nanos;
+    }
+
+    @Override
+    public String toString() {
+        return "Expansion{" +
+            "index=" + index +
+            ", distance=" + distance +
+            ", estimate=" + estimate +
+            ", fringeSize=" + fringeSize +
+            ", nanos=" + nanos +
+            '}';
+    }
+}
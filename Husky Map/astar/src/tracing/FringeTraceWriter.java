@@ -0,0 +1,127 @@
+package tracing;
+
+import graphpathfinding.FringeRecorder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Streams the fringe operations of one or more searches to a compact binary file, which the
+ * TraceReplayBenchmark in the heap project replays against every ExtrinsicMinPQ.
+ *
+ * After an 8-byte header (MAGIC, VERSION), each operation takes {@link #RECORD_BYTES} bytes,
+ * little-endian: a one-byte op code, an int item id and a double priority. Items are numbered
+ * from 0 in the order each search first adds them, so a trace never refers to the vertices
+ * themselves. A REMOVE_MIN record holds the id and priority of the item that was removed.
+ *
+ * Like {@link BinaryTraceWriter}, operations are written through a reused in-memory buffer, and
+ * the trace is incomplete until {@link #close()} is called. A writer may be given to any number
+ * of AStarPathFinders in turn; each search starts a new section of the trace.
+ */
+public class FringeTraceWriter<VERTEX> implements FringeRecorder<VERTEX>, Closeable {
+    /** Marks the start of a fringe trace file; spells "PQTR". */
+    public static final int MAGIC = 0x50515452;
+    public static final int VERSION = 1;
+    public static final int RECORD_BYTES = 13;
+    public static final byte NEW_SEARCH = 0;
+    public static final byte ADD = 1;
+    public static final byte CHANGE_PRIORITY = 2;
+    public static final byte REMOVE_MIN = 3;
+    private static final int DEFAULT_CAPACITY = 1 << 14;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final Map<VERTEX, Integer> ids = new HashMap<>();
+    private double[] priorities = new double[DEFAULT_CAPACITY];
+    private long operations = 0;
+
+    /** Creates (or truncates) the trace file at path. */
+    public FringeTraceWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(DEFAULT_CAPACITY * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION);
+    }
+
+    /** Returns the number of fringe operations recorded so far, not counting search starts. */
+    public long operations() {
+        return operations;
+    }
+
+    @Override
+    public void started() {
+        ids.clear();
+        append(NEW_SEARCH, 0, 0);
+    }
+
+    @Override
+    public void added(VERTEX v, double priority) {
+        int id = ids.computeIfAbsent(v, k -> ids.size());
+        if (id == priorities.length) {
+            priorities = Arrays.copyOf(priorities, priorities.length * 2);
+        }
+        priorities[id] = priority;
+        operations += 1;
+        append(ADD, id, priority);
+    }
+
+    @Override
+    public void changed(VERTEX v, double priority) {
+        int id = ids.get(v);
+        priorities[id] = priority;
+        operations += 1;
+        append(CHANGE_PRIORITY, id, priority);
+    }
+
+    @Override
+    public void removed(VERTEX v) {
+        int id = ids.get(v);
+        operations += 1;
+        append(REMOVE_MIN, id, priorities[id]);
+    }
+
+    /**
+     * Appends an operation to the trace.
+     *
+     * @throws UncheckedIOException if the buffer was full and could not be written out
+     */
+    private void append(byte op, int id, double priority) {
+        if (buffer.remaining() < RECORD_BYTES) {
+            flush();
+        }
+        buffer.put(op).putInt(id).putDouble(priority);
+    }
+
+    private void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+
+    /** Writes out any buffered operations and closes the file. */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            channel.close();
+        }
+    }
+}
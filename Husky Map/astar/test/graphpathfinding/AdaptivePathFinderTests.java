@@ -0,0 +1,250 @@
+package graphpathfinding;
+
+import edu.washington.cse373.BaseTest;
+import graphpathfinding.AdaptivePathFinder.EngineMetrics;
+import graphpathfinding.AdaptivePathFinder.QueryClass;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks engine selection with stub engines that report fixed latencies instead of searching, on
+ * a graph of integers whose heuristic is their difference.
+ */
+public class AdaptivePathFinderTests extends BaseTest {
+    /** Queries at least this far apart are LONG. */
+    private static final double THRESHOLD = 100;
+    private static final Duration TIMEOUT = Duration.ofSeconds(1);
+    private static final List<Integer> SHORT_STARTS = List.of(0, 0, 0);
+    private static final List<Integer> SHORT_ENDS = List.of(10, 20, 30);
+    private static final List<Integer> LONG_STARTS = List.of(0, 0, 0);
+    private static final List<Integer> LONG_ENDS = List.of(500, 600, 700);
+
+    private static class NumberLine implements AStarGraph<Integer> {
+        @Override
+        public Collection<WeightedEdge<Integer>> neighbors(Integer v) {
+            return List.of();
+        }
+
+        @Override
+        public double estimatedDistanceToGoal(Integer v, Integer goal) {
+            return Math.abs(goal - v);
+        }
+    }
+
+    /** What a stub engine reports for a query: its latency, or that it timed out. */
+    private interface Behavior {
+        ShortestPathResult<Integer> run(int start, int end, int run);
+    }
+
+    private static ShortestPathResult<Integer> solvedIn(double millis, int start, int end, double marker) {
+        return new ShortestPathResult.Solved<>(List.of(start, end), marker, 1,
+            Duration.ofNanos((long) (millis * 1e6)));
+    }
+
+    private static ShortestPathResult<Integer> timedOutIn(double millis) {
+        return new ShortestPathResult.Timeout<>(1, Duration.ofNanos((long) (millis * 1e6)));
+    }
+
+    /** An engine that answers every query by its behavior, numbering its runs across instances. */
+    private static class StubEngine extends ShortestPathFinder<Integer> {
+        private final AStarGraph<Integer> graph;
+        private final Behavior behavior;
+        private final int[] runs;
+
+        StubEngine(AStarGraph<Integer> graph, Behavior behavior, int[] runs) {
+            this.graph = graph;
+            this.behavior = behavior;
+            this.runs = runs;
+        }
+
+        @Override
+        public ShortestPathResult<Integer> findShortestPath(Integer start, Integer end, Duration timeout) {
+            runs[0] += 1;
+            return behavior.run(start, end, runs[0]);
+        }
+
+        @Override
+        public ShortestPathResult<Integer> findShortestPath(Map<Integer, Double> starts, Map<Integer, Double> ends,
+                                                            Duration timeout) {
+            return findShortestPath(starts.keySet().iterator().next(), ends.keySet().iterator().next(), timeout);
+        }
+
+        @Override
+        protected AStarGraph<Integer> graph() {
+            return graph;
+        }
+    }
+
+    private static void register(AdaptivePathFinder<Integer> finder, String name, Behavior behavior) {
+        int[] runs = new int[1];
+        finder.register(name, g -> new StubEngine(g, behavior, runs));
+    }
+
+    /** Registers an engine whose answers have the given marker as their solution weight. */
+    private static void register(AdaptivePathFinder<Integer> finder, String name, double marker,
+                                 double shortMillis, double longMillis) {
+        register(finder, name, (start, end, run) ->
+            solvedIn(Math.abs(end - start) >= THRESHOLD ? longMillis : shortMillis, start, end, marker));
+    }
+
+    private static void calibrate(AdaptivePathFinder<Integer> finder) {
+        finder.calibrate(SHORT_STARTS, SHORT_ENDS, TIMEOUT);
+        finder.calibrate(LONG_STARTS, LONG_ENDS, TIMEOUT);
+    }
+
+    private static EngineMetrics metrics(AdaptivePathFinder<Integer> finder, String engine, QueryClass queryClass) {
+        for (EngineMetrics m : finder.metrics()) {
+            if (m.engine.equals(engine) && m.queryClass == queryClass) {
+                return m;
+            }
+        }
+        throw new AssertionError("No metrics for " + engine + " on " + queryClass);
+    }
+
+    @Test
+    void selectedEngine_whenNoEnginesRegistered_throws() {
+        AdaptivePathFinder<Integer> finder = new AdaptivePathFinder<>(new NumberLine(), THRESHOLD);
+        assertThatThrownBy(() -> finder.selectedEngine(QueryClass.SHORT))
+            .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> finder.findShortestPath(0, 10, TIMEOUT))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void register_whenNameIsTaken_throws() {
+        AdaptivePathFinder<Integer> finder = new AdaptivePathFinder<>(new NumberLine(), THRESHOLD);
+        register(finder, "a", 1, 1, 1);
+        assertThatThrownBy(() -> register(finder, "a", 2, 2, 2))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void findShortestPath_beforeCalibrating_usesFirstEngine() {
+        AdaptivePathFinder<Integer> finder = new AdaptivePathFinder<>(new NumberLine(), THRESHOLD);
+        register(finder, "slow", 1, 9, 9);
+        register(finder, "fast", 2, 1, 1);
+        assertThat(finder.findShortestPath(0, 10, TIMEOUT).solutionWeight()).isEqualTo(1.0);
+        assertThat(finder.selectedEngine(QueryClass.LONG)).isEqualTo("slow");
+    }
+
+    @Test
+    void calibrate_selectsFastestEnginePerClass() {
+        AdaptivePathFinder<Integer> finder = new AdaptivePathFinder<>(new NumberLine(), THRESHOLD);
+        register(finder, "a", 1, 1, 9);
+        register(finder, "b", 2, 5, 2);
+        calibrate(finder);
+        assertThat(finder.classify(0, 10)).isEqualTo(QueryClass.SHORT);
+        assertThat(finder.classify(0, 500)).isEqualTo(QueryClass.LONG);
+        assertThat(finder.selectedEngine(QueryClass.SHORT)).isEqualTo("a");
+        assertThat(finder.selectedEngine(QueryClass.LONG)).isEqualTo("b");
+        assertThat(finder.findShortestPath(0, 10, TIMEOUT).solutionWeight()).isEqualTo(1.0);
+        assertThat(finder.findShortestPath(0, 500, TIMEOUT).solutionWeight()).isEqualTo(2.0);
+        assertThat(metrics(finder, "a", QueryClass.SHORT).calibrationRuns).isEqualTo(3);
+        assertThat(metrics(finder, "a", QueryClass.SHORT).meanLatencyMillis).isEqualTo(1.0);
+    }
+
+    @Test
+    void findShortestPath_whenLatencyDrifts_followsRecentRuns() {
+        AdaptivePathFinder<Integer> finder = new AdaptivePathFinder<>(new NumberLine(), THRESHOLD);
+        // a is fastest at first, then slows down past b.
+        register(finder, "a", (start, end, run) -> solvedIn(run <= 3 ? 1 : 20, start, end, 1));
+        register(finder, "b", 2, 5, 5);
+        finder.calibrate(SHORT_STARTS, SHORT_ENDS, TIMEOUT);
+        assertThat(finder.selectedEngine(QueryClass.SHORT)).isEqualTo("a");
+        for (int i = 0; i < 10; i += 1) {
+            finder.findShortestPath(0, 10, TIMEOUT);
+        }
+        assertThat(finder.selectedEngine(QueryClass.SHORT)).isEqualTo("b");
+    }
+
+    @Test
+    void timeouts_areNotAveragedIntoLatency() {
+        AdaptivePathFinder<Integer> finder = new AdaptivePathFinder<>(new NumberLine(), THRESHOLD);
+        // Times out quickly every time, which must not look fast.
+        register(finder, "hopeless", (start, end, run) -> timedOutIn(0.1));
+        // Times out on every other run; the runs that finish take 3ms.
+        register(finder, "flaky", (start, end, run) -> run % 2 == 0 ? timedOutIn(0.1) : solvedIn(3, start, end, 2));
+        register(finder, "steady", 3, 4, 4);
+        finder.calibrate(List.of(0, 0, 0, 0), List.of(10, 20, 30, 40), TIMEOUT);
+
+        EngineMetrics hopeless = metrics(finder, "hopeless", QueryClass.SHORT);
+        assertThat(hopeless.timeouts).isEqualTo(4);
+        assertThat(hopeless.meanLatencyMillis).isEqualTo(0.0);
+        EngineMetrics flaky = metrics(finder, "flaky", QueryClass.SHORT);
+        assertThat(flaky.timeouts).isEqualTo(2);
+        assertThat(flaky.meanLatencyMillis).isEqualTo(3.0);
+        assertThat(flaky.recentLatencyMillis).isEqualTo(3.0);
+        assertThat(finder.selectedEngine(QueryClass.SHORT)).isEqualTo("flaky");
+    }
+
+    @Test
+    void selectedEngine_whenEngineTimesOutOnMostRuns_skipsIt() {
+        AdaptivePathFinder<Integer> finder = new AdaptivePathFinder<>(new NumberLine(), THRESHOLD);
+        // Fastest when it finishes, but it finishes only one run in three.
+        register(finder, "unreliable", (start, end, run) -> run % 3 == 1 ? solvedIn(1, start, end, 1) : timedOutIn(5));
+        register(finder, "steady", 2, 4, 4);
+        finder.calibrate(SHORT_STARTS, SHORT_ENDS, TIMEOUT);
+        assertThat(finder.selectedEngine(QueryClass.SHORT)).isEqualTo("steady");
+    }
+
+    @Test
+    void resampling_shadowsEveryIntervalthQueryWithoutServingIt() {
+        AdaptivePathFinder<Integer> finder = new AdaptivePathFinder<>(new NumberLine(), THRESHOLD);
+        register(finder, "a", 1, 1, 1);
+        register(finder, "b", 2, 5, 5);
+        register(finder, "c", 3, 9, 9);
+        finder.calibrate(SHORT_STARTS, SHORT_ENDS, TIMEOUT);
+        finder.setShadowExecutor(Runnable::run);
+
+        int interval = AdaptivePathFinder.RESAMPLE_INTERVAL;
+        List<Double> served = new ArrayList<>();
+        for (int i = 1; i < interval; i += 1) {
+            served.add(finder.findShortestPath(0, 10, TIMEOUT).solutionWeight());
+        }
+        assertThat(metrics(finder, "b", QueryClass.SHORT).shadowRuns).isEqualTo(0);
+        assertThat(metrics(finder, "c", QueryClass.SHORT).shadowRuns).isEqualTo(0);
+        served.add(finder.findShortestPath(0, 10, TIMEOUT).solutionWeight());
+        // b and c were last run in calibration, b before c, so b is shadowed first, then c.
+        assertThat(metrics(finder, "b", QueryClass.SHORT).shadowRuns).isEqualTo(1);
+        assertThat(metrics(finder, "c", QueryClass.SHORT).shadowRuns).isEqualTo(0);
+        for (int i = 0; i < interval; i += 1) {
+            served.add(finder.findShortestPath(Map.of(0, 0.0), Map.of(10, 0.0), TIMEOUT).solutionWeight());
+        }
+        assertThat(metrics(finder, "c", QueryClass.SHORT).shadowRuns).isEqualTo(1);
+
+        assertThat(served).hasSize(2 * interval);
+        assertThat(served).containsOnly(1.0);
+        assertThat(metrics(finder, "a", QueryClass.SHORT).routedQueries).isEqualTo(2 * interval);
+        assertThat(metrics(finder, "b", QueryClass.SHORT).routedQueries).isEqualTo(0);
+        assertThat(metrics(finder, "c", QueryClass.SHORT).routedQueries).isEqualTo(0);
+        // The other class keeps its own count.
+        assertThat(metrics(finder, "b", QueryClass.LONG).shadowRuns).isEqualTo(0);
+    }
+
+    @Test
+    void calibrateInBackground_recordsSamplesOnAnotherThread() throws InterruptedException {
+        AdaptivePathFinder<Integer> finder = new AdaptivePathFinder<>(new NumberLine(), THRESHOLD);
+        register(finder, "a", 1, 9, 9);
+        register(finder, "b", 2, 1, 1);
+        Thread calibration = finder.calibrateInBackground(SHORT_STARTS, SHORT_ENDS, TIMEOUT);
+        assertThat(calibration).isNotSameAs(Thread.currentThread());
+        calibration.join();
+        assertThat(metrics(finder, "b", QueryClass.SHORT).calibrationRuns).isEqualTo(3);
+        assertThat(finder.selectedEngine(QueryClass.SHORT)).isEqualTo("b");
+    }
+
+    @Test
+    void calibrate_whenSampleListsDiffer_throws() {
+        AdaptivePathFinder<Integer> finder = new AdaptivePathFinder<>(new NumberLine(), THRESHOLD);
+        register(finder, "a", 1, 1, 1);
+        assertThatThrownBy(() -> finder.calibrate(List.of(0), List.of(), TIMEOUT))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> finder.calibrateInBackground(List.of(0), List.of(), TIMEOUT))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
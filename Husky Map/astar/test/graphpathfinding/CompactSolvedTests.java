@@ -0,0 +1,173 @@
+package graphpathfinding;
+
+import edu.washington.cse373.BaseTest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Checks that paths through an IndexedGraph, stored as index and distance arrays, are the same
+ * paths that the same search finds through a plain AStarGraph and stores as a list.
+ */
+public class CompactSolvedTests extends BaseTest {
+    private static final int SIDE = 8;
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    /** A grid of SIDE by SIDE vertices, numbered row by row, with random weights between neighbors. */
+    private static class Grid implements IndexedGraph<Integer> {
+        private final List<List<WeightedEdge<Integer>>> edges = new ArrayList<>();
+
+        Grid(long seed) {
+            Random random = new Random(seed);
+            for (int v = 0; v < SIDE * SIDE; v += 1) {
+                edges.add(new ArrayList<>());
+            }
+            for (int v = 0; v < SIDE * SIDE; v += 1) {
+                if (v % SIDE + 1 < SIDE) {
+                    connect(v, v + 1, 1 + random.nextDouble());
+                }
+                if (v + SIDE < SIDE * SIDE) {
+                    connect(v, v + SIDE, 1 + random.nextDouble());
+                }
+            }
+        }
+
+        private void connect(int a, int b, double weight) {
+            edges.get(a).add(new WeightedEdge<>(a, b, weight));
+            edges.get(b).add(new WeightedEdge<>(b, a, weight));
+        }
+
+        @Override
+        public Collection<WeightedEdge<Integer>> neighbors(Integer v) {
+            return edges.get(v);
+        }
+
+        /** The number of steps between v and goal, each of which weighs at least 1. */
+        @Override
+        public double estimatedDistanceToGoal(Integer v, Integer goal) {
+            return Math.abs(v % SIDE - goal % SIDE) + Math.abs(v / SIDE - goal / SIDE);
+        }
+
+        @Override
+        public int indexOf(Integer v) {
+            return v;
+        }
+
+        @Override
+        public Integer vertexAt(int index) {
+            return index;
+        }
+    }
+
+    /** The same graph, without indices, so that searches through it store paths as lists. */
+    private static class Unindexed implements AStarGraph<Integer> {
+        private final AStarGraph<Integer> graph;
+
+        Unindexed(AStarGraph<Integer> graph) {
+            this.graph = graph;
+        }
+
+        @Override
+        public Collection<WeightedEdge<Integer>> neighbors(Integer v) {
+            return graph.neighbors(v);
+        }
+
+        @Override
+        public double estimatedDistanceToGoal(Integer v, Integer goal) {
+            return graph.estimatedDistanceToGoal(v, goal);
+        }
+    }
+
+    private static double weight(AStarGraph<Integer> graph, int from, int to) {
+        for (WeightedEdge<Integer> edge : graph.neighbors(from)) {
+            if (edge.to() == to) {
+                return edge.weight();
+            }
+        }
+        throw new AssertionError("No edge from " + from + " to " + to);
+    }
+
+    /** Asserts that compact stores the same path as the list in expected, with its distances. */
+    private static void assertSamePath(AStarGraph<Integer> graph, ShortestPathResult<Integer> compact,
+                                       ShortestPathResult<Integer> expected) {
+        assertThat(compact).isInstanceOf(ShortestPathResult.CompactSolved.class);
+        assertThat(expected).isInstanceOf(ShortestPathResult.Solved.class);
+        List<Integer> path = expected.solution();
+        assertThat(compact.solution()).containsExactlyElementsOf(path);
+        assertThat(compact.solutionWeight()).isEqualTo(expected.solutionWeight());
+        ShortestPathResult.CompactSolved<Integer> arrays = (ShortestPathResult.CompactSolved<Integer>) compact;
+        assertThat(arrays.length()).isEqualTo(path.size());
+        double distance = 0;
+        for (int i = 0; i < path.size(); i += 1) {
+            if (i > 0) {
+                distance += weight(graph, path.get(i - 1), path.get(i));
+            }
+            assertThat(arrays.indexAt(i)).isEqualTo(path.get(i));
+            assertThat(arrays.distanceAt(i)).as("distance to vertex %d", i).isCloseTo(distance, within(1e-9));
+        }
+    }
+
+    @Test
+    void findShortestPath_onIndexedGraph_storesSamePathAsList() {
+        Grid grid = new Grid(373);
+        Unindexed plain = new Unindexed(grid);
+        Random random = new Random(1);
+        for (int query = 0; query < 50; query += 1) {
+            int start = random.nextInt(SIDE * SIDE);
+            int end = random.nextInt(SIDE * SIDE);
+            assertSamePath(grid, new AStarPathFinder<>(grid).findShortestPath(start, end, TIMEOUT),
+                new AStarPathFinder<>(plain).findShortestPath(start, end, TIMEOUT));
+        }
+    }
+
+    @Test
+    void findShortestPath_whenStartIsEnd_storesOneVertex() {
+        Grid grid = new Grid(2);
+        ShortestPathResult<Integer> result = new AStarPathFinder<>(grid).findShortestPath(5, 5, TIMEOUT);
+        assertThat(result.solution()).containsExactly(5);
+        assertThat(result.solutionWeight()).isEqualTo(0.0);
+    }
+
+    @Test
+    void findShortestPath_withOffsets_measuresDistancesFromFirstVertex() {
+        Grid grid = new Grid(3);
+        Map<Integer, Double> starts = Map.of(0, 5.0, SIDE - 1, 0.5);
+        Map<Integer, Double> ends = Map.of(SIDE * SIDE - 1, 0.25);
+        assertSamePath(grid, new AStarPathFinder<>(grid).findShortestPath(starts, ends, TIMEOUT),
+            new AStarPathFinder<>(new Unindexed(grid)).findShortestPath(starts, ends, TIMEOUT));
+    }
+
+    @Test
+    void solution_isReadOnlyViewOfIndices() {
+        Grid grid = new Grid(4);
+        List<Integer> path = new AStarPathFinder<>(grid).findShortestPath(0, SIDE * SIDE - 1, TIMEOUT).solution();
+        assertThat(path.get(0)).isEqualTo(0);
+        assertThat(path.get(path.size() - 1)).isEqualTo(SIDE * SIDE - 1);
+        assertThat(new ArrayList<>(path)).containsExactlyElementsOf(path);
+        assertThatThrownBy(() -> path.set(0, 1)).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> path.add(1)).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void dijkstraView_keepsIndicesAndStoresSamePath() {
+        Grid grid = new Grid(5);
+        AStarGraph<Integer> dijkstra = AdaptivePathFinder.withoutHeuristic(grid);
+        assertThat(dijkstra).isInstanceOf(IndexedGraph.class);
+        assertThat(dijkstra.estimatedDistanceToGoal(0, SIDE * SIDE - 1)).isEqualTo(0.0);
+        Random random = new Random(6);
+        for (int query = 0; query < 20; query += 1) {
+            int start = random.nextInt(SIDE * SIDE);
+            int end = random.nextInt(SIDE * SIDE);
+            ShortestPathResult<Integer> compact = new AStarPathFinder<>(dijkstra).findShortestPath(start, end, TIMEOUT);
+            assertSamePath(grid, compact,
+                new AStarPathFinder<>(new Unindexed(dijkstra)).findShortestPath(start, end, TIMEOUT));
+            assertThat(compact.solutionWeight()).isCloseTo(
+                new AStarPathFinder<>(grid).findShortestPath(start, end, TIMEOUT).solutionWeight(), within(1e-9));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package graphpathfinding;
+
+import edu.washington.cse373.BaseTest;
+import org.junit.jupiter.api.Test;
+import priorityqueues.DoubleMapMinPQ;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks the order in which a DoubleMapMinPQ keyed as AStarPathFinder keys its frontier removes
+ * vertices under each policy: by f-value first, and by the policy's tie-breaker among equal f.
+ */
+public class TieBreakingPolicyTests extends BaseTest {
+    /** A frontier vertex: its name, distance from the start and estimated distance to the goal. */
+    private static class Entry {
+        final String name;
+        final double distance;
+        final double estimate;
+
+        Entry(String name, double distance, double estimate) {
+            this.name = name;
+            this.distance = distance;
+            this.estimate = estimate;
+        }
+    }
+
+    /** Four vertices with f = 10, added in neither g nor h order, and one with f = 9. */
+    private static final List<Entry> ENTRIES = List.of(
+        new Entry("b", 3, 7),
+        new Entry("d", 10, 0),
+        new Entry("lower", 2, 7),
+        new Entry("a", 0, 10),
+        new Entry("c", 6, 4));
+
+    /** Adds the entries in order, counting insertions as AStarPathFinder does, and drains them. */
+    private static List<String> removalOrder(TieBreakingPolicy policy) {
+        DoubleMapMinPQ<String> pq = new DoubleMapMinPQ<>();
+        long order = 0;
+        for (Entry e : ENTRIES) {
+            order += 1;
+            pq.add(e.name, e.distance + e.estimate, policy.tieBreaker(e.distance, e.estimate, order));
+        }
+        List<String> removed = new ArrayList<>();
+        while (!pq.isEmpty()) {
+            removed.add(pq.removeMin());
+        }
+        return removed;
+    }
+
+    @Test
+    void lowestH_removesLowestEstimateFirst() {
+        assertThat(removalOrder(TieBreakingPolicy.LOWEST_H)).containsExactly("lower", "d", "c", "b", "a");
+    }
+
+    @Test
+    void highestG_removesHighestDistanceFirst() {
+        assertThat(removalOrder(TieBreakingPolicy.HIGHEST_G)).containsExactly("lower", "d", "c", "b", "a");
+    }
+
+    @Test
+    void lifo_removesLatestAddedFirst() {
+        assertThat(removalOrder(TieBreakingPolicy.LIFO)).containsExactly("lower", "c", "a", "d", "b");
+    }
+
+    @Test
+    void arbitrary_stillRemovesLowerFFirst() {
+        List<String> removed = removalOrder(TieBreakingPolicy.ARBITRARY);
+        assertThat(removed.get(0)).isEqualTo("lower");
+        assertThat(removed).containsExactlyInAnyOrder("lower", "a", "b", "c", "d");
+    }
+
+    @Test
+    void lifo_whenPriorityChanges_removesChangedVertexFirst() {
+        DoubleMapMinPQ<String> pq = new DoubleMapMinPQ<>();
+        TieBreakingPolicy lifo = TieBreakingPolicy.LIFO;
+        pq.add("a", 10, lifo.tieBreaker(5, 5, 1));
+        pq.add("b", 12, lifo.tieBreaker(7, 5, 2));
+        pq.add("c", 10, lifo.tieBreaker(4, 6, 3));
+        // A shorter path to b ties it with a and c, and makes it the most recent update.
+        pq.changePriority("b", 10, lifo.tieBreaker(5, 5, 4));
+        assertThat(pq.removeMin()).isEqualTo("b");
+        assertThat(pq.removeMin()).isEqualTo("c");
+        assertThat(pq.removeMin()).isEqualTo("a");
+    }
+
+    @Test
+    void tieBreaker_ordersAsDocumented() {
+        assertThat(TieBreakingPolicy.ARBITRARY.tieBreaker(3, 7, 1))
+            .isEqualTo(TieBreakingPolicy.ARBITRARY.tieBreaker(6, 4, 2));
+        assertThat(TieBreakingPolicy.LOWEST_H.tieBreaker(6, 4, 1))
+            .isLessThan(TieBreakingPolicy.LOWEST_H.tieBreaker(3, 7, 2));
+        assertThat(TieBreakingPolicy.HIGHEST_G.tieBreaker(6, 4, 1))
+            .isLessThan(TieBreakingPolicy.HIGHEST_G.tieBreaker(3, 7, 2));
+        assertThat(TieBreakingPolicy.LIFO.tieBreaker(3, 7, 2))
+            .isLessThan(TieBreakingPolicy.LIFO.tieBreaker(6, 4, 1));
+    }
+}
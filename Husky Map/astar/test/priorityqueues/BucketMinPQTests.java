@@ -0,0 +1,68 @@
+package priorityqueues;
+
+import edu.washington.cse373.BaseTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Checks BucketMinPQ against a DoubleMapMinPQ whose tie-breakers make it remove the most recently
+ * added or changed of equal items first, as a bucket queue does.
+ */
+public class BucketMinPQTests extends BaseTest {
+    @Test
+    void randomOperations_matchLifoDoubleMapMinPQ() {
+        Random random = new Random(373);
+        BucketMinPQ<Integer> pq = new BucketMinPQ<>(1);
+        DoubleMapMinPQ<Integer> expected = new DoubleMapMinPQ<>();
+        List<Integer> live = new ArrayList<>();
+        long updates = 0;
+        int nextItem = 0;
+        for (int op = 0; op < 50000; op += 1) {
+            int choice = random.nextInt(10);
+            int priority = random.nextInt(300);
+            updates += 1;
+            if (choice < 4 || live.isEmpty()) {
+                pq.add(nextItem, priority);
+                expected.add(nextItem, priority, -updates);
+                live.add(nextItem);
+                nextItem += 1;
+            } else if (choice < 7) {
+                Integer removed = pq.removeMin();
+                assertThat(removed).isEqualTo(expected.removeMin());
+                live.remove(removed);
+            } else if (choice < 9) {
+                Integer item = live.get(random.nextInt(live.size()));
+                pq.changePriority(item, priority);
+                expected.changePriority(item, priority, -updates);
+            } else {
+                assertThat(pq.peekMin()).isEqualTo(expected.peekMin());
+            }
+            assertThat(pq.size()).isEqualTo(expected.size());
+        }
+        while (!pq.isEmpty()) {
+            assertThat(pq.removeMin()).isEqualTo(expected.removeMin());
+        }
+    }
+
+    @Test
+    void add_whenPriorityIsNotANonNegativeInteger_throws() {
+        BucketMinPQ<Integer> pq = new BucketMinPQ<>();
+        assertThatThrownBy(() -> pq.add(1, -1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> pq.add(1, 0.5)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> pq.add(1, Double.NaN)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(pq.isEmpty()).isTrue();
+    }
+
+    @Test
+    void operations_onMissingItems_throw() {
+        BucketMinPQ<Integer> pq = new BucketMinPQ<>();
+        assertThatThrownBy(pq::removeMin).isInstanceOf(NoSuchElementException.class);
+        assertThatThrownBy(() -> pq.changePriority(1, 1)).isInstanceOf(NoSuchElementException.class);
+        pq.add(1, 1);
+        assertThatThrownBy(() -> pq.add(1, 2)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,127 @@
+package tracing;
+
+import edu.washington.cse373.BaseTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Writes traces with {@link BinaryTraceWriter} and reads them back with {@link BinaryTraceReader}. */
+public class BinaryTraceTests extends BaseTest {
+    private Path path;
+
+    @BeforeEach
+    void createFile() throws IOException {
+        path = Files.createTempFile("trace", ".bin");
+    }
+
+    @AfterEach
+    void deleteFile() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    private List<Expansion> readAll() throws IOException {
+        List<Expansion> expansions = new ArrayList<>();
+        BinaryTraceReader.forEach(path, expansions::add);
+        return expansions;
+    }
+
+    private static void assertExpansion(Expansion e, int index, double distance, double estimate, int fringeSize) {
+        assertThat(e.index).isEqualTo(index);
+        assertThat(e.distance).isEqualTo((double) (float) distance);
+        assertThat(e.estimate).isEqualTo((double) (float) estimate);
+        assertThat(e.fringeSize).isEqualTo(fringeSize);
+    }
+
+    @Test
+    void roundTrip_whenTraceOutgrowsRing_readsEveryExpansionInOrder() throws IOException {
+        // Two expansions per segment, so the ring is drained and reused many times over.
+        int count = 25 * BinaryTraceWriter.SEGMENTS;
+        BinaryTraceWriter<Integer> writer = new BinaryTraceWriter<>(path, v -> v, 2 * BinaryTraceWriter.SEGMENTS);
+        for (int i = 0; i < count; i += 1) {
+            writer.expanded(i % 7, i * 0.5, count - i, i + 1);
+        }
+        writer.close();
+
+        List<Expansion> expansions = readAll();
+        assertThat(expansions).hasSize(count);
+        for (int i = 0; i < count; i += 1) {
+            assertExpansion(expansions.get(i), i % 7, i * 0.5, count - i, i + 1);
+            if (i > 0) {
+                assertThat(expansions.get(i).nanos).isGreaterThanOrEqualTo(expansions.get(i - 1).nanos);
+            }
+        }
+        assertThat(Files.size(path)).isEqualTo(8 + (long) count * BinaryTraceWriter.RECORD_BYTES);
+    }
+
+    @Test
+    void roundTrip_whenSegmentsHoldOneExpansion_keepsEveryExpansion() throws IOException {
+        BinaryTraceWriter<Integer> writer = new BinaryTraceWriter<>(path, v -> v, BinaryTraceWriter.SEGMENTS);
+        // The header goes out in a segment of its own, then each expansion fills one; the last
+        // one is written only by close.
+        writer.expanded(3, 1, 2, 4);
+        writer.expanded(5, 6, 7, 8);
+        writer.close();
+        List<Expansion> expansions = readAll();
+        assertThat(expansions).hasSize(2);
+        assertExpansion(expansions.get(0), 3, 1, 2, 4);
+        assertExpansion(expansions.get(1), 5, 6, 7, 8);
+    }
+
+    @Test
+    void roundTrip_whenNothingRecorded_readsNoExpansions() throws IOException {
+        new BinaryTraceWriter<Integer>(path, v -> v).close();
+        assertThat(readAll()).isEmpty();
+        BinaryTraceReader.Summary summary = new BinaryTraceReader.Summary();
+        BinaryTraceReader.forEach(path, summary);
+        assertThat(summary.toString()).isEqualTo("Empty trace.");
+    }
+
+    @Test
+    void close_whenCalledTwice_keepsTrace() throws IOException {
+        BinaryTraceWriter<Integer> writer = new BinaryTraceWriter<>(path, v -> v);
+        writer.expanded(1, 2, 3, 4);
+        writer.close();
+        writer.close();
+        assertThat(readAll()).hasSize(1);
+    }
+
+    @Test
+    void expanded_whenIndexIsNegative_throwsAndRecordsNothing() throws IOException {
+        BinaryTraceWriter<String> writer = new BinaryTraceWriter<>(path, List.of("a", "b")::indexOf);
+        writer.expanded("a", 0, 1, 1);
+        assertThatThrownBy(() -> writer.expanded("missing", 1, 1, 1))
+            .isInstanceOf(IllegalArgumentException.class);
+        writer.expanded("b", 1, 0, 0);
+        writer.close();
+        List<Expansion> expansions = readAll();
+        assertThat(expansions).hasSize(2);
+        assertExpansion(expansions.get(0), 0, 0, 1, 1);
+        assertExpansion(expansions.get(1), 1, 1, 0, 0);
+    }
+
+    @Test
+    void forEach_whenFileIsNotTrace_throws() throws IOException {
+        Files.write(path, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9});
+        assertThatThrownBy(() -> readAll()).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void summary_countsRepeatedVertices() throws IOException {
+        BinaryTraceWriter<Integer> writer = new BinaryTraceWriter<>(path, v -> v, BinaryTraceWriter.SEGMENTS);
+        int[] vertices = {0, 1, 2, 1, 3, 0};
+        for (int i = 0; i < vertices.length; i += 1) {
+            writer.expanded(vertices[i], i, 0, 10 - i);
+        }
+        writer.close();
+        BinaryTraceReader.Summary summary = new BinaryTraceReader.Summary();
+        BinaryTraceReader.forEach(path, summary);
+        assertThat(summary.toString()).startsWith("6 expansions (2 of them repeats)");
+        assertThat(summary.toString()).contains("max fringe size 10, max distance from start 5.0000");
+    }
+}
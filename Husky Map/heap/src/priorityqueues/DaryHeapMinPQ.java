@@ -0,0 +1,350 @@
+package priorityqueues;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A d-ary min-heap implementation of ExtrinsicMinPQ, where the arity d is set at construction.
+ *
+ * The heap is stored from index 0, with the children of index i at d * i + 1 through d * i + d,
+ * so all children of a node are contiguous in memory and are usually scanned within one or two
+ * cache lines. A larger arity makes the heap shallower, trading cheaper add and changePriority
+ * (which percolate up) for more comparisons per level in removeMin.
+ *
+ * Items and their priorities are kept in parallel arrays, so priorities are never boxed, and each
+ * item's position in the heap is tracked in an open-addressing {@link ItemIndexMap}.
+ */
+public class DaryHeapMinPQ<T> implements ExtrinsicMinPQ<T> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private final int arity;
+    private int size = 0;
+    private Object[] items;
+    private double[] priorities;
+    private ItemIndexMap<T> indices;
+
+    /**
+     * Creates an empty heap where each node has up to the given number of children.
+     *
+     * @throws IllegalArgumentException if arity is less than 2
+     */
+    public DaryHeapMinPQ(int arity) {
+        this(arity, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty heap with the given arity that can hold initialCapacity items without
+     * resizing.
+     *
+     * @throws IllegalArgumentException if arity is less than 2
+     */
+    public DaryHeapMinPQ(int arity, int initialCapacity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Arity must be at least 2");
+        }
+        this.arity = arity;
+        items = new Object[Math.max(initialCapacity, 1)];
+        priorities = new double[items.length];
+        indices = new ItemIndexMap<>(initialCapacity);
+    }
+
+    /** Returns the maximum number of children per node. */
+    public int arity() {
+        return arity;
+    }
+
+    /**
+     * Returns true if rebuilding a heap of total items, in about 2 * total steps, is cheaper than
+     * moving batch of them one at a time, in about log2(total) steps each.
+     */
+    static boolean worthHeapifying(int batch, int total) {
+        return (long) batch * (32 - Integer.numberOfLeadingZeros(total)) > 2L * total;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T itemAt(int index) {
+        return (T) items[index];
+    }
+
+    /** Puts item with the given priority at index, and records the new position. */
+    private void place(int index, Object item, double priority) {
+        items[index] = item;
+        priorities[index] = priority;
+        indices.put(itemAt(index), index);
+    }
+
+    /**
+     * Adds an item with the given priority value.
+     * Runs in O(log N) time (except when resizing).
+     *
+     * @throws IllegalArgumentException if item is null or is already present in the PQ
+     */
+    @Override
+    public void add(T item, double priority) {
+        if (item == null) {
+            throw new IllegalArgumentException("Item cannot be null");
+        } else if (contains(item)) {
+            throw new IllegalArgumentException("Item cannot be already in the heap");
+        }
+        ensureCapacity(size + 1);
+        size += 1;
+        percolateUp(size - 1, item, priority);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > items.length) {
+            int length = Math.max(items.length * 2, capacity);
+            items = Arrays.copyOf(items, length);
+            priorities = Arrays.copyOf(priorities, length);
+        }
+    }
+
+    /**
+     * Adds every item with its priority. When the batch is large relative to the heap, the items
+     * are appended and the whole heap is rebuilt in O(N) time; otherwise they are added one by one.
+     */
+    @Override
+    public void addAll(List<? extends T> newItems, double[] newPriorities) {
+        if (newItems.size() != newPriorities.length) {
+            throw new IllegalArgumentException("Need as many priorities as items");
+        }
+        if (!worthHeapifying(newPriorities.length, size + newPriorities.length)) {
+            ExtrinsicMinPQ.super.addAll(newItems, newPriorities);
+            return;
+        }
+        ensureCapacity(size + newPriorities.length);
+        try {
+            for (int i = 0; i < newPriorities.length; i += 1) {
+                T item = newItems.get(i);
+                if (item == null) {
+                    throw new IllegalArgumentException("Item cannot be null");
+                } else if (contains(item)) {
+                    throw new IllegalArgumentException("Item cannot be already in the heap");
+                }
+                place(size, item, newPriorities[i]);
+                size += 1;
+            }
+        } finally {
+            heapify();
+        }
+    }
+
+    /**
+     * Changes the priority of every item. When the batch is large relative to the heap, the new
+     * priorities are written in place and the whole heap is rebuilt once in O(N) time.
+     */
+    @Override
+    public void changePriorities(List<? extends T> changedItems, double[] newPriorities) {
+        if (changedItems.size() != newPriorities.length) {
+            throw new IllegalArgumentException("Need as many priorities as items");
+        }
+        if (!worthHeapifying(newPriorities.length, size)) {
+            ExtrinsicMinPQ.super.changePriorities(changedItems, newPriorities);
+            return;
+        }
+        try {
+            for (int i = 0; i < newPriorities.length; i += 1) {
+                T item = changedItems.get(i);
+                int index = item == null ? ItemIndexMap.ABSENT : indices.get(item);
+                if (index == ItemIndexMap.ABSENT) {
+                    throw new NoSuchElementException("Item has to exist in the heap");
+                }
+                priorities[index] = newPriorities[i];
+            }
+        } finally {
+            heapify();
+        }
+    }
+
+    /** Restores the heap order of the whole array, bottom-up (Floyd's method). */
+    private void heapify() {
+        if (size < 2) {
+            return;
+        }
+        for (int i = (size - 2) / arity; i >= 0; i -= 1) {
+            percolateDown(i, items[i], priorities[i]);
+        }
+    }
+
+    /**
+     * Returns true if the PQ contains the given item; false otherwise.
+     * Runs in O(1) time.
+     */
+    @Override
+    public boolean contains(T item) {
+        return item != null && indices.containsKey(item);
+    }
+
+    /**
+     * Returns the item with the least-valued priority.
+     * Runs in O(1) time.
+     * @throws NoSuchElementException if the PQ is empty
+     */
+    @Override
+    public T peekMin() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Heap can't be empty");
+        }
+        return itemAt(0);
+    }
+
+    /** Returns the least priority in the heap; assumes the heap is not empty. */
+    double minPriority() {
+        return priorities[0];
+    }
+
+    /**
+     * Removes and returns the item with the least-valued priority.
+     * Runs in O(d log N) time, for arity d.
+     * @throws NoSuchElementException if the PQ is empty
+     */
+    @Override
+    public T removeMin() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Heap can't be empty");
+        }
+        T retVal = itemAt(0);
+        indices.remove(retVal);
+        size -= 1;
+        Object last = items[size];
+        double lastPriority = priorities[size];
+        items[size] = null;
+        if (!isEmpty()) {
+            percolateDown(0, last, lastPriority);
+        }
+        return retVal;
+    }
+
+    /**
+     * Removes the k items with the least-valued priorities, or every item if there are fewer than
+     * k, and stores them into the start of out in order of priority.
+     * When k is large relative to the heap, the items are removed without keeping the index map
+     * up to date, and the map is rebuilt once for the items left; otherwise they are removed one by
+     * one. Runs in O(k d log N) time.
+     *
+     * @throws IllegalArgumentException if k is negative or out is shorter than k
+     */
+    @Override
+    public int drainSorted(int k, T[] out) {
+        if (k < 0 || out.length < k) {
+            throw new IllegalArgumentException("Cannot drain " + k + " items into " + out.length + " slots");
+        }
+        int count = Math.min(k, size);
+        if (!worthHeapifying(count, size)) {
+            return ExtrinsicMinPQ.super.drainSorted(k, out);
+        }
+        for (int i = 0; i < count; i += 1) {
+            out[i] = itemAt(0);
+            size -= 1;
+            Object last = items[size];
+            double lastPriority = priorities[size];
+            items[size] = null;
+            if (!isEmpty()) {
+                sink(0, last, lastPriority);
+            }
+        }
+        indices.clear();
+        for (int i = 0; i < size; i += 1) {
+            indices.put(itemAt(i), i);
+        }
+        return count;
+    }
+
+    /**
+     * Changes the priority of the given item.
+     * Runs in O(log N) time when the priority decreases, O(d log N) when it increases.
+     *
+     * @throws NoSuchElementException if the item is not present in the PQ
+     */
+    @Override
+    public void changePriority(T item, double priority) {
+        int index = item == null ? ItemIndexMap.ABSENT : indices.get(item);
+        if (index == ItemIndexMap.ABSENT) {
+            throw new NoSuchElementException("Item has to exist in the heap");
+        }
+        if (priority < priorities[index]) {
+            percolateUp(index, items[index], priority);
+        } else {
+            percolateDown(index, items[index], priority);
+        }
+    }
+
+    /**
+     * Moves the hole at index up past every parent with a greater priority, then fills it with
+     * the given item.
+     */
+    private void percolateUp(int index, Object item, double priority) {
+        while (index > 0) {
+            int up = (index - 1) / arity;
+            if (priorities[up] <= priority) {
+                break;
+            }
+            place(index, items[up], priorities[up]);
+            index = up;
+        }
+        place(index, item, priority);
+    }
+
+    /**
+     * Moves the hole at index down past every smaller child, then fills it with the given item.
+     */
+    private void percolateDown(int index, Object item, double priority) {
+        while (true) {
+            int first = index * arity + 1;
+            if (first >= size) {
+                break;
+            }
+            int last = Math.min(first + arity, size);
+            int child = first;
+            double childPriority = priorities[first];
+            for (int i = first + 1; i < last; i += 1) {
+                if (priorities[i] < childPriority) {
+                    child = i;
+                    childPriority = priorities[i];
+                }
+            }
+            if (priority <= childPriority) {
+                break;
+            }
+            place(index, items[child], childPriority);
+            index = child;
+        }
+        place(index, item, priority);
+    }
+
+    /** Like percolateDown, but leaves the index map out of date; see drainSorted. */
+    private void sink(int index, Object item, double priority) {
+        while (true) {
+            int first = index * arity + 1;
+            if (first >= size) {
+                break;
+            }
+            int last = Math.min(first + arity, size);
+            int child = first;
+            double childPriority = priorities[first];
+            for (int i = first + 1; i < last; i += 1) {
+                if (priorities[i] < childPriority) {
+                    child = i;
+                    childPriority = priorities[i];
+                }
+            }
+            if (priority <= childPriority) {
+                break;
+            }
+            items[index] = items[child];
+            priorities[index] = childPriority;
+            index = child;
+        }
+        items[index] = item;
+        priorities[index] = priority;
+    }
+
+    /**
+     * Returns the number of items in the PQ.
+     * Runs in O(1) time.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -1,5 +1,6 @@
 package priorityqueues;
 
+import java.util.List;
 import java.util.NoSuchElementException;
 
 /**
@@ -43,4 +44,52 @@ public interface ExtrinsicMinPQ<T> {
     default boolean isEmpty() {
         return size() == 0;
     }
+
+    /**
+     * Adds each item in items with the priority at the same index in priorities. If an exception
+     * is thrown, the items before the offending one may have been added.
+     * @throws IllegalArgumentException if items and priorities differ in length, or if any item is
+     *                                  null, already present in the PQ, or repeated in items
+     */
+    default void addAll(List<? extends T> items, double[] priorities) {
+        if (items.size() != priorities.length) {
+            throw new IllegalArgumentException("Need as many priorities as items");
+        }
+        for (int i = 0; i < priorities.length; i += 1) {
+            add(items.get(i), priorities[i]);
+        }
+    }
+
+    /**
+     * Changes the priority of each item in items to the priority at the same index in priorities.
+     * If an item is repeated, its last priority wins. If an exception is thrown, the items before
+     * the offending one may have been changed.
+     * @throws IllegalArgumentException if items and priorities differ in length
+     * @throws NoSuchElementException if any item is not present in the PQ
+     */
+    default void changePriorities(List<? extends T> items, double[] priorities) {
+        if (items.size() != priorities.length) {
+            throw new IllegalArgumentException("Need as many priorities as items");
+        }
+        for (int i = 0; i < priorities.length; i += 1) {
+            changePriority(items.get(i), priorities[i]);
+        }
+    }
+
+    /**
+     * Removes the k items with the least-valued priorities, or every item if there are fewer than
+     * k, and stores them into the start of out in order of priority.
+     * Returns the number of items removed.
+     * @throws IllegalArgumentException if k is negative or out is shorter than k
+     */
+    default int drainSorted(int k, T[] out) {
+        if (k < 0 || out.length < k) {
+            throw new IllegalArgumentException("Cannot drain " + k + " items into " + out.length + " slots");
+        }
+        int count = Math.min(k, size());
+        for (int i = 0; i < count; i += 1) {
+            out[i] = removeMin();
+        }
+        return count;
+    }
 }
@@ -0,0 +1,152 @@
+package priorityqueues;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Times {@link DaryHeapMinPQ} at several arities (arity 2 being {@link ArrayHeapMinPQ}) on two
+ * synthetic search workloads, and reports the fastest arity for each:
+ *
+ * - routing: Dijkstra's algorithm on a large grid with random real-valued edge weights, which
+ *   makes many changePriority calls on a wide frontier, like searches over a road network.
+ * - puzzle: A* with unit edge weights and a Manhattan heuristic on a grid with random walls,
+ *   which produces small integer priorities with large plateaus, like sliding puzzles and word
+ *   ladders.
+ */
+public class HeapArityBenchmark {
+    private static final int[] ARITIES = {2, 3, 4, 8, 16};
+    private static final int SIDE = 700;
+    private static final int WARMUP_RUNS = 3;
+    private static final int TIMED_RUNS = 5;
+
+    public static void main(String[] args) {
+        Random random = new Random(373);
+        double[] weights = new double[SIDE * SIDE * 2];
+        for (int i = 0; i < weights.length; i += 1) {
+            weights[i] = 1 + random.nextDouble();
+        }
+        boolean[] walls = new boolean[SIDE * SIDE];
+        for (int i = 0; i < walls.length; i += 1) {
+            walls[i] = random.nextDouble() < 0.25;
+        }
+        walls[0] = false;
+        walls[walls.length - 1] = false;
+
+        System.out.println("routing workload:");
+        compare(pq -> routing(pq, weights));
+        System.out.println("puzzle workload:");
+        compare(pq -> puzzle(pq, walls));
+    }
+
+    private interface Workload {
+        /** Runs the workload on the given empty PQ and returns a checksum of its result. */
+        double run(ExtrinsicMinPQ<Integer> pq);
+    }
+
+    private static void compare(Workload workload) {
+        int bestArity = 0;
+        double bestMillis = Double.POSITIVE_INFINITY;
+        for (int arity : ARITIES) {
+            double millis = time("DaryHeapMinPQ(" + arity + ")", workload, () -> new DaryHeapMinPQ<>(arity));
+            if (millis < bestMillis) {
+                bestArity = arity;
+                bestMillis = millis;
+            }
+        }
+        System.out.printf("  best arity: %d%n", bestArity);
+    }
+
+    /** Prints and returns the median time of the workload over several runs, in milliseconds. */
+    private static double time(String name, Workload workload, Supplier<ExtrinsicMinPQ<Integer>> pqs) {
+        double checksum = 0;
+        for (int i = 0; i < WARMUP_RUNS; i += 1) {
+            checksum += workload.run(pqs.get());
+        }
+        double[] millis = new double[TIMED_RUNS];
+        for (int i = 0; i < TIMED_RUNS; i += 1) {
+            long start = System.nanoTime();
+            checksum += workload.run(pqs.get());
+            millis[i] = (System.nanoTime() - start) / 1e6;
+        }
+        Arrays.sort(millis);
+        double median = millis[TIMED_RUNS / 2];
+        System.out.printf("  %-18s %9.2f ms  (checksum %.1f)%n", name, median, checksum);
+        return median;
+    }
+
+    /** Returns the neighbors of cell v on the grid, or -1 where there is none. */
+    private static int[] neighbors(int v, int[] out) {
+        int row = v / SIDE;
+        int col = v % SIDE;
+        out[0] = col + 1 < SIDE ? v + 1 : -1;
+        out[1] = col > 0 ? v - 1 : -1;
+        out[2] = row + 1 < SIDE ? v + SIDE : -1;
+        out[3] = row > 0 ? v - SIDE : -1;
+        return out;
+    }
+
+    /** Weight of the undirected edge between adjacent cells v and w. */
+    private static double weight(double[] weights, int v, int w) {
+        int low = Math.min(v, w);
+        return weights[2 * low + (Math.abs(v - w) == 1 ? 0 : 1)];
+    }
+
+    private static double routing(ExtrinsicMinPQ<Integer> pq, double[] weights) {
+        double[] dist = new double[SIDE * SIDE];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        boolean[] done = new boolean[dist.length];
+        int[] next = new int[4];
+        dist[0] = 0;
+        pq.add(0, 0);
+        while (!pq.isEmpty()) {
+            int v = pq.removeMin();
+            done[v] = true;
+            for (int w : neighbors(v, next)) {
+                if (w < 0 || done[w]) {
+                    continue;
+                }
+                double d = dist[v] + weight(weights, v, w);
+                if (d < dist[w]) {
+                    if (dist[w] == Double.POSITIVE_INFINITY) {
+                        pq.add(w, d);
+                    } else {
+                        pq.changePriority(w, d);
+                    }
+                    dist[w] = d;
+                }
+            }
+        }
+        return dist[dist.length - 1];
+    }
+
+    private static double puzzle(ExtrinsicMinPQ<Integer> pq, boolean[] walls) {
+        int goal = SIDE * SIDE - 1;
+        int[] dist = new int[SIDE * SIDE];
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        int[] next = new int[4];
+        dist[0] = 0;
+        pq.add(0, 2 * (SIDE - 1));
+        while (!pq.isEmpty()) {
+            int v = pq.removeMin();
+            if (v == goal) {
+                return dist[v];
+            }
+            for (int w : neighbors(v, next)) {
+                if (w < 0 || walls[w] || dist[v] + 1 >= dist[w]) {
+                    continue;
+                }
+                double f = dist[v] + 1 + (SIDE - 1 - w / SIDE) + (SIDE - 1 - w % SIDE);
+                if (dist[w] == Integer.MAX_VALUE) {
+                    pq.add(w, f);
+                } else if (pq.contains(w)) {
+                    pq.changePriority(w, f);
+                } else {
+                    pq.add(w, f);
+                }
+                dist[w] = dist[v] + 1;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,180 @@
+package priorityqueues;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap of int items in the range [0, capacity), such as dense vertex ids, ordered by
+ * double priorities.
+ *
+ * This offers the same operations as ExtrinsicMinPQ, but finds each item's position in the heap by
+ * indexing an array rather than hashing, and never boxes items. All arrays are allocated by the
+ * constructor, so no operation allocates afterwards. clear() only resets the items still in the
+ * heap, so a single instance can be reused across many small searches over a large graph.
+ */
+public class IndexedMinPQ {
+    private static final int ABSENT = -1;
+    /** The items in heap order, from index 0. */
+    private final int[] heap;
+    /** The index of each item in heap, or ABSENT if it is not in the PQ. */
+    private final int[] pos;
+    /** The priority of each item in the PQ. */
+    private final double[] key;
+    private int size = 0;
+
+    /** Creates an empty PQ that can hold the items 0 through capacity - 1. */
+    public IndexedMinPQ(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative");
+        }
+        heap = new int[capacity];
+        pos = new int[capacity];
+        key = new double[capacity];
+        Arrays.fill(pos, ABSENT);
+    }
+
+    /** Returns the number of distinct items this PQ can hold. */
+    public int capacity() {
+        return pos.length;
+    }
+
+    private void checkItem(int item) {
+        if (item < 0 || item >= pos.length) {
+            throw new IllegalArgumentException("Item " + item + " is outside [0, " + pos.length + ")");
+        }
+    }
+
+    /**
+     * Adds an item with the given priority value.
+     * Runs in O(log N) time.
+     *
+     * @throws IllegalArgumentException if item is out of range or is already present in the PQ
+     */
+    public void add(int item, double priority) {
+        checkItem(item);
+        if (pos[item] != ABSENT) {
+            throw new IllegalArgumentException("Item cannot be already in the heap");
+        }
+        key[item] = priority;
+        size += 1;
+        percolateUp(size - 1, item);
+    }
+
+    /** Returns true if the PQ contains the given item; false otherwise. */
+    public boolean contains(int item) {
+        return item >= 0 && item < pos.length && pos[item] != ABSENT;
+    }
+
+    /**
+     * Returns the priority of the given item.
+     * @throws NoSuchElementException if the item is not present in the PQ
+     */
+    public double priority(int item) {
+        if (!contains(item)) {
+            throw new NoSuchElementException("Item has to exist in the heap");
+        }
+        return key[item];
+    }
+
+    /**
+     * Returns the item with the least-valued priority.
+     * @throws NoSuchElementException if the PQ is empty
+     */
+    public int peekMin() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Heap can't be empty");
+        }
+        return heap[0];
+    }
+
+    /**
+     * Removes and returns the item with the least-valued priority.
+     * Runs in O(log N) time.
+     * @throws NoSuchElementException if the PQ is empty
+     */
+    public int removeMin() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Heap can't be empty");
+        }
+        int retVal = heap[0];
+        pos[retVal] = ABSENT;
+        size -= 1;
+        if (size > 0) {
+            percolateDown(0, heap[size]);
+        }
+        return retVal;
+    }
+
+    /**
+     * Changes the priority of the given item.
+     * Runs in O(log N) time.
+     * @throws NoSuchElementException if the item is not present in the PQ
+     */
+    public void changePriority(int item, double priority) {
+        if (!contains(item)) {
+            throw new NoSuchElementException("Item has to exist in the heap");
+        }
+        double old = key[item];
+        key[item] = priority;
+        if (priority < old) {
+            percolateUp(pos[item], item);
+        } else {
+            percolateDown(pos[item], item);
+        }
+    }
+
+    /** Returns the number of items in the PQ. */
+    public int size() {
+        return size;
+    }
+
+    /** Returns true if the PQ is empty, false otherwise. */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Removes every item from the PQ in time proportional to the number of items left in it. */
+    public void clear() {
+        for (int i = 0; i < size; i += 1) {
+            pos[heap[i]] = ABSENT;
+        }
+        size = 0;
+    }
+
+    private void place(int index, int item) {
+        heap[index] = item;
+        pos[item] = index;
+    }
+
+    private void percolateUp(int index, int item) {
+        double priority = key[item];
+        while (index > 0) {
+            int up = (index - 1) / 2;
+            if (key[heap[up]] <= priority) {
+                break;
+            }
+            place(index, heap[up]);
+            index = up;
+        }
+        place(index, item);
+    }
+
+    private void percolateDown(int index, int item) {
+        double priority = key[item];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && key[heap[child + 1]] < key[heap[child]]) {
+                child += 1;
+            }
+            if (priority <= key[heap[child]]) {
+                break;
+            }
+            place(index, heap[child]);
+            index = child;
+        }
+        place(index, item);
+    }
+}
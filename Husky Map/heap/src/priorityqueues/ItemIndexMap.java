@@ -0,0 +1,120 @@
+package priorityqueues;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash map from items to non-negative int indices, used by the array-based
+ * priority queues in this package to find an item's position in O(1) time without boxing.
+ *
+ * Uses linear probing over a power-of-two table kept at most half full, and backward-shift
+ * deletion so that no tombstones are left behind. Items are compared with equals and hashCode.
+ */
+class ItemIndexMap<T> {
+    private static final int MIN_CAPACITY = 16;
+    static final int ABSENT = -1;
+
+    private Object[] keys;
+    private int[] values;
+    private int size;
+
+    ItemIndexMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /** Creates a map that can hold the given number of items without resizing. */
+    ItemIndexMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity *= 2;
+        }
+        keys = new Object[capacity];
+        values = new int[capacity];
+    }
+
+    private static int hash(Object item) {
+        int h = item.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /** Returns the slot holding item, or the empty slot where it would go. */
+    private int slotOf(Object item) {
+        int mask = keys.length - 1;
+        int slot = hash(item) & mask;
+        while (keys[slot] != null && !keys[slot].equals(item)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /** Returns the index stored for item, or ABSENT if item is not in the map. */
+    int get(Object item) {
+        int slot = slotOf(item);
+        return keys[slot] == null ? ABSENT : values[slot];
+    }
+
+    boolean containsKey(Object item) {
+        return keys[slotOf(item)] != null;
+    }
+
+    /** Stores index for item, replacing any index already stored for it. */
+    void put(T item, int index) {
+        int slot = slotOf(item);
+        if (keys[slot] == null) {
+            if ((size + 1) * 2 > keys.length) {
+                resize(keys.length * 2);
+                slot = slotOf(item);
+            }
+            keys[slot] = item;
+            size += 1;
+        }
+        values[slot] = index;
+    }
+
+    /** Removes item from the map, returning its index or ABSENT if it was not in the map. */
+    int remove(Object item) {
+        int mask = keys.length - 1;
+        int slot = slotOf(item);
+        if (keys[slot] == null) {
+            return ABSENT;
+        }
+        int removed = values[slot];
+        // Shift later entries of the probe run back so that lookups never stop early.
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != null) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = null;
+        size -= 1;
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+
+    private void resize(int capacity) {
+        Object[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new Object[capacity];
+        values = new int[capacity];
+        for (int i = 0; i < oldKeys.length; i += 1) {
+            if (oldKeys[i] != null) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package priorityqueues;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Measures {@link MultiQueueMinPQ} at 1 thread up to the number of available processors:
+ *
+ * - throughput: every thread repeatedly removes an item and adds a new one with a slightly higher
+ *   priority, like threads expanding a shared search frontier.
+ * - rank error: how many lower-priority items were still queued when each item was removed, for a
+ *   queue configured for that many threads.
+ */
+public class MultiQueueBenchmark {
+    private static final int QUEUES_PER_THREAD = 2;
+    private static final int PREFILL = 1_000_000;
+    private static final int OPS_PER_THREAD = 1_000_000;
+    private static final int RANK_SAMPLES = 100_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%7s %12s %15s %15s%n", "threads", "Mops/s", "mean rank err", "max rank err");
+        for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+            double mops = throughput(threads);
+            int[] ranks = rankErrors(threads);
+            double mean = 0;
+            int max = 0;
+            for (int rank : ranks) {
+                mean += rank;
+                max = Math.max(max, rank);
+            }
+            mean /= ranks.length;
+            System.out.printf("%7d %12.2f %15.1f %15d%n", threads, mops, mean, max);
+        }
+    }
+
+    /** Doubles the thread count, but makes sure maxThreads itself is measured. */
+    private static int nextThreadCount(int threads, int maxThreads) {
+        if (threads == maxThreads) {
+            return maxThreads + 1;
+        }
+        return Math.min(threads * 2, maxThreads);
+    }
+
+    /** Returns millions of operations (an add or a removeMin) per second over all threads. */
+    private static double throughput(int threads) throws InterruptedException {
+        MultiQueueMinPQ<Integer> pq = new MultiQueueMinPQ<>(threads, QUEUES_PER_THREAD);
+        double[] priorities = new double[PREFILL + threads * OPS_PER_THREAD];
+        Random random = new Random(373);
+        for (int i = 0; i < PREFILL; i += 1) {
+            priorities[i] = random.nextDouble() * PREFILL;
+            pq.add(i, priorities[i]);
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t += 1) {
+            int firstId = PREFILL + t * OPS_PER_THREAD;
+            workers[t] = new Thread(() -> {
+                Random local = new Random(firstId);
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < OPS_PER_THREAD; i += 1) {
+                    int removed = pq.removeMin();
+                    int id = firstId + i;
+                    priorities[id] = priorities[removed] + 1 + local.nextDouble();
+                    pq.add(id, priorities[id]);
+                }
+            });
+            workers[t].start();
+        }
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return 2.0 * threads * OPS_PER_THREAD / seconds / 1e6;
+    }
+
+    /**
+     * Fills a queue for the given number of threads with the priorities 0 through PREFILL - 1 in
+     * random order, then removes RANK_SAMPLES items and returns the rank error of each.
+     */
+    private static int[] rankErrors(int threads) {
+        MultiQueueMinPQ<Integer> pq = new MultiQueueMinPQ<>(threads, QUEUES_PER_THREAD);
+        int[] order = new int[PREFILL];
+        for (int i = 0; i < PREFILL; i += 1) {
+            order[i] = i;
+        }
+        Random random = new Random(373);
+        for (int i = PREFILL - 1; i > 0; i -= 1) {
+            int j = random.nextInt(i + 1);
+            int temp = order[i];
+            order[i] = order[j];
+            order[j] = temp;
+        }
+        for (int priority : order) {
+            pq.add(priority, priority);
+        }
+        // A Fenwick tree counting the removed priorities, so that the number of lower priorities
+        // still queued is priority - (removed priorities below it).
+        int[] removed = new int[PREFILL + 1];
+        int[] ranks = new int[RANK_SAMPLES];
+        for (int i = 0; i < RANK_SAMPLES; i += 1) {
+            int priority = pq.removeMin();
+            int removedBelow = 0;
+            for (int j = priority; j > 0; j -= j & -j) {
+                removedBelow += removed[j];
+            }
+            ranks[i] = priority - removedBelow;
+            for (int j = priority + 1; j <= PREFILL; j += j & -j) {
+                removed[j] += 1;
+            }
+        }
+        return ranks;
+    }
+}
@@ -0,0 +1,227 @@
+package priorityqueues;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread-safe, relaxed priority queue for sharing a search frontier between threads, with the
+ * same operations as ExtrinsicMinPQ. Based on the MultiQueue of Rihani, Sanders and Dementiev.
+ *
+ * Items are spread over c * threads binary heaps, each guarded by its own lock. add puts the item
+ * in a random heap, trying others if that heap's lock is taken. removeMin samples two random
+ * heaps and removes the minimum of the one whose minimum is lower, so threads rarely wait on each
+ * other, at the cost of not always removing the global minimum.
+ *
+ * Rank error: with n heaps, the item returned by removeMin has, in expectation, O(n) items of
+ * lower priority still in the queue, and O(n log n) with high probability, independent of the
+ * total number of items; MultiQueueBenchmark measures it alongside throughput. Searches that use
+ * this queue must tolerate vertices being expanded out of order, for example by re-expanding a
+ * vertex whenever a shorter path to it is found.
+ */
+public class MultiQueueMinPQ<T> {
+    /** Attempts at sampling a non-empty heap before removeMin falls back to scanning every heap. */
+    private static final int SAMPLE_ATTEMPTS = 16;
+
+    private final Shard<T>[] shards;
+    private final ConcurrentHashMap<T, Shard<T>> owners = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * One heap, its lock, and copies of whether it is empty and of its minimum priority that may
+     * be read without locking. Emptiness is kept apart from top, since a heap whose minimum
+     * priority is infinite is not empty.
+     */
+    private static final class Shard<T> {
+        final ReentrantLock lock = new ReentrantLock();
+        final ArrayHeapMinPQ<T> heap = new ArrayHeapMinPQ<>();
+        volatile double top = Double.POSITIVE_INFINITY;
+        volatile boolean empty = true;
+
+        /** Refreshes top and empty; must hold lock. */
+        void updateTop() {
+            if (heap.isEmpty()) {
+                top = Double.POSITIVE_INFINITY;
+                empty = true;
+            } else {
+                top = heap.minPriority();
+                empty = false;
+            }
+        }
+    }
+
+    /**
+     * Creates an empty queue for the given number of threads, with queuesPerThread (c) heaps per
+     * thread. c = 2 is a good default; larger values lower contention but raise the rank error.
+     *
+     * @throws IllegalArgumentException if threads or queuesPerThread is less than 1
+     */
+    public MultiQueueMinPQ(int threads, int queuesPerThread) {
+        if (threads < 1 || queuesPerThread < 1) {
+            throw new IllegalArgumentException("Need at least one thread and one queue per thread");
+        }
+        shards = newShards(threads * queuesPerThread);
+        for (int i = 0; i < shards.length; i += 1) {
+            shards[i] = new Shard<>();
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Shard<T>[] newShards(int count) {
+        return (Shard<T>[]) new Shard[count];
+    }
+
+    /** Returns the number of internal heaps. */
+    public int queues() {
+        return shards.length;
+    }
+
+    /** Locks and returns a random shard, preferring ones whose lock is free. */
+    private Shard<T> lockRandomShard() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            Shard<T> shard = shards[random.nextInt(shards.length)];
+            if (shard.lock.tryLock()) {
+                return shard;
+            }
+        }
+    }
+
+    /**
+     * Adds an item with the given priority value.
+     *
+     * @throws IllegalArgumentException if item is null or is already present in the PQ
+     */
+    public void add(T item, double priority) {
+        if (item == null) {
+            throw new IllegalArgumentException("Item cannot be null");
+        }
+        Shard<T> shard = lockRandomShard();
+        try {
+            if (owners.putIfAbsent(item, shard) != null) {
+                throw new IllegalArgumentException("Item cannot be already in the heap");
+            }
+            shard.heap.add(item, priority);
+            shard.updateTop();
+        } finally {
+            shard.lock.unlock();
+        }
+        size.incrementAndGet();
+    }
+
+    /** Returns true if the PQ contains the given item; false otherwise. */
+    public boolean contains(T item) {
+        return item != null && owners.containsKey(item);
+    }
+
+    /**
+     * Removes and returns an item whose priority is close to the least-valued priority; see the
+     * class documentation for how close.
+     *
+     * @throws NoSuchElementException if the PQ is empty
+     */
+    public T removeMin() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int attempt = 0; attempt < SAMPLE_ATTEMPTS; attempt += 1) {
+            Shard<T> first = shards[random.nextInt(shards.length)];
+            Shard<T> second = shards[random.nextInt(shards.length)];
+            Shard<T> shard = lower(first, second);
+            if (shard == null || !shard.lock.tryLock()) {
+                continue;
+            }
+            try {
+                if (!shard.heap.isEmpty()) {
+                    return removeMin(shard);
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        // Sampling kept missing, so the queue is nearly empty or heavily contended.
+        return removeMinScanning();
+    }
+
+    /**
+     * Removes the minimum of the heap whose minimum is lowest, waiting for its lock if need be.
+     * Looks at every heap, so it is slower than sampling but exact when no other thread is busy.
+     *
+     * @throws NoSuchElementException if the PQ is empty
+     */
+    T removeMinScanning() {
+        while (true) {
+            Shard<T> best = null;
+            for (Shard<T> shard : shards) {
+                best = lower(best, shard);
+            }
+            if (best == null) {
+                throw new NoSuchElementException("PQ is empty.");
+            }
+            best.lock.lock();
+            try {
+                // Another thread may have emptied the heap since we looked; if so, look again.
+                if (!best.heap.isEmpty()) {
+                    return removeMin(best);
+                }
+            } finally {
+                best.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns whichever non-empty shard has the lower minimum, preferring a, or null if neither
+     * is non-empty. a may be null.
+     */
+    private static <T> Shard<T> lower(Shard<T> a, Shard<T> b) {
+        if (a == null || a.empty) {
+            return b.empty ? null : b;
+        }
+        return !b.empty && b.top < a.top ? b : a;
+    }
+
+    /** Removes the minimum of a locked, non-empty shard. */
+    private T removeMin(Shard<T> shard) {
+        T item = shard.heap.removeMin();
+        shard.updateTop();
+        owners.remove(item);
+        size.decrementAndGet();
+        return item;
+    }
+
+    /**
+     * Changes the priority of the given item.
+     *
+     * @throws NoSuchElementException if the item is not present in the PQ
+     */
+    public void changePriority(T item, double priority) {
+        while (true) {
+            Shard<T> shard = item == null ? null : owners.get(item);
+            if (shard == null) {
+                throw new NoSuchElementException("Item has to exist in the heap");
+            }
+            shard.lock.lock();
+            try {
+                // The item may have been removed, and even added again elsewhere, before we locked.
+                if (owners.get(item) == shard) {
+                    shard.heap.changePriority(item, priority);
+                    shard.updateTop();
+                    return;
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    /** Returns the number of items in the PQ, which may be stale by the time it is read. */
+    public int size() {
+        return size.get();
+    }
+
+    /** Returns true if the PQ is empty; false otherwise. */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
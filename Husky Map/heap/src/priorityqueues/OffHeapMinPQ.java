@@ -0,0 +1,368 @@
+package priorityqueues;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap of long handles, with the same operations as ExtrinsicMinPQ, whose heap and
+ * handle index are kept in direct (off-heap) memory, for frontiers of hundreds of millions of
+ * entries. Handles are any long values chosen by the caller, such as an encoded puzzle state or
+ * an index into the caller's own storage.
+ *
+ * Nothing is allocated on the Java heap per entry, so the garbage collector never has to trace
+ * the frontier. Each entry takes 16 bytes in the heap and 32 to 64 bytes in the index, an
+ * open-addressing hash table from handle to heap position. Memory is allocated in chunks of at
+ * most 128 MiB, so the heap grows without copying once it passes that size; the JVM's limit on
+ * direct memory (-XX:MaxDirectMemorySize) must leave room for the whole frontier.
+ *
+ * close() must be called once the PQ is no longer needed. It frees the memory at once, through
+ * the JDK's sun.misc.Unsafe.invokeCleaner, and after that every operation throws
+ * IllegalStateException. Buffers outgrown while the PQ grows are freed the same way. On a JVM
+ * that hides invokeCleaner, close() only drops the buffers, and their memory is returned whenever
+ * the garbage collector gets to them.
+ */
+public class OffHeapMinPQ implements AutoCloseable {
+    private static final long MIN_TABLE_SLOTS = 1024;
+
+    /** Entry i of the heap is the handle at 2i and the priority's bits at 2i + 1. */
+    private LongArray heap;
+    /** Slot s of the index is the handle at 2s and its heap position plus 1 at 2s + 1; 0 if empty. */
+    private LongArray table;
+    private long tableSlots;
+    private long size = 0;
+
+    public OffHeapMinPQ() {
+        this(MIN_TABLE_SLOTS);
+    }
+
+    /** Creates a PQ that can hold the given number of entries before it first grows. */
+    public OffHeapMinPQ(long initialCapacity) {
+        heap = new LongArray(2 * Math.max(initialCapacity, 1));
+        tableSlots = MIN_TABLE_SLOTS;
+        while (tableSlots < 2 * initialCapacity) {
+            tableSlots *= 2;
+        }
+        table = new LongArray(2 * tableSlots);
+    }
+
+    /**
+     * A long array stored in direct ByteBuffers. Index i lives in chunk i / CHUNK_LONGS; while it
+     * is smaller than CHUNK_LONGS, the single first chunk grows by copying.
+     */
+    private static final class LongArray {
+        private static final int CHUNK_SHIFT = 24;
+        private static final int CHUNK_LONGS = 1 << CHUNK_SHIFT;
+        private static final int CHUNK_MASK = CHUNK_LONGS - 1;
+
+        private ByteBuffer[] chunks;
+        private long capacity;
+
+        LongArray(long capacity) {
+            int firstLongs = (int) Math.min(capacity, CHUNK_LONGS);
+            chunks = new ByteBuffer[] {allocate(firstLongs)};
+            this.capacity = firstLongs;
+            ensureCapacity(capacity);
+        }
+
+        private static ByteBuffer allocate(int longs) {
+            return ByteBuffer.allocateDirect(longs * Long.BYTES).order(ByteOrder.nativeOrder());
+        }
+
+        /** Frees every chunk; the array must not be used afterwards. */
+        void free() {
+            for (ByteBuffer chunk : chunks) {
+                OffHeapMinPQ.free(chunk);
+            }
+            chunks = new ByteBuffer[0];
+            capacity = 0;
+        }
+
+        void ensureCapacity(long longs) {
+            if (longs <= capacity) {
+                return;
+            }
+            if (capacity < CHUNK_LONGS) {
+                int grown = (int) Math.min(Math.max(capacity * 2, longs), CHUNK_LONGS);
+                ByteBuffer chunk = allocate(grown);
+                chunk.put(chunks[0].clear());
+                OffHeapMinPQ.free(chunks[0]);
+                chunks[0] = chunk;
+                capacity = grown;
+            }
+            while (capacity < longs) {
+                ByteBuffer[] grown = new ByteBuffer[chunks.length + 1];
+                System.arraycopy(chunks, 0, grown, 0, chunks.length);
+                grown[chunks.length] = allocate(CHUNK_LONGS);
+                chunks = grown;
+                capacity += CHUNK_LONGS;
+            }
+        }
+
+        long get(long index) {
+            return chunks[(int) (index >>> CHUNK_SHIFT)].getLong((int) (index & CHUNK_MASK) * Long.BYTES);
+        }
+
+        void set(long index, long value) {
+            chunks[(int) (index >>> CHUNK_SHIFT)].putLong((int) (index & CHUNK_MASK) * Long.BYTES, value);
+        }
+    }
+
+    /** Unsafe.invokeCleaner bound to the Unsafe instance, or null if the JVM does not offer it. */
+    private static final MethodHandle INVOKE_CLEANER = findInvokeCleaner();
+
+    private static MethodHandle findInvokeCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return MethodHandles.lookup()
+                .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                .bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /** Frees the memory of a direct buffer now, if the JVM allows it; see the class documentation. */
+    private static void free(ByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invokeExact(buffer);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not free off-heap memory", e);
+        }
+    }
+
+    /** Returns true if close() frees memory at once rather than leaving it to the garbage collector. */
+    static boolean freesOnClose() {
+        return INVOKE_CLEANER != null;
+    }
+
+    private void checkOpen() {
+        if (heap == null) {
+            throw new IllegalStateException("PQ is closed");
+        }
+    }
+
+    private static long hash(long handle) {
+        long h = handle * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    /** Returns the index slot holding handle, or the empty slot where it would go. */
+    private long slotOf(long handle) {
+        long mask = tableSlots - 1;
+        long slot = hash(handle) & mask;
+        while (table.get(2 * slot + 1) != 0 && table.get(2 * slot) != handle) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /** Returns the heap position of handle, or -1 if it is not in the PQ. */
+    private long positionOf(long handle) {
+        return table.get(2 * slotOf(handle) + 1) - 1;
+    }
+
+    private void growTable() {
+        LongArray old = table;
+        long oldSlots = tableSlots;
+        tableSlots *= 2;
+        table = new LongArray(2 * tableSlots);
+        for (long slot = 0; slot < oldSlots; slot += 1) {
+            long value = old.get(2 * slot + 1);
+            if (value != 0) {
+                long newSlot = slotOf(old.get(2 * slot));
+                table.set(2 * newSlot, old.get(2 * slot));
+                table.set(2 * newSlot + 1, value);
+            }
+        }
+        old.free();
+    }
+
+    private void removeFromTable(long handle) {
+        long mask = tableSlots - 1;
+        long hole = slotOf(handle);
+        // Shift later entries of the probe run back so that lookups never stop early.
+        long next = (hole + 1) & mask;
+        while (table.get(2 * next + 1) != 0) {
+            long home = hash(table.get(2 * next)) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table.set(2 * hole, table.get(2 * next));
+                table.set(2 * hole + 1, table.get(2 * next + 1));
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table.set(2 * hole + 1, 0);
+    }
+
+    private long handleAt(long index) {
+        return heap.get(2 * index);
+    }
+
+    private double priorityAt(long index) {
+        return Double.longBitsToDouble(heap.get(2 * index + 1));
+    }
+
+    /** Puts handle with the given priority at index, and records the new position. */
+    private void place(long index, long handle, double priority) {
+        heap.set(2 * index, handle);
+        heap.set(2 * index + 1, Double.doubleToRawLongBits(priority));
+        long slot = slotOf(handle);
+        table.set(2 * slot, handle);
+        table.set(2 * slot + 1, index + 1);
+    }
+
+    /**
+     * Adds a handle with the given priority value.
+     * Runs in O(log N) time (except when growing).
+     *
+     * @throws IllegalArgumentException if handle is already present in the PQ
+     */
+    public void add(long handle, double priority) {
+        checkOpen();
+        if (positionOf(handle) >= 0) {
+            throw new IllegalArgumentException("Handle cannot be already in the heap");
+        }
+        if (2 * (size + 1) > tableSlots) {
+            growTable();
+        }
+        heap.ensureCapacity(2 * (size + 1));
+        size += 1;
+        percolateUp(size - 1, handle, priority);
+    }
+
+    /** Returns true if the PQ contains the given handle; false otherwise. */
+    public boolean contains(long handle) {
+        checkOpen();
+        return positionOf(handle) >= 0;
+    }
+
+    /**
+     * Returns the handle with the least-valued priority.
+     * @throws NoSuchElementException if the PQ is empty
+     */
+    public long peekMin() {
+        checkOpen();
+        if (isEmpty()) {
+            throw new NoSuchElementException("Heap can't be empty");
+        }
+        return handleAt(0);
+    }
+
+    /**
+     * Returns the least priority in the PQ.
+     * @throws NoSuchElementException if the PQ is empty
+     */
+    public double peekMinPriority() {
+        checkOpen();
+        if (isEmpty()) {
+            throw new NoSuchElementException("Heap can't be empty");
+        }
+        return priorityAt(0);
+    }
+
+    /**
+     * Removes and returns the handle with the least-valued priority.
+     * Runs in O(log N) time.
+     * @throws NoSuchElementException if the PQ is empty
+     */
+    public long removeMin() {
+        checkOpen();
+        if (isEmpty()) {
+            throw new NoSuchElementException("Heap can't be empty");
+        }
+        long retVal = handleAt(0);
+        removeFromTable(retVal);
+        size -= 1;
+        if (!isEmpty()) {
+            percolateDown(0, handleAt(size), priorityAt(size));
+        }
+        return retVal;
+    }
+
+    /**
+     * Changes the priority of the given handle.
+     * Runs in O(log N) time.
+     * @throws NoSuchElementException if the handle is not present in the PQ
+     */
+    public void changePriority(long handle, double priority) {
+        checkOpen();
+        long index = positionOf(handle);
+        if (index < 0) {
+            throw new NoSuchElementException("Handle has to exist in the heap");
+        }
+        if (priority < priorityAt(index)) {
+            percolateUp(index, handle, priority);
+        } else {
+            percolateDown(index, handle, priority);
+        }
+    }
+
+    private void percolateUp(long index, long handle, double priority) {
+        while (index > 0) {
+            long up = (index - 1) / 2;
+            if (priorityAt(up) <= priority) {
+                break;
+            }
+            place(index, handleAt(up), priorityAt(up));
+            index = up;
+        }
+        place(index, handle, priority);
+    }
+
+    private void percolateDown(long index, long handle, double priority) {
+        while (true) {
+            long child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && priorityAt(child + 1) < priorityAt(child)) {
+                child += 1;
+            }
+            if (priority <= priorityAt(child)) {
+                break;
+            }
+            place(index, handleAt(child), priorityAt(child));
+            index = child;
+        }
+        place(index, handle, priority);
+    }
+
+    /** Returns the number of handles in the PQ. */
+    public long size() {
+        checkOpen();
+        return size;
+    }
+
+    /** Returns true if the PQ is empty; false otherwise. */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Frees this PQ's off-heap memory; see the class documentation. Calling close more than once
+     * has no effect.
+     */
+    @Override
+    public void close() {
+        if (heap == null) {
+            return;
+        }
+        heap.free();
+        table.free();
+        heap = null;
+        table = null;
+        size = 0;
+    }
+}
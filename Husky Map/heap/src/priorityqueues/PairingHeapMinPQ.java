@@ -0,0 +1,251 @@
+package priorityqueues;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A pairing heap implementation of ExtrinsicMinPQ, suited to searches that lower priorities far
+ * more often than they remove items, such as A* on road networks.
+ *
+ * add and decreasing changePriority take O(1) time: they only link a tree under the root. The
+ * restructuring is deferred to removeMin, which takes O(log N) amortized time. Increasing a
+ * priority costs the same as a removeMin followed by an add.
+ *
+ * Nodes are stored as slots in parallel arrays rather than as objects, and the slots of removed
+ * items are recycled through a free list, so a long-lived heap stops allocating once it has
+ * reached its largest size. Each item's slot is found through an {@link ItemIndexMap}, which keeps
+ * contains and changePriority O(1).
+ */
+public class PairingHeapMinPQ<T> implements ExtrinsicMinPQ<T> {
+    private static final int NIL = -1;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private Object[] items;
+    private double[] priorities;
+    /** The leftmost child of each node. */
+    private int[] child;
+    /** The next sibling to the right of each node; for free slots, the next free slot. */
+    private int[] sibling;
+    /** The previous sibling of each node, or its parent if it is the leftmost child. */
+    private int[] prev;
+    private int root = NIL;
+    private int free = NIL;
+    /** Slots below this have been handed out at least once. */
+    private int used = 0;
+    private int size = 0;
+    private int[] pairs;
+    private ItemIndexMap<T> slots;
+
+    public PairingHeapMinPQ() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /** Creates a heap that can hold the given number of items without resizing. */
+    public PairingHeapMinPQ(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        items = new Object[capacity];
+        priorities = new double[capacity];
+        child = new int[capacity];
+        sibling = new int[capacity];
+        prev = new int[capacity];
+        pairs = new int[capacity];
+        slots = new ItemIndexMap<>(initialCapacity);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T itemAt(int slot) {
+        return (T) items[slot];
+    }
+
+    /** Takes a slot from the free list, or a fresh one, and makes it a lone tree for item. */
+    private int allocate(T item, double priority) {
+        int slot;
+        if (free != NIL) {
+            slot = free;
+            free = sibling[slot];
+        } else {
+            if (used == items.length) {
+                int capacity = items.length * 2;
+                items = Arrays.copyOf(items, capacity);
+                priorities = Arrays.copyOf(priorities, capacity);
+                child = Arrays.copyOf(child, capacity);
+                sibling = Arrays.copyOf(sibling, capacity);
+                prev = Arrays.copyOf(prev, capacity);
+            }
+            slot = used;
+            used += 1;
+        }
+        items[slot] = item;
+        priorities[slot] = priority;
+        child[slot] = NIL;
+        sibling[slot] = NIL;
+        prev[slot] = NIL;
+        slots.put(item, slot);
+        return slot;
+    }
+
+    private void release(int slot) {
+        slots.remove(items[slot]);
+        items[slot] = null;
+        sibling[slot] = free;
+        free = slot;
+    }
+
+    /** Links two tree roots, making the one with the larger priority the leftmost child of the other. */
+    private int link(int a, int b) {
+        if (priorities[b] < priorities[a]) {
+            int temp = a;
+            a = b;
+            b = temp;
+        }
+        int first = child[a];
+        sibling[b] = first;
+        if (first != NIL) {
+            prev[first] = b;
+        }
+        prev[b] = a;
+        child[a] = b;
+        sibling[a] = NIL;
+        prev[a] = NIL;
+        return a;
+    }
+
+    /** Cuts the subtree rooted at slot, which must not be the root, out of its parent. */
+    private void detach(int slot) {
+        int before = prev[slot];
+        int after = sibling[slot];
+        if (child[before] == slot) {
+            child[before] = after;
+        } else {
+            sibling[before] = after;
+        }
+        if (after != NIL) {
+            prev[after] = before;
+        }
+        sibling[slot] = NIL;
+        prev[slot] = NIL;
+    }
+
+    /**
+     * Merges a list of sibling trees into a single tree: first linking them in pairs from left to
+     * right, then linking the pairs from right to left. Returns NIL for an empty list.
+     */
+    private int mergePairs(int first) {
+        int count = 0;
+        int current = first;
+        while (current != NIL) {
+            int a = current;
+            int b = sibling[a];
+            if (b == NIL) {
+                current = NIL;
+            } else {
+                current = sibling[b];
+                a = link(a, b);
+            }
+            if (count == pairs.length) {
+                pairs = Arrays.copyOf(pairs, pairs.length * 2);
+            }
+            pairs[count] = a;
+            count += 1;
+        }
+        if (count == 0) {
+            return NIL;
+        }
+        int merged = pairs[count - 1];
+        for (int i = count - 2; i >= 0; i -= 1) {
+            merged = link(pairs[i], merged);
+        }
+        prev[merged] = NIL;
+        sibling[merged] = NIL;
+        return merged;
+    }
+
+    /**
+     * Adds an item with the given priority value.
+     * Runs in O(1) time (except when resizing).
+     *
+     * @throws IllegalArgumentException if item is null or is already present in the PQ
+     */
+    @Override
+    public void add(T item, double priority) {
+        if (item == null) {
+            throw new IllegalArgumentException("Item cannot be null");
+        } else if (contains(item)) {
+            throw new IllegalArgumentException("Item cannot be already in the heap");
+        }
+        int slot = allocate(item, priority);
+        root = root == NIL ? slot : link(root, slot);
+        size += 1;
+    }
+
+    @Override
+    public boolean contains(T item) {
+        return item != null && slots.containsKey(item);
+    }
+
+    @Override
+    public T peekMin() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Heap can't be empty");
+        }
+        return itemAt(root);
+    }
+
+    /**
+     * Removes and returns the item with the least-valued priority.
+     * Runs in O(log N) amortized time.
+     * @throws NoSuchElementException if the PQ is empty
+     */
+    @Override
+    public T removeMin() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Heap can't be empty");
+        }
+        int oldRoot = root;
+        T retVal = itemAt(oldRoot);
+        root = mergePairs(child[oldRoot]);
+        release(oldRoot);
+        size -= 1;
+        return retVal;
+    }
+
+    /**
+     * Changes the priority of the given item.
+     * Runs in O(1) time if the priority decreases, and O(log N) amortized time otherwise.
+     *
+     * @throws NoSuchElementException if the item is not present in the PQ
+     */
+    @Override
+    public void changePriority(T item, double priority) {
+        int slot = item == null ? ItemIndexMap.ABSENT : slots.get(item);
+        if (slot == ItemIndexMap.ABSENT) {
+            throw new NoSuchElementException("Item has to exist in the heap");
+        }
+        if (priority <= priorities[slot]) {
+            priorities[slot] = priority;
+            if (slot != root) {
+                detach(slot);
+                root = link(root, slot);
+            }
+            return;
+        }
+        // The item's children may now be smaller than it, so take it out and put it back in.
+        int children = mergePairs(child[slot]);
+        child[slot] = NIL;
+        if (slot == root) {
+            root = children;
+        } else {
+            detach(slot);
+            if (children != NIL) {
+                root = link(root, children);
+            }
+        }
+        priorities[slot] = priority;
+        root = root == NIL ? slot : link(root, slot);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
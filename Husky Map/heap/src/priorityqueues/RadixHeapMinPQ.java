@@ -0,0 +1,250 @@
+package priorityqueues;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A radix heap implementation of ExtrinsicMinPQ for monotone priorities, as produced by Dijkstra's
+ * algorithm and by A* with a consistent heuristic: no priority given to add or changePriority may
+ * be lower than the priority of the last item returned by peekMin or removeMin since the heap was
+ * last empty. This is checked by an assertion, so run with -ea to catch searches that break it.
+ *
+ * Priorities are mapped to longs that sort in the same order, and each entry is kept in the bucket
+ * numbered by the highest bit in which its key differs from the last minimum. removeMin only
+ * compares keys when it empties the lowest non-empty bucket, which moves each entry into a lower
+ * bucket, so each entry is compared at most 65 times in all rather than O(log N) times per removal.
+ *
+ * changePriority does not move the item's entry; it adds a new one, and the old entry is discarded
+ * as stale when it is reached. Each entry records the item's version when it was created, which
+ * changes on every changePriority and removal.
+ */
+public class RadixHeapMinPQ<T> implements ExtrinsicMinPQ<T> {
+    private static final int BUCKETS = 65;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /** Per-bucket entries: the item's id, its version when the entry was made, and its key. */
+    private final int[][] bucketIds = new int[BUCKETS][];
+    private final int[][] bucketVersions = new int[BUCKETS][];
+    private final long[][] bucketKeys = new long[BUCKETS][];
+    private final int[] bucketSizes = new int[BUCKETS];
+    /** The key of the last minimum found, which every key in the heap is at least. */
+    private long last = 0;
+
+    /** Each live item and its version, by id. */
+    private Object[] items;
+    private int[] versions;
+    private int[] freeIds;
+    private int freeCount = 0;
+    private int nextId = 0;
+    private int size = 0;
+    private ItemIndexMap<T> ids;
+
+    public RadixHeapMinPQ() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /** Creates a heap that can hold the given number of items without resizing. */
+    public RadixHeapMinPQ(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        items = new Object[capacity];
+        versions = new int[capacity];
+        freeIds = new int[capacity];
+        ids = new ItemIndexMap<>(initialCapacity);
+    }
+
+    /**
+     * Maps a priority to a long such that smaller priorities map to smaller longs, compared as
+     * unsigned values.
+     */
+    private static long keyOf(double priority) {
+        long bits = Double.doubleToLongBits(priority + 0.0);
+        return bits < 0 ? ~bits : bits ^ Long.MIN_VALUE;
+    }
+
+    private static int bucketOf(long key, long last) {
+        return 64 - Long.numberOfLeadingZeros(key ^ last);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T itemAt(int id) {
+        return (T) items[id];
+    }
+
+    private long checkedKey(double priority) {
+        if (Double.isNaN(priority)) {
+            throw new IllegalArgumentException("Priority cannot be NaN");
+        }
+        long key = keyOf(priority);
+        assert Long.compareUnsigned(key, last) >= 0
+            : "Priority " + priority + " is lower than the last minimum";
+        return key;
+    }
+
+    private void push(int bucket, int id, int version, long key) {
+        int count = bucketSizes[bucket];
+        if (bucketIds[bucket] == null) {
+            bucketIds[bucket] = new int[DEFAULT_CAPACITY];
+            bucketVersions[bucket] = new int[DEFAULT_CAPACITY];
+            bucketKeys[bucket] = new long[DEFAULT_CAPACITY];
+        } else if (count == bucketIds[bucket].length) {
+            bucketIds[bucket] = Arrays.copyOf(bucketIds[bucket], count * 2);
+            bucketVersions[bucket] = Arrays.copyOf(bucketVersions[bucket], count * 2);
+            bucketKeys[bucket] = Arrays.copyOf(bucketKeys[bucket], count * 2);
+        }
+        bucketIds[bucket][count] = id;
+        bucketVersions[bucket][count] = version;
+        bucketKeys[bucket][count] = key;
+        bucketSizes[bucket] = count + 1;
+    }
+
+    private boolean isStale(int bucket, int entry) {
+        return bucketVersions[bucket][entry] != versions[bucketIds[bucket][entry]];
+    }
+
+    /**
+     * Moves entries down until the last entry of bucket 0 is a live one holding a minimum. The
+     * heap must not be empty.
+     */
+    private void settle() {
+        while (true) {
+            while (bucketSizes[0] > 0 && isStale(0, bucketSizes[0] - 1)) {
+                bucketSizes[0] -= 1;
+            }
+            if (bucketSizes[0] > 0) {
+                return;
+            }
+            int bucket = 1;
+            while (bucketSizes[bucket] == 0) {
+                bucket += 1;
+            }
+            int[] entryIds = bucketIds[bucket];
+            int[] entryVersions = bucketVersions[bucket];
+            long[] entryKeys = bucketKeys[bucket];
+            int count = bucketSizes[bucket];
+            bucketSizes[bucket] = 0;
+            long min = -1L;
+            for (int i = 0; i < count; i += 1) {
+                if (entryVersions[i] == versions[entryIds[i]] && Long.compareUnsigned(entryKeys[i], min) < 0) {
+                    min = entryKeys[i];
+                }
+            }
+            if (min == -1L) {
+                // Only stale entries were left in the bucket.
+                continue;
+            }
+            last = min;
+            // Every live entry now differs from last in a lower bit than before, so this never
+            // pushes back into the bucket being read.
+            for (int i = 0; i < count; i += 1) {
+                if (entryVersions[i] == versions[entryIds[i]]) {
+                    push(bucketOf(entryKeys[i], last), entryIds[i], entryVersions[i], entryKeys[i]);
+                }
+            }
+        }
+    }
+
+    private int allocateId(T item) {
+        int id;
+        if (freeCount > 0) {
+            freeCount -= 1;
+            id = freeIds[freeCount];
+        } else {
+            if (nextId == items.length) {
+                int capacity = items.length * 2;
+                items = Arrays.copyOf(items, capacity);
+                versions = Arrays.copyOf(versions, capacity);
+                freeIds = Arrays.copyOf(freeIds, capacity);
+            }
+            id = nextId;
+            nextId += 1;
+        }
+        items[id] = item;
+        ids.put(item, id);
+        return id;
+    }
+
+    /**
+     * Adds an item with the given priority value.
+     * Runs in O(1) amortized time.
+     *
+     * @throws IllegalArgumentException if item is null or is already present in the PQ, or if
+     *                                  priority is NaN
+     */
+    @Override
+    public void add(T item, double priority) {
+        if (item == null) {
+            throw new IllegalArgumentException("Item cannot be null");
+        } else if (contains(item)) {
+            throw new IllegalArgumentException("Item cannot be already in the heap");
+        }
+        long key = checkedKey(priority);
+        int id = allocateId(item);
+        push(bucketOf(key, last), id, versions[id], key);
+        size += 1;
+    }
+
+    @Override
+    public boolean contains(T item) {
+        return item != null && ids.containsKey(item);
+    }
+
+    @Override
+    public T peekMin() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Heap can't be empty");
+        }
+        settle();
+        return itemAt(bucketIds[0][bucketSizes[0] - 1]);
+    }
+
+    /**
+     * Removes and returns the item with the least-valued priority.
+     * Runs in O(log C) amortized time, where C is the number of distinct keys, at most 2^64.
+     * @throws NoSuchElementException if the PQ is empty
+     */
+    @Override
+    public T removeMin() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("Heap can't be empty");
+        }
+        settle();
+        bucketSizes[0] -= 1;
+        int id = bucketIds[0][bucketSizes[0]];
+        T retVal = itemAt(id);
+        ids.remove(retVal);
+        items[id] = null;
+        versions[id] += 1;
+        freeIds[freeCount] = id;
+        freeCount += 1;
+        size -= 1;
+        if (size == 0) {
+            // Any entries left are stale, and the next search may start from lower priorities.
+            Arrays.fill(bucketSizes, 0);
+            last = 0;
+        }
+        return retVal;
+    }
+
+    /**
+     * Changes the priority of the given item by adding a new entry for it.
+     * Runs in O(1) amortized time.
+     *
+     * @throws NoSuchElementException if the item is not present in the PQ
+     * @throws IllegalArgumentException if priority is NaN
+     */
+    @Override
+    public void changePriority(T item, double priority) {
+        int id = item == null ? ItemIndexMap.ABSENT : ids.get(item);
+        if (id == ItemIndexMap.ABSENT) {
+            throw new NoSuchElementException("Item has to exist in the heap");
+        }
+        long key = checkedKey(priority);
+        versions[id] += 1;
+        push(bucketOf(key, last), id, versions[id], key);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
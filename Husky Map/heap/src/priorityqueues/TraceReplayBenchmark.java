@@ -0,0 +1,233 @@
+package priorityqueues;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Replays fringe traces recorded from real A* searches (by RecordFringeTrace in the astar and
+ * huskymaps projects) against every ExtrinsicMinPQ in this package, and reports each one's
+ * throughput and allocation rate.
+ *
+ * Every replay is also a differential test: each removeMin must return an item with the priority
+ * that the recorded search removed. NaiveMinPQ is replayed first as the reference; a PQ that
+ * disagrees with the trace is reported along with the first operation where it went wrong.
+ * When several items share the least priority, PQs may legitimately return different ones, so the
+ * replay renames items to keep following the trace instead of failing.
+ *
+ * Usage: {@code TraceReplayBenchmark trace.bin [more traces...]}
+ */
+public class TraceReplayBenchmark {
+    /** The trace format written by tracing.FringeTraceWriter. */
+    private static final int MAGIC = 0x50515452;
+    private static final int VERSION = 1;
+    private static final int RECORD_BYTES = 13;
+    private static final byte NEW_SEARCH = 0;
+    private static final byte ADD = 1;
+    private static final byte CHANGE_PRIORITY = 2;
+    private static final byte REMOVE_MIN = 3;
+
+    private static final int WARMUP_RUNS = 3;
+    private static final int TIMED_RUNS = 5;
+
+    public static void main(String[] args) throws IOException {
+        for (String arg : args) {
+            Trace trace = Trace.read(Path.of(arg));
+            System.out.printf("%s: %d operations in %d searches, %d items at most%s%n", arg,
+                trace.operations(), trace.searches, trace.maxItems,
+                trace.monotone ? ", monotone" : "");
+
+            Map<String, Supplier<ExtrinsicMinPQ<Integer>>> pqs = new LinkedHashMap<>();
+            pqs.put("NaiveMinPQ", NaiveMinPQ::new);
+            pqs.put("ArrayHeapMinPQ", ArrayHeapMinPQ::new);
+            pqs.put("DaryHeapMinPQ(4)", () -> new DaryHeapMinPQ<>(4));
+            pqs.put("DaryHeapMinPQ(8)", () -> new DaryHeapMinPQ<>(8));
+            pqs.put("PairingHeapMinPQ", PairingHeapMinPQ::new);
+            if (trace.monotone) {
+                pqs.put("RadixHeapMinPQ", RadixHeapMinPQ::new);
+            }
+            for (Map.Entry<String, Supplier<ExtrinsicMinPQ<Integer>>> pq : pqs.entrySet()) {
+                // NaiveMinPQ takes quadratic time, so it is only checked, never timed.
+                report(pq.getKey(), trace, pq.getValue(), !pq.getKey().equals("NaiveMinPQ"));
+            }
+            System.out.println();
+        }
+    }
+
+    private static void report(String name, Trace trace, Supplier<ExtrinsicMinPQ<Integer>> pqs,
+                               boolean timed) {
+        Replay replay = new Replay(trace);
+        try {
+            replay.run(pqs);
+        } catch (RuntimeException e) {
+            System.out.printf("  %-18s FAILED at operation %d: %s%n", name, replay.position, e);
+            return;
+        }
+        if (!timed) {
+            System.out.printf("  %-18s matches trace%n", name);
+            return;
+        }
+        for (int i = 0; i < WARMUP_RUNS; i += 1) {
+            replay.run(pqs);
+        }
+        double[] nanos = new double[TIMED_RUNS];
+        long allocated = 0;
+        for (int i = 0; i < TIMED_RUNS; i += 1) {
+            long bytesBefore = allocatedBytes();
+            long start = System.nanoTime();
+            replay.run(pqs);
+            nanos[i] = System.nanoTime() - start;
+            allocated += allocatedBytes() - bytesBefore;
+        }
+        Arrays.sort(nanos);
+        double median = nanos[TIMED_RUNS / 2];
+        System.out.printf("  %-18s matches trace %10.2f Mops/s %8.1f bytes/op%n", name,
+            trace.operations() / median * 1e3, (double) allocated / TIMED_RUNS / trace.operations());
+    }
+
+    /** Returns the bytes allocated by this thread so far, or 0 if the JVM cannot tell. */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(
+                Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    /** A trace loaded into parallel arrays, one entry per record. */
+    private static class Trace {
+        byte[] ops;
+        int[] ids;
+        double[] priorities;
+        int length;
+        int searches;
+        int maxItems;
+        /** Whether no search ever adds or changes a priority below its last removed priority. */
+        boolean monotone = true;
+
+        long operations() {
+            return length - searches;
+        }
+
+        static Trace read(Path path) throws IOException {
+            Trace trace = new Trace();
+            int capacity = (int) Math.max(16, Files.size(path) / RECORD_BYTES);
+            trace.ops = new byte[capacity];
+            trace.ids = new int[capacity];
+            trace.priorities = new double[capacity];
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+                DataInputStream data = new DataInputStream(in);
+                byte[] record = new byte[RECORD_BYTES];
+                ByteBuffer buffer = ByteBuffer.wrap(record).order(ByteOrder.LITTLE_ENDIAN);
+                data.readFully(record, 0, 8);
+                if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                    throw new IOException(path + " is not a version " + VERSION + " fringe trace");
+                }
+                double floor = Double.NEGATIVE_INFINITY;
+                while (true) {
+                    try {
+                        data.readFully(record);
+                    } catch (EOFException e) {
+                        return trace;
+                    }
+                    buffer.rewind();
+                    byte op = buffer.get();
+                    int id = buffer.getInt();
+                    double priority = buffer.getDouble();
+                    if (op == NEW_SEARCH) {
+                        trace.searches += 1;
+                        floor = Double.NEGATIVE_INFINITY;
+                    } else if (op == REMOVE_MIN) {
+                        floor = priority;
+                    } else if (priority < floor) {
+                        trace.monotone = false;
+                    }
+                    trace.maxItems = Math.max(trace.maxItems, id + 1);
+                    trace.ops[trace.length] = op;
+                    trace.ids[trace.length] = id;
+                    trace.priorities[trace.length] = priority;
+                    trace.length += 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Replays a trace against new PQs, one per search. Recorded item ids are mapped to the PQ's
+     * items through traceToPq, so that when a PQ removes a different item of the same priority,
+     * the two items can swap names and the rest of the trace still refers to the right ones.
+     */
+    private static class Replay {
+        private final Trace trace;
+        private final Integer[] items;
+        private final int[] traceToPq;
+        private final int[] pqToTrace;
+        private final double[] current;
+        /** The index of the record being replayed, for error reports. */
+        int position;
+
+        Replay(Trace trace) {
+            this.trace = trace;
+            items = new Integer[trace.maxItems];
+            for (int i = 0; i < items.length; i += 1) {
+                items[i] = i;
+            }
+            traceToPq = new int[trace.maxItems];
+            pqToTrace = new int[trace.maxItems];
+            current = new double[trace.maxItems];
+        }
+
+        void run(Supplier<ExtrinsicMinPQ<Integer>> pqs) {
+            ExtrinsicMinPQ<Integer> pq = pqs.get();
+            for (position = 0; position < trace.length; position += 1) {
+                int id = trace.ids[position];
+                double priority = trace.priorities[position];
+                switch (trace.ops[position]) {
+                    case NEW_SEARCH:
+                        pq = pqs.get();
+                        for (int i = 0; i < traceToPq.length; i += 1) {
+                            traceToPq[i] = i;
+                            pqToTrace[i] = i;
+                        }
+                        break;
+                    case ADD:
+                        pq.add(items[traceToPq[id]], priority);
+                        current[id] = priority;
+                        break;
+                    case CHANGE_PRIORITY:
+                        pq.changePriority(items[traceToPq[id]], priority);
+                        current[id] = priority;
+                        break;
+                    case REMOVE_MIN:
+                        int removed = pqToTrace[pq.removeMin()];
+                        if (current[removed] != priority) {
+                            throw new IllegalStateException("removed priority " + current[removed]
+                                + " instead of " + priority);
+                        }
+                        if (removed != id) {
+                            int pqItem = traceToPq[id];
+                            traceToPq[id] = traceToPq[removed];
+                            traceToPq[removed] = pqItem;
+                            pqToTrace[traceToPq[id]] = id;
+                            pqToTrace[traceToPq[removed]] = removed;
+                        }
+                        break;
+                    default:
+                        throw new IllegalStateException("unknown operation " + trace.ops[position]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package priorityqueues;
+
+public class ArrayHeapMinPQTests extends BaseMinPQTest {
+    @Override
+    protected ExtrinsicMinPQ<Integer> createMinPQ() {
+        return new ArrayHeapMinPQ<>();
+    }
+}
@@ -0,0 +1,232 @@
+package priorityqueues;
+
+import edu.washington.cse373.BaseTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Checks a priority queue against {@link NaiveMinPQ} by running the same random operations on
+ * both. Priorities are drawn from a small range, so there are many ties; a removed item is checked
+ * to have the least priority rather than to be the same item that NaiveMinPQ would remove.
+ * Subclasses supply the priority queue under test.
+ */
+public abstract class BaseMinPQTest extends BaseTest {
+    /** The number of distinct items, which are added again after being removed. */
+    private static final int ITEMS = 3000;
+
+    /** Returns an empty priority queue of the kind under test. */
+    protected abstract ExtrinsicMinPQ<Integer> createMinPQ();
+
+    /**
+     * Returns false if the priority queue under test only accepts monotone priorities: none lower
+     * than that of the last item peeked or removed since it was last empty.
+     */
+    protected boolean acceptsAnyPriority() {
+        return true;
+    }
+
+    /** Runs the given number of random operations on pq and a NaiveMinPQ, checking that they agree. */
+    protected void assertMatchesNaive(ExtrinsicMinPQ<Integer> pq, long seed, int operations) {
+        new Oracle(pq, seed).run(operations);
+    }
+
+    /** The state of a random run: the naive PQ, the priority of every item in it, and the floor. */
+    private class Oracle {
+        private final ExtrinsicMinPQ<Integer> pq;
+        private final Random random;
+        private final NaiveMinPQ<Integer> naive = new NaiveMinPQ<>();
+        private final Map<Integer, Double> priorities = new HashMap<>();
+        private final List<Integer> live = new ArrayList<>();
+        /** The lowest priority a monotone PQ accepts. */
+        private double floor = 0;
+
+        Oracle(ExtrinsicMinPQ<Integer> pq, long seed) {
+            this.pq = pq;
+            this.random = new Random(seed);
+        }
+
+        void run(int operations) {
+            for (int op = 0; op < operations; op += 1) {
+                int choice = random.nextInt(100);
+                if ((choice < 35 || live.isEmpty()) && live.size() < ITEMS) {
+                    int item = absentItem();
+                    double priority = nextPriority();
+                    pq.add(item, priority);
+                    added(item, priority);
+                } else if (choice < 60) {
+                    checkRemoveMin(pq.removeMin());
+                } else if (choice < 80) {
+                    Integer item = live.get(random.nextInt(live.size()));
+                    double priority = nextPriority();
+                    pq.changePriority(item, priority);
+                    naive.changePriority(item, priority);
+                    priorities.put(item, priority);
+                } else if (choice < 85) {
+                    Integer min = pq.peekMin();
+                    assertThat(priorities.get(min)).as("priority of peeked %s", min)
+                        .isEqualTo(priorities.get(naive.peekMin()));
+                    floor = priorities.get(min);
+                } else if (choice < 90) {
+                    int item = random.nextInt(ITEMS);
+                    assertThat(pq.contains(item)).as("contains %s", item)
+                        .isEqualTo(priorities.containsKey(item));
+                } else if (choice < 94) {
+                    addBatch(1 + random.nextInt(live.size() + 10));
+                } else if (choice < 97) {
+                    changeBatch(1 + random.nextInt(live.size()));
+                } else {
+                    drain(random.nextInt(live.size() + 5));
+                }
+                assertThat(pq.size()).as("size after %d operations", op + 1).isEqualTo(naive.size());
+                assertThat(pq.isEmpty()).isEqualTo(naive.isEmpty());
+                if (live.isEmpty()) {
+                    floor = 0;
+                }
+            }
+            drain(live.size());
+            assertThat(pq.isEmpty()).isTrue();
+        }
+
+        private int absentItem() {
+            int item = random.nextInt(ITEMS);
+            while (priorities.containsKey(item)) {
+                item = (item + 1) % ITEMS;
+            }
+            return item;
+        }
+
+        /** Returns a priority that is often equal to others, and at least the floor if need be. */
+        private double nextPriority() {
+            double priority = random.nextInt(200) / 4.0;
+            return acceptsAnyPriority() ? priority - 25 : floor + priority;
+        }
+
+        private void added(int item, double priority) {
+            naive.add(item, priority);
+            priorities.put(item, priority);
+            live.add(item);
+        }
+
+        /** Checks that removed has the least priority, and removes it from the naive PQ too. */
+        private void checkRemoveMin(Integer removed) {
+            double least = priorities.get(naive.peekMin());
+            assertThat(priorities.containsKey(removed)).as("removed %s is in the PQ", removed).isTrue();
+            assertThat(priorities.get(removed)).as("priority of removed %s", removed).isEqualTo(least);
+            naive.changePriority(removed, Double.NEGATIVE_INFINITY);
+            naive.removeMin();
+            priorities.remove(removed);
+            live.remove(removed);
+            floor = least;
+        }
+
+        private void addBatch(int count) {
+            List<Integer> items = new ArrayList<>(count);
+            Set<Integer> chosen = new HashSet<>();
+            while (items.size() < count && priorities.size() + items.size() < ITEMS) {
+                int item = absentItem();
+                if (chosen.add(item)) {
+                    items.add(item);
+                }
+            }
+            double[] batch = new double[items.size()];
+            for (int i = 0; i < batch.length; i += 1) {
+                batch[i] = nextPriority();
+            }
+            pq.addAll(items, batch);
+            for (int i = 0; i < batch.length; i += 1) {
+                added(items.get(i), batch[i]);
+            }
+        }
+
+        private void changeBatch(int count) {
+            List<Integer> items = new ArrayList<>(count);
+            double[] batch = new double[count];
+            for (int i = 0; i < count; i += 1) {
+                items.add(live.get(random.nextInt(live.size())));
+                batch[i] = nextPriority();
+            }
+            pq.changePriorities(items, batch);
+            // A repeated item takes its last priority.
+            for (int i = 0; i < count; i += 1) {
+                naive.changePriority(items.get(i), batch[i]);
+                priorities.put(items.get(i), batch[i]);
+            }
+        }
+
+        private void drain(int k) {
+            Integer[] out = new Integer[k];
+            int count = pq.drainSorted(k, out);
+            assertThat(count).as("drained of %d", k).isEqualTo(Math.min(k, naive.size()));
+            for (int i = 0; i < count; i += 1) {
+                checkRemoveMin(out[i]);
+            }
+        }
+    }
+
+    @Test
+    void randomOperations_matchNaive() {
+        assertMatchesNaive(createMinPQ(), 373, 20000);
+    }
+
+    @Test
+    void randomOperations_onManySmallRuns_matchNaive() {
+        // Emptying the PQ often, as many short searches do with one reused PQ.
+        ExtrinsicMinPQ<Integer> pq = createMinPQ();
+        for (int run = 0; run < 50; run += 1) {
+            assertMatchesNaive(pq, run, 200);
+        }
+    }
+
+    @Test
+    void add_whenNull_throws() {
+        ExtrinsicMinPQ<Integer> pq = createMinPQ();
+        assertThatThrownBy(() -> pq.add(null, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void add_whenPresent_throws() {
+        ExtrinsicMinPQ<Integer> pq = createMinPQ();
+        pq.add(1, 1);
+        assertThatThrownBy(() -> pq.add(1, 2)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(pq.size()).isEqualTo(1);
+    }
+
+    @Test
+    void removeMin_whenEmpty_throws() {
+        ExtrinsicMinPQ<Integer> pq = createMinPQ();
+        assertThatThrownBy(pq::removeMin).isInstanceOf(NoSuchElementException.class);
+        assertThatThrownBy(pq::peekMin).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void changePriority_whenAbsent_throws() {
+        ExtrinsicMinPQ<Integer> pq = createMinPQ();
+        pq.add(1, 1);
+        assertThatThrownBy(() -> pq.changePriority(2, 1)).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void addAll_whenLengthsDiffer_throws() {
+        ExtrinsicMinPQ<Integer> pq = createMinPQ();
+        assertThatThrownBy(() -> pq.addAll(List.of(1, 2), new double[1]))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void drainSorted_whenOutIsTooShort_throws() {
+        ExtrinsicMinPQ<Integer> pq = createMinPQ();
+        pq.add(1, 1);
+        assertThatThrownBy(() -> pq.drainSorted(2, new Integer[1]))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> pq.drainSorted(-1, new Integer[1]))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
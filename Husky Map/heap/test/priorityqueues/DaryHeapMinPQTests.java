@@ -0,0 +1,23 @@
+package priorityqueues;
+
+import org.junit.jupiter.api.Test;
+
+public class DaryHeapMinPQTests extends BaseMinPQTest {
+    @Override
+    protected ExtrinsicMinPQ<Integer> createMinPQ() {
+        return new DaryHeapMinPQ<>(4);
+    }
+
+    @Test
+    void randomOperations_withEachArity_matchNaive() {
+        for (int arity : new int[]{2, 3, 8, 16}) {
+            assertMatchesNaive(new DaryHeapMinPQ<>(arity, 1), arity, 5000);
+        }
+    }
+
+    @Test
+    void constructor_whenArityIsBelowTwo_throws() {
+        assertThatThrownBy(() -> new DaryHeapMinPQ<Integer>(1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,75 @@
+package priorityqueues;
+
+import org.junit.jupiter.api.Test;
+
+public class IndexedMinPQTests extends BaseMinPQTest {
+    @Override
+    protected ExtrinsicMinPQ<Integer> createMinPQ() {
+        return new IntItems(new IndexedMinPQ(3000));
+    }
+
+    /** An IndexedMinPQ seen as an ExtrinsicMinPQ of boxed ints, for comparing it to NaiveMinPQ. */
+    private static class IntItems implements ExtrinsicMinPQ<Integer> {
+        private final IndexedMinPQ pq;
+
+        IntItems(IndexedMinPQ pq) {
+            this.pq = pq;
+        }
+
+        @Override
+        public void add(Integer item, double priority) {
+            if (item == null) {
+                throw new IllegalArgumentException("Item cannot be null");
+            }
+            pq.add(item, priority);
+        }
+
+        @Override
+        public boolean contains(Integer item) {
+            return item != null && pq.contains(item);
+        }
+
+        @Override
+        public Integer peekMin() {
+            return pq.peekMin();
+        }
+
+        @Override
+        public Integer removeMin() {
+            return pq.removeMin();
+        }
+
+        @Override
+        public void changePriority(Integer item, double priority) {
+            pq.changePriority(item, priority);
+        }
+
+        @Override
+        public int size() {
+            return pq.size();
+        }
+    }
+
+    @Test
+    void clear_leavesPQReusable() {
+        IndexedMinPQ pq = new IndexedMinPQ(3000);
+        for (int i = 0; i < 50; i += 1) {
+            pq.add(i, 100 - i);
+        }
+        pq.removeMin();
+        pq.clear();
+        assertThat(pq.isEmpty()).isTrue();
+        assertThat(pq.contains(10)).isFalse();
+        pq.add(10, 1);
+        assertThat(pq.priority(10)).isEqualTo(1.0);
+        assertThat(pq.removeMin()).isEqualTo(10);
+        assertMatchesNaive(new IntItems(pq), 51, 2000);
+    }
+
+    @Test
+    void add_whenOutOfRange_throws() {
+        IndexedMinPQ pq = new IndexedMinPQ(10);
+        assertThatThrownBy(() -> pq.add(10, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> pq.add(-1, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,155 @@
+package priorityqueues;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MultiQueueMinPQTests extends BaseMinPQTest {
+    /** With a single internal heap, the queue is exact, so it can be compared to NaiveMinPQ. */
+    @Override
+    protected ExtrinsicMinPQ<Integer> createMinPQ() {
+        return new Exact(new MultiQueueMinPQ<>(1, 1));
+    }
+
+    private static class Exact implements ExtrinsicMinPQ<Integer> {
+        private final MultiQueueMinPQ<Integer> pq;
+        /** The priority of every item, for putting back an item removed by peekMin. */
+        private final Map<Integer, Double> priorities = new HashMap<>();
+
+        Exact(MultiQueueMinPQ<Integer> pq) {
+            this.pq = pq;
+        }
+
+        @Override
+        public void add(Integer item, double priority) {
+            pq.add(item, priority);
+            priorities.put(item, priority);
+        }
+
+        @Override
+        public boolean contains(Integer item) {
+            return pq.contains(item);
+        }
+
+        @Override
+        public Integer peekMin() {
+            // MultiQueueMinPQ has no peek; remove the minimum and put it back.
+            Integer min = pq.removeMin();
+            pq.add(min, priorities.get(min));
+            return min;
+        }
+
+        @Override
+        public Integer removeMin() {
+            Integer min = pq.removeMin();
+            priorities.remove(min);
+            return min;
+        }
+
+        @Override
+        public void changePriority(Integer item, double priority) {
+            pq.changePriority(item, priority);
+            priorities.put(item, priority);
+        }
+
+        @Override
+        public int size() {
+            return pq.size();
+        }
+    }
+
+    @Test
+    void removeMin_fromManyThreads_removesEachItemOnce() throws InterruptedException {
+        int threads = 4;
+        int perThread = 20000;
+        MultiQueueMinPQ<Integer> pq = new MultiQueueMinPQ<>(threads, 2);
+        ConcurrentLinkedQueue<Integer> removed = new ConcurrentLinkedQueue<>();
+        AtomicInteger failures = new AtomicInteger();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t += 1) {
+            int first = t * perThread;
+            workers.add(new Thread(() -> {
+                try {
+                    for (int i = first; i < first + perThread; i += 1) {
+                        pq.add(i, (i * 7919) % 1000);
+                        if (i % 2 == 1) {
+                            removed.add(pq.removeMin());
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    failures.incrementAndGet();
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        while (!pq.isEmpty()) {
+            removed.add(pq.removeMin());
+        }
+        assertThat(failures.get()).isEqualTo(0);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < threads * perThread; i += 1) {
+            expected.add(i);
+        }
+        assertThat(removed).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @Test
+    void removeMin_withManyQueues_hasSmallRankError() {
+        MultiQueueMinPQ<Integer> pq = new MultiQueueMinPQ<>(4, 2);
+        int n = 20000;
+        for (int i = 0; i < n; i += 1) {
+            pq.add(i, (i * 7919L) % n);
+        }
+        // Item i has priority rank (i * 7919) % n; removing in rank order would give 0, 1, 2, ...
+        long worst = 0;
+        for (int removed = 0; removed < n / 2; removed += 1) {
+            long rank = (pq.removeMin() * 7919L) % n;
+            worst = Math.max(worst, rank - removed);
+        }
+        assertThat(worst).as("worst rank error with %d heaps", pq.queues()).isLessThanOrEqualTo(500);
+    }
+
+    @Test
+    void removeMin_whenPrioritiesAreInfinite_removesEveryItem() {
+        MultiQueueMinPQ<Integer> pq = new MultiQueueMinPQ<>(4, 2);
+        for (int i = 0; i < 20; i += 1) {
+            pq.add(i, Double.POSITIVE_INFINITY);
+        }
+        List<Integer> removed = new ArrayList<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i += 1) {
+            removed.add(pq.removeMin());
+            expected.add(i);
+        }
+        assertThat(pq.isEmpty()).isTrue();
+        assertThat(removed).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @Test
+    void removeMinScanning_removesGlobalMinimum() {
+        MultiQueueMinPQ<Integer> pq = new MultiQueueMinPQ<>(4, 2);
+        int n = 200;
+        for (int i = 0; i < n; i += 1) {
+            // Some items share an infinite priority, which must still come out last.
+            pq.add(i, i < n - 10 ? (i * 7919L) % (n - 10) : Double.POSITIVE_INFINITY);
+        }
+        for (int removed = 0; removed < n - 10; removed += 1) {
+            assertThat((pq.removeMinScanning() * 7919L) % (n - 10)).isEqualTo(removed);
+        }
+        for (int removed = n - 10; removed < n; removed += 1) {
+            assertThat(pq.removeMinScanning().intValue()).isGreaterThanOrEqualTo(n - 10);
+        }
+        assertThatThrownBy(pq::removeMinScanning).isInstanceOf(NoSuchElementException.class);
+    }
+}
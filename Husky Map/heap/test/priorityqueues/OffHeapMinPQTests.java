@@ -0,0 +1,127 @@
+package priorityqueues;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+public class OffHeapMinPQTests extends BaseMinPQTest {
+    private final List<OffHeapMinPQ> opened = new ArrayList<>();
+
+    @Override
+    protected ExtrinsicMinPQ<Integer> createMinPQ() {
+        OffHeapMinPQ pq = new OffHeapMinPQ();
+        opened.add(pq);
+        return new Handles(pq);
+    }
+
+    @AfterEach
+    void closeAll() {
+        for (OffHeapMinPQ pq : opened) {
+            pq.close();
+        }
+        opened.clear();
+    }
+
+    /**
+     * An OffHeapMinPQ seen as an ExtrinsicMinPQ of ints, for comparing it to NaiveMinPQ. Each item
+     * is repeated in the high half of its handle, so that the handle index sees large handles.
+     */
+    private static class Handles implements ExtrinsicMinPQ<Integer> {
+        private final OffHeapMinPQ pq;
+
+        Handles(OffHeapMinPQ pq) {
+            this.pq = pq;
+        }
+
+        private static long handle(int item) {
+            return (long) item << 32 | item;
+        }
+
+        private static int item(long handle) {
+            return (int) handle;
+        }
+
+        @Override
+        public void add(Integer item, double priority) {
+            if (item == null) {
+                throw new IllegalArgumentException("Item cannot be null");
+            }
+            pq.add(handle(item), priority);
+        }
+
+        @Override
+        public boolean contains(Integer item) {
+            return item != null && pq.contains(handle(item));
+        }
+
+        @Override
+        public Integer peekMin() {
+            return item(pq.peekMin());
+        }
+
+        @Override
+        public Integer removeMin() {
+            return item(pq.removeMin());
+        }
+
+        @Override
+        public void changePriority(Integer item, double priority) {
+            pq.changePriority(handle(item), priority);
+        }
+
+        @Override
+        public int size() {
+            return (int) pq.size();
+        }
+    }
+
+    @Test
+    void peekMinPriority_isLeastPriority() {
+        try (OffHeapMinPQ pq = new OffHeapMinPQ(1)) {
+            pq.add(7, 3);
+            pq.add(-8, 2);
+            pq.add(Long.MAX_VALUE, 5);
+            assertThat(pq.peekMinPriority()).isEqualTo(2.0);
+            assertThat(pq.removeMin()).isEqualTo(-8L);
+            pq.changePriority(Long.MAX_VALUE, 1);
+            assertThat(pq.peekMin()).isEqualTo(Long.MAX_VALUE);
+        }
+    }
+
+    @Test
+    void operations_afterClose_throw() {
+        OffHeapMinPQ pq = new OffHeapMinPQ();
+        pq.add(1, 1);
+        pq.close();
+        assertThatThrownBy(() -> pq.add(2, 1)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(pq::removeMin).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static long directMemoryUsed() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                return pool.getMemoryUsed();
+            }
+        }
+        throw new AssertionError("No direct buffer pool");
+    }
+
+    @Test
+    void close_freesMemoryAtOnce() {
+        assertThat(OffHeapMinPQ.freesOnClose()).isTrue();
+        long before = directMemoryUsed();
+        OffHeapMinPQ pq = new OffHeapMinPQ(1 << 16);
+        // Grow past the initial capacity, so that outgrown buffers are freed along the way.
+        for (int i = 0; i < 1 << 18; i += 1) {
+            pq.add(i, -i);
+        }
+        assertThat(directMemoryUsed() - before).isGreaterThan(16L << 18);
+        pq.close();
+        assertThat(directMemoryUsed()).isLessThanOrEqualTo(before);
+        pq.close();
+    }
+}
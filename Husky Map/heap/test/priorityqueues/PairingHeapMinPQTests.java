@@ -0,0 +1,8 @@
+package priorityqueues;
+
+public class PairingHeapMinPQTests extends BaseMinPQTest {
+    @Override
+    protected ExtrinsicMinPQ<Integer> createMinPQ() {
+        return new PairingHeapMinPQ<>();
+    }
+}
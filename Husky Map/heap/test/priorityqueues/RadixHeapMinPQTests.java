@@ -0,0 +1,36 @@
+package priorityqueues;
+
+import org.junit.jupiter.api.Test;
+
+public class RadixHeapMinPQTests extends BaseMinPQTest {
+    @Override
+    protected ExtrinsicMinPQ<Integer> createMinPQ() {
+        return new RadixHeapMinPQ<>();
+    }
+
+    @Override
+    protected boolean acceptsAnyPriority() {
+        return false;
+    }
+
+    @Test
+    void removeMin_withNegativeAndInfinitePriorities_isOrdered() {
+        RadixHeapMinPQ<Integer> pq = new RadixHeapMinPQ<>();
+        pq.add(1, Double.POSITIVE_INFINITY);
+        pq.add(2, -3.5);
+        pq.add(3, 0.0);
+        pq.add(4, -0.0);
+        pq.add(5, Double.NEGATIVE_INFINITY);
+        assertThat(pq.removeMin()).isEqualTo(5);
+        assertThat(pq.removeMin()).isEqualTo(2);
+        assertThat(pq.removeMin()).isIn(java.util.List.of(3, 4));
+        assertThat(pq.removeMin()).isIn(java.util.List.of(3, 4));
+        assertThat(pq.removeMin()).isEqualTo(1);
+    }
+
+    @Test
+    void add_whenPriorityIsNaN_throws() {
+        RadixHeapMinPQ<Integer> pq = new RadixHeapMinPQ<>();
+        assertThatThrownBy(() -> pq.add(1, Double.NaN)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -5,6 +5,7 @@ import huskymaps.handlers.APIRouteHandler;
 import huskymaps.handlers.RedirectAPIHandler;
 import huskymaps.handlers.rastering.RasterAPIHandler;
 import huskymaps.handlers.routing.RoutingAPIHandler;
+import huskymaps.handlers.routing.RoutingMetricsAPIHandler;
 import huskymaps.handlers.searching.SearchAPIHandler;
 import huskymaps.rastering.DefaultRasterer;
 import huskymaps.routing.DefaultRouter;
@@ -15,6 +16,7 @@ import java.util.Map;
 import static huskymaps.utils.Constants.OSM_GZ_RESOURCE_NAME;
 import static huskymaps.utils.Constants.PLACES_RESOURCE_NAME;
 import static huskymaps.utils.Constants.PORT;
+import static huskymaps.utils.Constants.ROUTER_CALIBRATION_SAMPLES;
 import static spark.Spark.before;
 import static spark.Spark.get;
 import static spark.Spark.port;
@@ -30,9 +32,12 @@ public class MapServer {
     /** Entry point for the MapServer. Everything starts here. */
     public static void main(String[] args) {
         StreetMapGraph graph = StreetMapGraph.fromResources(OSM_GZ_RESOURCE_NAME, PLACES_RESOURCE_NAME);
+        DefaultRouter router = new DefaultRouter(graph);
+        router.calibratePathFindersInBackground(ROUTER_CALIBRATION_SAMPLES);
         new MapServer(Map.of(
             "/raster", new RasterAPIHandler(new DefaultRasterer()),
-            "/route", new RoutingAPIHandler(new DefaultRouter(graph)),
+            "/route", new RoutingAPIHandler(router),
+            "/route/metrics", new RoutingMetricsAPIHandler(router),
             "/search", new SearchAPIHandler(new DefaultSearcher(graph)),
             "/", new RedirectAPIHandler()
         )).start();
@@ -7,6 +7,8 @@ public class Node {
     private final String name;
     private final long id;
     private final int importance;
+    /** The position of this node in its graph's allNodes(), or -1 if it is in no graph. */
+    private int index = -1;
 
     protected Node(long id, double lat, double lon, String name, int importance) {
         this.lat = lat;
@@ -36,6 +38,14 @@ public class Node {
         return importance;
     }
 
+    int index() {
+        return index;
+    }
+
+    void setIndex(int index) {
+        this.index = index;
+    }
+
     static class Builder {
         long id;
         double lat;
@@ -1,6 +1,6 @@
 package huskymaps.graph;
 
-import graphpathfinding.AStarGraph;
+import graphpathfinding.IndexedGraph;
 import graphpathfinding.WeightedEdge;
 
 import java.io.File;
@@ -15,7 +15,7 @@ import java.util.Set;
 
 import static huskymaps.utils.Spatial.greatCircleDistance;
 
-public class StreetMapGraph implements AStarGraph<Node> {
+public class StreetMapGraph implements IndexedGraph<Node> {
     protected Map<Node, Set<WeightedEdge<Node>>> neighbors = new HashMap<>();
     protected List<Node> nodes = new ArrayList<>();
 
@@ -59,6 +59,20 @@ public class StreetMapGraph implements AStarGraph<Node> {
         return greatCircleDistance(Coordinate.fromNode(v), Coordinate.fromNode(goal));
     }
 
+    /**
+     * Returns the position of v in {@link #allNodes()}. Assumes v exists in this graph.
+     * The position is kept on the node itself rather than in a map, to save memory.
+     */
+    @Override
+    public int indexOf(Node v) {
+        return v.index();
+    }
+
+    @Override
+    public Node vertexAt(int index) {
+        return nodes.get(index);
+    }
+
     /** Returns an unmodifiable list of all nodes in the graph. */
     public List<Node> allNodes() {
         return Collections.unmodifiableList(nodes);
@@ -79,6 +93,7 @@ public class StreetMapGraph implements AStarGraph<Node> {
 
     /** Adds a node to this graph. */
     protected void addNode(Node node) {
+        node.setIndex(this.nodes.size());
         this.nodes.add(node);
     }
 
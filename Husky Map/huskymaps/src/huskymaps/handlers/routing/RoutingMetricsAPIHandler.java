@@ -0,0 +1,32 @@
+package huskymaps.handlers.routing;
+
+import graphpathfinding.AdaptivePathFinder.EngineMetrics;
+import huskymaps.handlers.APIRouteHandler;
+import huskymaps.routing.DefaultRouter;
+import spark.Request;
+import spark.Response;
+
+import java.util.List;
+
+/**
+ * Reports the latency measured for each shortest path engine used by the router, per class of
+ * route, and which engine each class is currently dispatched to.
+ */
+public class RoutingMetricsAPIHandler extends APIRouteHandler<Void, List<EngineMetrics>> {
+
+    private DefaultRouter router;
+
+    public RoutingMetricsAPIHandler(DefaultRouter router) {
+        this.router = router;
+    }
+
+    @Override
+    protected Void parseRequest(Request request) {
+        return null;
+    }
+
+    @Override
+    protected List<EngineMetrics> processRequest(Void request, Response response) {
+        return router.pathFinderMetrics();
+    }
+}
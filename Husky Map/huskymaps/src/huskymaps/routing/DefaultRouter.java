@@ -2,20 +2,30 @@ package huskymaps.routing;
 
 import graphpathfinding.AStarGraph;
 import graphpathfinding.AStarPathFinder;
+import graphpathfinding.AdaptivePathFinder;
 import graphpathfinding.ShortestPathFinder;
 import graphpathfinding.ShortestPathResult;
+import graphpathfinding.WeightedEdge;
 import huskymaps.graph.Coordinate;
 import huskymaps.graph.Node;
 import huskymaps.graph.StreetMapGraph;
-import pointsets.KDTreePointSet;
+import pointsets.FlatKDTreePointSet;
 import pointsets.Point;
 import pointsets.PointSet;
+import pointsets.SegmentRTree;
 
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
+import static huskymaps.utils.Constants.LONG_ROUTE_MILES;
+import static huskymaps.utils.Constants.SNAP_CANDIDATES;
+import static huskymaps.utils.Constants.SNAP_COST_FACTOR;
+import static huskymaps.utils.Spatial.greatCircleDistance;
 import static huskymaps.utils.Spatial.projectToPoint;
 
 /**
@@ -25,6 +35,8 @@ public class DefaultRouter extends Router {
     private StreetMapGraph graph;
     List<NodePoint> pointsList;
     private PointSet<NodePoint> pointsTree;
+    private SegmentRTree<WeightedEdge<Node>> roadsTree;
+    private AdaptivePathFinder<Node> pathFinder;
 
     public DefaultRouter(StreetMapGraph graph) {
         this.graph = graph;
@@ -35,13 +47,78 @@ public class DefaultRouter extends Router {
             }
         }
         pointsTree = createPointSet(pointsList);
+        roadsTree = createRoadsTree();
+        pathFinder = AdaptivePathFinder.withDefaultEngines(graph, LONG_ROUTE_MILES, this::createPathFinder);
+    }
+
+    /**
+     * Times every shortest path engine on the given number of random routes between routable
+     * nodes, so that later routes are dispatched to the fastest engine for their length.
+     * Until this is called, every route uses plain A*.
+     */
+    public void calibratePathFinders(int numSamples) {
+        pathFinder.calibrate(sampleNodes(numSamples, 0), sampleNodes(numSamples, 1),
+            Duration.of(10, ChronoUnit.SECONDS));
+    }
+
+    /**
+     * Like {@link #calibratePathFinders(int)}, but on a background thread, so that routes can be
+     * served meanwhile; they use plain A* until the first samples are timed.
+     */
+    public Thread calibratePathFindersInBackground(int numSamples) {
+        return pathFinder.calibrateInBackground(sampleNodes(numSamples, 0), sampleNodes(numSamples, 1),
+            Duration.of(10, ChronoUnit.SECONDS));
+    }
+
+    /** Returns the given number of random routable nodes, the same ones for the same arguments. */
+    private List<Node> sampleNodes(int numSamples, int seed) {
+        Random random = new Random(numSamples * 2L + seed);
+        List<Node> nodes = new ArrayList<>(numSamples);
+        for (int i = 0; i < numSamples; i += 1) {
+            nodes.add(pointsList.get(random.nextInt(pointsList.size())).node());
+        }
+        return nodes;
+    }
+
+    /** Returns the latencies measured for each shortest path engine and which ones are in use. */
+    public List<AdaptivePathFinder.EngineMetrics> pathFinderMetrics() {
+        return pathFinder.metrics();
     }
 
     @Override
     protected <T extends Point> PointSet<T> createPointSet(List<T> points) {
         // uncomment (and import) if you want to use WeirdPointSet instead of your own KDTreePointSet:
         // return new WeirdPointSet<>(points);
-        return KDTreePointSet.createAfterShuffling(points);
+        // return KDTreePointSet.createAfterShuffling(points);
+        // FlatKDTreePointSet keeps only coordinates and int ids per node, about a third less memory.
+        return new FlatKDTreePointSet<>(points);
+    }
+
+    /**
+     * Returns an R-tree of every edge of the graph, as a segment between its projected ends, or
+     * null if the graph has no edges.
+     */
+    private SegmentRTree<WeightedEdge<Node>> createRoadsTree() {
+        List<WeightedEdge<Node>> edges = new ArrayList<>();
+        for (Node node : graph.allNodes()) {
+            edges.addAll(graph.neighbors(node));
+        }
+        if (edges.isEmpty()) {
+            return null;
+        }
+        double[] x1s = new double[edges.size()];
+        double[] y1s = new double[edges.size()];
+        double[] x2s = new double[edges.size()];
+        double[] y2s = new double[edges.size()];
+        for (int i = 0; i < edges.size(); i += 1) {
+            Point from = projectToPoint(Coordinate.fromNode(edges.get(i).from()), Point::new);
+            Point to = projectToPoint(Coordinate.fromNode(edges.get(i).to()), Point::new);
+            x1s[i] = from.x();
+            y1s[i] = from.y();
+            x2s[i] = to.x();
+            y2s[i] = to.y();
+        }
+        return new SegmentRTree<>(edges, x1s, y1s, x2s, y2s);
     }
 
     @Override
@@ -62,17 +139,147 @@ public class DefaultRouter extends Router {
         return retVal.node();
     }
 
+    /** Returns the edge closest to the given coordinate, or null if the graph has no edges. */
+    public WeightedEdge<Node> closestEdge(Coordinate c) {
+        RoadPoint road = snapToRoad(c);
+        return road == null ? null : road.edge;
+    }
+
+    /** The point on the closest road to a coordinate, and the cost of walking there. */
+    private static class RoadPoint {
+        final WeightedEdge<Node> edge;
+        /** How far along the edge, from its from node (0) to its to node (1), the point is. */
+        final double fraction;
+        final double offRoad;
+
+        RoadPoint(WeightedEdge<Node> edge, double fraction, double offRoad) {
+            this.edge = edge;
+            this.fraction = fraction;
+            this.offRoad = offRoad;
+        }
+    }
+
+    /** Returns the point on the road closest to the given coordinate, or null if there are no roads. */
+    private RoadPoint snapToRoad(Coordinate c) {
+        if (roadsTree == null) {
+            return null;
+        }
+        Point p = projectToPoint(c, Point::new);
+        SegmentRTree.Match<WeightedEdge<Node>> match = roadsTree.nearest(p.x(), p.y());
+        WeightedEdge<Node> edge = match.item;
+        Coordinate from = Coordinate.fromNode(edge.from());
+        Coordinate to = Coordinate.fromNode(edge.to());
+        double t = match.fraction;
+        Coordinate onRoad = new Coordinate(from.lat() + t * (to.lat() - from.lat()),
+            from.lon() + t * (to.lon() - from.lon()));
+        return new RoadPoint(edge, t, SNAP_COST_FACTOR * greatCircleDistance(c, onRoad));
+    }
+
+    /**
+     * Returns the nodes closest to the given coordinate, each mapped to the cost of connecting it
+     * to the coordinate. Offering the search several candidates avoids exploring the whole graph
+     * when the closest node happens to sit on a small disconnected piece of road.
+     *
+     * The ends of the closest road are candidates too, costed as a walk to the closest point on
+     * the road plus a drive along the rest of it, so that a point halfway along a long block is
+     * not snapped to a node around the corner. For a start coordinate, the road is driven from
+     * that point to the node; for an end coordinate, from the node to that point.
+     */
+    Map<Node, Double> snapCandidates(Coordinate c, boolean start) {
+        return snapCandidates(c, snapToRoad(c), start);
+    }
+
+    private Map<Node, Double> snapCandidates(Coordinate c, RoadPoint road, boolean start) {
+        Point p = projectToPoint(c, Point::new);
+        Map<Node, Double> candidates = new HashMap<>();
+        for (NodePoint point : pointsTree.kNearest(p, SNAP_CANDIDATES)) {
+            double offRoad = greatCircleDistance(c, Coordinate.fromNode(point.node()));
+            candidates.put(point.node(), SNAP_COST_FACTOR * offRoad);
+        }
+        // At either end of the road, the closest point is a node, which is already a candidate.
+        if (road == null || road.fraction <= 0 || road.fraction >= 1) {
+            return candidates;
+        }
+        addEdgeCandidate(candidates, road.edge, road.fraction, road.offRoad, start);
+        // Two-way roads have an edge each way; the tree returns either one.
+        WeightedEdge<Node> reverse = reverseOf(road.edge);
+        if (reverse != null) {
+            addEdgeCandidate(candidates, reverse, 1 - road.fraction, road.offRoad, start);
+        }
+        return candidates;
+    }
+
+    /**
+     * Adds the node reached by driving along edge from (for a start) or to (for an end) the point
+     * at the given fraction of the way along it.
+     */
+    private static void addEdgeCandidate(Map<Node, Double> candidates, WeightedEdge<Node> edge,
+                                         double fraction, double offRoad, boolean start) {
+        if (start) {
+            candidates.merge(edge.to(), offRoad + (1 - fraction) * edge.weight(), Math::min);
+        } else {
+            candidates.merge(edge.from(), offRoad + fraction * edge.weight(), Math::min);
+        }
+    }
+
+    /** Returns the edge from edge.to() back to edge.from(), or null if the road is one-way. */
+    private WeightedEdge<Node> reverseOf(WeightedEdge<Node> edge) {
+        for (WeightedEdge<Node> reverse : graph.neighbors(edge.to())) {
+            if (reverse.to().equals(edge.from())) {
+                return reverse;
+            }
+        }
+        return null;
+    }
+
     @Override
     public List<Node> shortestPath(Coordinate start, Coordinate end) {
-        Node src = closest(start);
-        Node dest = closest(end);
-        ShortestPathFinder<Node> finder = createPathFinder(graph);
-        ShortestPathResult<Node> solution = finder.findShortestPath(src, dest, Duration.of(10, ChronoUnit.SECONDS));
-        return solution.solution();
+        RoadPoint startRoad = snapToRoad(start);
+        RoadPoint endRoad = snapToRoad(end);
+        Map<Node, Double> src = snapCandidates(start, startRoad, true);
+        Map<Node, Double> dest = snapCandidates(end, endRoad, false);
+        ShortestPathResult<Node> solution = pathFinder.findShortestPath(src, dest, Duration.of(10, ChronoUnit.SECONDS));
         /*
         Feel free to use any arbitrary duration for your path finding timeout; we don't expect
         queries to take more than a few seconds, so e.g. 10-30 seconds is pretty reasonable.
          */
+        if (startRoad != null && endRoad != null) {
+            List<Node> along = routeAlongRoad(startRoad, endRoad, solution.solutionWeight());
+            if (along != null) {
+                return along;
+            }
+        }
+        return solution.solution();
+    }
+
+    /**
+     * Returns the edge driven from the start point to the end point if both are on the same road
+     * and that drive costs less than the given weight, or null otherwise. The route is the
+     * edge's two nodes in the direction driven, as {@link Router#shortestPath} documents; the
+     * drive starts and ends between them, so neither node need be a snap candidate.
+     */
+    private List<Node> routeAlongRoad(RoadPoint startRoad, RoadPoint endRoad, double weight) {
+        WeightedEdge<Node> edge = startRoad.edge;
+        double endFraction;
+        if (endRoad.edge.from().equals(edge.from()) && endRoad.edge.to().equals(edge.to())) {
+            endFraction = endRoad.fraction;
+        } else if (endRoad.edge.from().equals(edge.to()) && endRoad.edge.to().equals(edge.from())) {
+            endFraction = 1 - endRoad.fraction;
+        } else {
+            return null;
+        }
+        double offRoad = startRoad.offRoad + endRoad.offRoad;
+        if (startRoad.fraction <= endFraction) {
+            if (offRoad + (endFraction - startRoad.fraction) * edge.weight() < weight) {
+                return List.of(edge.from(), edge.to());
+            }
+            return null;
+        }
+        WeightedEdge<Node> reverse = reverseOf(edge);
+        if (reverse != null && offRoad + (startRoad.fraction - endFraction) * reverse.weight() < weight) {
+            return List.of(edge.to(), edge.from());
+        }
+        return null;
     }
 
     @Override
@@ -0,0 +1,114 @@
+package huskymaps.routing;
+
+import graphpathfinding.AStarPathFinder;
+import huskymaps.graph.Coordinate;
+import huskymaps.graph.Node;
+import huskymaps.graph.StreetMapGraph;
+import tracing.BinaryTraceReader;
+import tracing.BinaryTraceWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static huskymaps.utils.Constants.OSM_GZ_RESOURCE_NAME;
+import static huskymaps.utils.Constants.PLACES_RESOURCE_NAME;
+import static huskymaps.utils.Constants.ROOT_LAT_DIFF;
+import static huskymaps.utils.Constants.ROOT_LON_DIFF;
+import static huskymaps.utils.Constants.ROOT_LRLAT;
+import static huskymaps.utils.Constants.ROOT_ULLON;
+
+/**
+ * Prints a summary of an A* expansion trace over the street map, along with a text heat map of
+ * where the expansions happened and in which order.
+ *
+ * Usage: {@code ExpansionHeatMap trace.bin [startLat startLon endLat endLon]}. If the route is
+ * given, it is searched first and its trace written to trace.bin.
+ */
+public class ExpansionHeatMap {
+    private static final int COLUMNS = 96;
+    private static final int ROWS = 32;
+    /** Cells from least to most expansions. */
+    private static final String SHADES = " .:-=+*#%@";
+
+    public static void main(String[] args) throws IOException {
+        StreetMapGraph graph = StreetMapGraph.fromResources(OSM_GZ_RESOURCE_NAME, PLACES_RESOURCE_NAME);
+        Path trace = Path.of(args[0]);
+        if (args.length == 5) {
+            DefaultRouter router = new DefaultRouter(graph);
+            Node start = router.closest(new Coordinate(Double.parseDouble(args[1]), Double.parseDouble(args[2])));
+            Node end = router.closest(new Coordinate(Double.parseDouble(args[3]), Double.parseDouble(args[4])));
+            try (BinaryTraceWriter<Node> writer = new BinaryTraceWriter<>(trace, graph::indexOf)) {
+                AStarPathFinder<Node> finder = new AStarPathFinder<>(graph);
+                finder.setExpansionRecorder(writer);
+                finder.findShortestPath(start, end, Duration.ofSeconds(30));
+            }
+        }
+
+        BinaryTraceReader.Summary summary = new BinaryTraceReader.Summary();
+        int[][] counts = new int[ROWS][COLUMNS];
+        long[][] firstExpansion = new long[ROWS][COLUMNS];
+        long[] expansions = {0};
+        BinaryTraceReader.forEach(trace, e -> {
+            summary.accept(e);
+            Node node = graph.vertexAt(e.index);
+            int col = (int) ((node.lon() - ROOT_ULLON) / ROOT_LON_DIFF * COLUMNS);
+            int row = (int) ((node.lat() - ROOT_LRLAT) / ROOT_LAT_DIFF * ROWS);
+            if (row >= 0 && row < ROWS && col >= 0 && col < COLUMNS) {
+                // Rows are printed north to south.
+                row = ROWS - 1 - row;
+                if (counts[row][col] == 0) {
+                    firstExpansion[row][col] = expansions[0];
+                }
+                counts[row][col] += 1;
+            }
+            expansions[0] += 1;
+        });
+        System.out.println(summary);
+        System.out.println();
+        System.out.println("Expansions per cell:");
+        System.out.println(render(counts, maxOf(counts)));
+        System.out.println("Expansion order (darker cells were reached later):");
+        System.out.println(renderOrder(counts, firstExpansion, expansions[0]));
+    }
+
+    private static long maxOf(int[][] counts) {
+        long max = 0;
+        for (int[] row : counts) {
+            for (int count : row) {
+                max = Math.max(max, count);
+            }
+        }
+        return max;
+    }
+
+    private static String render(int[][] counts, long max) {
+        StringBuilder sb = new StringBuilder();
+        for (int[] row : counts) {
+            for (int count : row) {
+                sb.append(shade(count, max));
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static String renderOrder(int[][] counts, long[][] firstExpansion, long total) {
+        StringBuilder sb = new StringBuilder();
+        for (int r = 0; r < ROWS; r += 1) {
+            for (int c = 0; c < COLUMNS; c += 1) {
+                sb.append(counts[r][c] == 0 ? ' ' : shade(firstExpansion[r][c] + 1, total));
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static char shade(long value, long max) {
+        if (value <= 0 || max <= 0) {
+            return SHADES.charAt(0);
+        }
+        int i = 1 + (int) ((SHADES.length() - 2) * value / max);
+        return SHADES.charAt(Math.min(i, SHADES.length() - 1));
+    }
+}
@@ -0,0 +1,120 @@
+package huskymaps.routing;
+
+import huskymaps.graph.Coordinate;
+import huskymaps.graph.Node;
+import huskymaps.graph.StreetMapGraph;
+import pointsets.FlatKDTreePointSet;
+import pointsets.GridPointSet;
+import pointsets.KDTreePointSet;
+import pointsets.NaivePointSet;
+import pointsets.Point;
+import pointsets.PointSet;
+import pointsets.WeirdPointSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+import static huskymaps.utils.Constants.OSM_GZ_RESOURCE_NAME;
+import static huskymaps.utils.Constants.PLACES_RESOURCE_NAME;
+import static huskymaps.utils.Spatial.projectToPoint;
+
+/**
+ * Compares the build time and nearest-query latency of every PointSet on the routable nodes of
+ * the street map, the set DefaultRouter snaps to.
+ *
+ * Queries are uniformly random points in the nodes' bounding box, like clicks on the map. Every
+ * answer is checked against NaivePointSet on a sample of the queries, so a fast but wrong point
+ * set is reported rather than timed.
+ *
+ * Usage: {@code PointSetBenchmark [queries]}
+ */
+public class PointSetBenchmark {
+    private static final int CHECKED_QUERIES = 1_000;
+    private static final int WARMUP_RUNS = 3;
+    private static final int TIMED_RUNS = 5;
+
+    public static void main(String[] args) {
+        int queries = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        StreetMapGraph graph = StreetMapGraph.fromResources(OSM_GZ_RESOURCE_NAME, PLACES_RESOURCE_NAME);
+        List<NodePoint> nodes = new ArrayList<>();
+        for (Node node : graph.allNodes()) {
+            if (!graph.neighbors(node).isEmpty()) {
+                nodes.add(projectToPoint(Coordinate.fromNode(node), (x, y) -> new NodePoint(x, y, node)));
+            }
+        }
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (NodePoint point : nodes) {
+            minX = Math.min(minX, point.x());
+            minY = Math.min(minY, point.y());
+            maxX = Math.max(maxX, point.x());
+            maxY = Math.max(maxY, point.y());
+        }
+        Random random = new Random(373);
+        double[] targets = new double[2 * queries];
+        for (int i = 0; i < queries; i += 1) {
+            targets[2 * i] = minX + random.nextDouble() * (maxX - minX);
+            targets[2 * i + 1] = minY + random.nextDouble() * (maxY - minY);
+        }
+        System.out.printf("%d routable nodes, %d queries%n", nodes.size(), queries);
+
+        Map<String, Function<List<NodePoint>, PointSet<NodePoint>>> pointSets = new LinkedHashMap<>();
+        pointSets.put("KDTreePointSet", KDTreePointSet::createAfterShuffling);
+        pointSets.put("WeirdPointSet", WeirdPointSet::new);
+        pointSets.put("FlatKDTreePointSet", FlatKDTreePointSet::new);
+        pointSets.put("GridPointSet", GridPointSet::new);
+        NaivePointSet<NodePoint> naive = new NaivePointSet<>(nodes);
+        for (Map.Entry<String, Function<List<NodePoint>, PointSet<NodePoint>>> entry : pointSets.entrySet()) {
+            report(entry.getKey(), entry.getValue(), nodes, naive, targets);
+        }
+    }
+
+    private static void report(String name, Function<List<NodePoint>, PointSet<NodePoint>> builder,
+                               List<NodePoint> nodes, NaivePointSet<NodePoint> naive, double[] targets) {
+        // Some point sets shuffle or keep the list they are given, so each gets its own copy.
+        long start = System.nanoTime();
+        PointSet<NodePoint> points = builder.apply(new ArrayList<>(nodes));
+        double buildMillis = (System.nanoTime() - start) / 1e6;
+
+        for (int i = 0; i < Math.min(CHECKED_QUERIES, targets.length / 2); i += 1) {
+            Point target = new Point(targets[2 * i], targets[2 * i + 1]);
+            double expected = naive.nearest(target).distanceSquaredTo(target);
+            double actual = points.nearest(target).distanceSquaredTo(target);
+            if (actual != expected) {
+                System.out.printf("  %-20s WRONG: nearest to %s is %.6f away, not %.6f%n", name,
+                    target, Math.sqrt(actual), Math.sqrt(expected));
+                return;
+            }
+        }
+
+        double checksum = 0;
+        for (int i = 0; i < WARMUP_RUNS; i += 1) {
+            checksum += queryAll(points, targets);
+        }
+        double[] nanos = new double[TIMED_RUNS];
+        for (int i = 0; i < TIMED_RUNS; i += 1) {
+            start = System.nanoTime();
+            checksum += queryAll(points, targets);
+            nanos[i] = (double) (System.nanoTime() - start) / (targets.length / 2);
+        }
+        Arrays.sort(nanos);
+        System.out.printf("  %-20s build %8.1f ms   query %8.1f ns  (checksum %.1f)%n", name,
+            buildMillis, nanos[TIMED_RUNS / 2], checksum);
+    }
+
+    /** Runs every query and returns a checksum of the answers. */
+    private static double queryAll(PointSet<NodePoint> points, double[] targets) {
+        double checksum = 0;
+        for (int i = 0; i < targets.length; i += 2) {
+            checksum += points.nearest(targets[i], targets[i + 1]).x();
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,50 @@
+package huskymaps.routing;
+
+import graphpathfinding.AStarPathFinder;
+import huskymaps.graph.Node;
+import huskymaps.graph.StreetMapGraph;
+import tracing.FringeTraceWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static huskymaps.utils.Constants.OSM_GZ_RESOURCE_NAME;
+import static huskymaps.utils.Constants.PLACES_RESOURCE_NAME;
+
+/**
+ * Records the fringe operations of A* on random routes over the street map, for replay by the
+ * heap project's TraceReplayBenchmark.
+ *
+ * Usage: {@code RecordFringeTrace trace.bin [routes]}. Routes run between random pairs of nodes
+ * that have at least one neighbor, chosen from a fixed seed, so runs are repeatable.
+ */
+public class RecordFringeTrace {
+    public static void main(String[] args) throws IOException {
+        Path path = Path.of(args[0]);
+        int routes = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        StreetMapGraph graph = StreetMapGraph.fromResources(OSM_GZ_RESOURCE_NAME, PLACES_RESOURCE_NAME);
+        List<Node> routable = new ArrayList<>();
+        for (Node node : graph.allNodes()) {
+            if (!graph.neighbors(node).isEmpty()) {
+                routable.add(node);
+            }
+        }
+        Random random = new Random(373);
+        try (FringeTraceWriter<Node> writer = new FringeTraceWriter<>(path)) {
+            for (int i = 0; i < routes; i += 1) {
+                Node start = routable.get(random.nextInt(routable.size()));
+                Node end = routable.get(random.nextInt(routable.size()));
+                AStarPathFinder<Node> finder = new AStarPathFinder<>(graph);
+                finder.setFringeRecorder(writer);
+                finder.findShortestPath(start, end, Duration.ofSeconds(30));
+            }
+            System.out.printf("Recorded %d fringe operations over %d routes to %s%n",
+                writer.operations(), routes, path);
+        }
+    }
+}
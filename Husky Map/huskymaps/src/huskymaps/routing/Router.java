@@ -22,6 +22,7 @@ public abstract class Router {
 
     /**
      * Returns the node closest to the given longitude and latitude coordinate.
+     * Note that shortestPath may start or end a route at another node nearby.
      *
      * @param c
      * @return The node in the graph closest to the target.
@@ -29,11 +30,18 @@ public abstract class Router {
     protected abstract Node closest(Coordinate c);
 
     /**
-     * Returns a List of nodes representing the shortest path from the node
-     * closest to a start location to the node closest to the destination location.
+     * Returns a List of nodes representing the cheapest route from a start location to a
+     * destination location. A route may join the road network at any of several nodes near the
+     * start and leave it at any of several nodes near the destination; its cost is the driving
+     * distance plus the off-road distance to and from those nodes, weighted by
+     * {@link huskymaps.utils.Constants#SNAP_COST_FACTOR}. The closest node is one of the
+     * candidates, so no route costs more than the shortest path between the closest nodes, and
+     * it is that path unless another candidate saves more driving than its extra off-road cost.
+     * If both locations are closest to the same road and driving straight along it is cheapest,
+     * the route is just that road's two nodes, in the direction driven.
      * @param start
      * @param end
-     * @return A list of nodes in the order visited on the shortest path.
+     * @return A list of nodes in the order visited on the route.
      */
     public abstract List<Node> shortestPath(Coordinate start, Coordinate end);
 
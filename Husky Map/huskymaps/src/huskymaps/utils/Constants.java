@@ -79,6 +79,22 @@ public class Constants {
     public static final int[] MIN_X_TILE_AT_DEPTH = {163, 326, 652, 1304, 2608, 5216, 10432, 20864};
     public static final int[] MIN_Y_TILE_AT_DEPTH = {357, 714, 1428, 2856, 5712, 11424, 22848, 45696};
 
+    /**
+     * Routes whose endpoints are at least this many miles apart (as the crow flies) are profiled
+     * and dispatched separately from shorter routes.
+     */
+    public static final double LONG_ROUTE_MILES = 1.0;
+    /** Number of random routes each shortest path engine is timed on, in the background, at startup. */
+    public static final int ROUTER_CALIBRATION_SAMPLES = 20;
+
+    /** Number of nearby nodes each route endpoint may be snapped to. */
+    public static final int SNAP_CANDIDATES = 4;
+    /**
+     * Cost per mile of getting from a route endpoint to a candidate node off the road network,
+     * relative to driving. Keeps the nearest node preferred unless it saves real driving.
+     */
+    public static final double SNAP_COST_FACTOR = 10.0;
+
     /** HTTP failed response. */
     public static final int HALT_RESPONSE = 500;
 
@@ -0,0 +1,91 @@
+package huskymaps.graph;
+
+import edu.washington.cse373.BaseTest;
+import graphpathfinding.AStarGraph;
+import graphpathfinding.AStarPathFinder;
+import graphpathfinding.ShortestPathResult;
+import graphpathfinding.WeightedEdge;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/** Checks the positions StreetMapGraph keeps on its nodes, and the compact paths they allow. */
+public class StreetMapGraphTests extends BaseTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    /** A three by three grid of streets, with one diagonal shortcut. */
+    private static class GridGraph extends StreetMapGraph {
+        final Node[] grid = new Node[9];
+
+        GridGraph() {
+            for (int i = 0; i < grid.length; i += 1) {
+                grid[i] = new Node(i + 1, 47.600 + 0.001 * (i / 3), -122.300 + 0.001 * (i % 3), null, 0);
+                addNode(grid[i]);
+            }
+            for (int i = 0; i < grid.length; i += 1) {
+                if (i % 3 < 2) {
+                    road(grid[i], grid[i + 1]);
+                }
+                if (i + 3 < grid.length) {
+                    road(grid[i], grid[i + 3]);
+                }
+            }
+            road(grid[3], grid[7]);
+        }
+
+        private void road(Node a, Node b) {
+            addWeightedEdge(a, b, null);
+            addWeightedEdge(b, a, null);
+        }
+    }
+
+    /** The same graph, hiding its node positions, so that paths through it are stored as lists. */
+    private static class Unindexed implements AStarGraph<Node> {
+        private final StreetMapGraph graph;
+
+        Unindexed(StreetMapGraph graph) {
+            this.graph = graph;
+        }
+
+        @Override
+        public Collection<WeightedEdge<Node>> neighbors(Node v) {
+            return graph.neighbors(v);
+        }
+
+        @Override
+        public double estimatedDistanceToGoal(Node v, Node goal) {
+            return graph.estimatedDistanceToGoal(v, goal);
+        }
+    }
+
+    @Test
+    void addNode_setsPositionInAllNodes() {
+        GridGraph graph = new GridGraph();
+        List<Node> nodes = graph.allNodes();
+        for (int i = 0; i < nodes.size(); i += 1) {
+            assertThat(graph.indexOf(nodes.get(i))).isEqualTo(i);
+            assertThat(graph.vertexAt(i)).isSameAs(nodes.get(i));
+        }
+        assertThat(new Node(100, 47.6, -122.3, null, 0).index()).isEqualTo(-1);
+    }
+
+    @Test
+    void findShortestPath_storesSamePathAsList() {
+        GridGraph graph = new GridGraph();
+        Unindexed plain = new Unindexed(graph);
+        for (Node start : graph.grid) {
+            for (Node end : graph.grid) {
+                ShortestPathResult<Node> compact = new AStarPathFinder<>(graph).findShortestPath(start, end, TIMEOUT);
+                ShortestPathResult<Node> expected = new AStarPathFinder<>(plain).findShortestPath(start, end, TIMEOUT);
+                assertThat(compact).isInstanceOf(ShortestPathResult.CompactSolved.class);
+                assertThat(compact.solution()).containsExactlyElementsOf(expected.solution());
+                assertThat(compact.solutionWeight()).isCloseTo(expected.solutionWeight(), within(1e-9));
+            }
+        }
+        List<Node> shortcut = new AStarPathFinder<>(graph).findShortestPath(graph.grid[3], graph.grid[7], TIMEOUT)
+            .solution();
+        assertThat(shortcut).containsExactly(graph.grid[3], graph.grid[7]);
+    }
+}
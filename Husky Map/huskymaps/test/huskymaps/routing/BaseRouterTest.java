@@ -0,0 +1,285 @@
+package huskymaps.routing;
+
+import edu.washington.cse373.BaseTest;
+import graphpathfinding.WeightedEdge;
+import huskymaps.graph.Coordinate;
+import huskymaps.graph.Node;
+import huskymaps.graph.StreetMapGraph;
+import huskymaps.utils.Constants;
+import pointsets.Point;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static huskymaps.utils.Constants.SNAP_CANDIDATES;
+import static huskymaps.utils.Constants.SNAP_COST_FACTOR;
+import static huskymaps.utils.Spatial.greatCircleDistance;
+import static huskymaps.utils.Spatial.projectToPoint;
+
+/**
+ * Checks for the contract of {@link Router#shortestPath}: a route may start and end at any of
+ * several candidate nodes, so a route is checked to be a real path between candidates that costs
+ * no more than a known route, such as the shortest path between the nodes closest to each end.
+ * A route may instead be the two nodes of the road both ends are closest to, driven straight
+ * along from one end's point on the road to the other's, which costs the walks to and from the
+ * road plus the part of the road driven.
+ *
+ * The candidates and their costs are worked out here by scanning every node and edge of the
+ * graph, not taken from the router, so that wrong snapping costs fail the check instead of
+ * shifting both sides of it.
+ */
+public abstract class BaseRouterTest extends BaseTest {
+    /**
+     * Asserts that actual is the route through the nodes with the given ids, unless it is a path
+     * between candidates that costs less with snapping, as the route between the nodes closest to
+     * each end may be improved on by starting or ending elsewhere.
+     */
+    protected void assertRecordedRouteUnlessCheaper(StreetMapGraph graph, Coordinate start, Coordinate end,
+                                                    List<Node> actual, Long... recordedIds) {
+        assertThat(actual).as("route from %s to %s", start, end).isNotEmpty();
+        Map<Node, Double> starts = expectedCandidates(graph, start, true);
+        Map<Node, Double> ends = expectedCandidates(graph, end, false);
+        double recordedCost = routeCost(graph, start, end, starts, ends, nodes(graph, recordedIds));
+        if (routeCost(graph, start, end, starts, ends, actual) < recordedCost - 1e-9) {
+            return;
+        }
+        assertThat(ids(actual)).as("route from %s to %s", start, end).containsExactly(recordedIds);
+    }
+
+    /**
+     * Asserts that actual is a path through graph from a candidate for start to a candidate for
+     * end, or a drive along the road both are closest to, costing, with snapping, no more than the
+     * route through the nodes with the given ids.
+     */
+    protected void assertRouteNoWorseThan(StreetMapGraph graph, Coordinate start, Coordinate end,
+                                          List<Node> actual, Long... expectedIds) {
+        assertThat(actual).as("route from %s to %s", start, end).isNotEmpty();
+        Map<Node, Double> starts = expectedCandidates(graph, start, true);
+        Map<Node, Double> ends = expectedCandidates(graph, end, false);
+        List<Node> expected = nodes(graph, expectedIds);
+        double actualCost = routeCost(graph, start, end, starts, ends, actual);
+        double expectedCost = routeCost(graph, start, end, starts, ends, expected);
+        assertThat(actualCost).as("cost of %s, known route %s", ids(actual), ids(expected))
+            .isLessThanOrEqualTo(expectedCost + 1e-9);
+    }
+
+    /**
+     * Returns the candidate nodes for a route end at c, each mapped to the cost of connecting it
+     * to c, as {@link DefaultRouter} documents them: the {@link Constants#SNAP_CANDIDATES} routable
+     * nodes nearest to c, at SNAP_COST_FACTOR times the walk to each, and, if the point of the
+     * nearest road closest to c lies strictly inside it, the node at each end of the road that
+     * can be driven to (for a start) or from (for an end) that point, at SNAP_COST_FACTOR times
+     * the walk to the point plus the drive.
+     */
+    protected static Map<Node, Double> expectedCandidates(StreetMapGraph graph, Coordinate c, boolean start) {
+        Point p = projectToPoint(c, Point::new);
+        List<Node> routable = new ArrayList<>();
+        for (Node node : graph.allNodes()) {
+            if (!graph.neighbors(node).isEmpty()) {
+                routable.add(node);
+            }
+        }
+        routable.sort(Comparator.comparingDouble(node -> p.distanceSquaredTo(projected(node))));
+        Map<Node, Double> candidates = new HashMap<>();
+        for (Node node : routable.subList(0, Math.min(SNAP_CANDIDATES, routable.size()))) {
+            candidates.put(node, SNAP_COST_FACTOR * greatCircleDistance(c, Coordinate.fromNode(node)));
+        }
+
+        RoadPoint road = nearestRoad(graph, c);
+        if (road == null || road.fraction <= 0 || road.fraction >= 1) {
+            return candidates;
+        }
+        Node from = road.edge.from();
+        Node to = road.edge.to();
+        double t = road.fraction;
+        double walk = road.walk;
+        // Either end can be reached along whichever directions of the road exist.
+        double forward = weight(graph, from, to);
+        double backward = weight(graph, to, from);
+        if (start) {
+            merge(candidates, to, walk + (1 - t) * forward);
+            merge(candidates, from, walk + t * backward);
+        } else {
+            merge(candidates, from, walk + t * forward);
+            merge(candidates, to, walk + (1 - t) * backward);
+        }
+        return candidates;
+    }
+
+    /** The point of the road closest to a coordinate, and the cost of walking there. */
+    private static class RoadPoint {
+        final WeightedEdge<Node> edge;
+        /** How far along the edge, from its from node (0) to its to node (1), the point is. */
+        final double fraction;
+        final double walk;
+
+        RoadPoint(WeightedEdge<Node> edge, double fraction, double walk) {
+            this.edge = edge;
+            this.fraction = fraction;
+            this.walk = walk;
+        }
+
+        /** Returns how far along the road from a to b the point is, or NaN if the road is not a-b. */
+        double fractionFrom(Node a, Node b) {
+            if (edge.from().equals(a) && edge.to().equals(b)) {
+                return fraction;
+            } else if (edge.from().equals(b) && edge.to().equals(a)) {
+                return 1 - fraction;
+            }
+            return Double.NaN;
+        }
+    }
+
+    /** Returns the point of the edge nearest to c, by a scan of every edge, or null if there are none. */
+    private static RoadPoint nearestRoad(StreetMapGraph graph, Coordinate c) {
+        Point p = projectToPoint(c, Point::new);
+        WeightedEdge<Node> nearest = null;
+        double nearestDistance = Double.POSITIVE_INFINITY;
+        double nearestFraction = 0;
+        for (Node node : graph.allNodes()) {
+            for (WeightedEdge<Node> edge : graph.neighbors(node)) {
+                Point a = projected(edge.from());
+                Point b = projected(edge.to());
+                double dx = b.x() - a.x();
+                double dy = b.y() - a.y();
+                double t = dx == 0 && dy == 0 ? 0
+                    : ((p.x() - a.x()) * dx + (p.y() - a.y()) * dy) / (dx * dx + dy * dy);
+                t = Math.max(0, Math.min(1, t));
+                double distance = p.distanceSquaredTo(new Point(a.x() + t * dx, a.y() + t * dy));
+                if (distance < nearestDistance) {
+                    nearest = edge;
+                    nearestDistance = distance;
+                    nearestFraction = t;
+                }
+            }
+        }
+        if (nearest == null) {
+            return null;
+        }
+        Node from = nearest.from();
+        Node to = nearest.to();
+        double t = nearestFraction;
+        Coordinate onRoad = new Coordinate(from.lat() + t * (to.lat() - from.lat()),
+            from.lon() + t * (to.lon() - from.lon()));
+        return new RoadPoint(nearest, t, SNAP_COST_FACTOR * greatCircleDistance(c, onRoad));
+    }
+
+    private static Point projected(Node node) {
+        return projectToPoint(Coordinate.fromNode(node), Point::new);
+    }
+
+    private static void merge(Map<Node, Double> candidates, Node node, double cost) {
+        if (cost < Double.POSITIVE_INFINITY) {
+            candidates.merge(node, cost, Math::min);
+        }
+    }
+
+    /** Returns the weight of the lightest edge from a to b, or infinity if there is none. */
+    private static double weight(StreetMapGraph graph, Node a, Node b) {
+        double weight = Double.POSITIVE_INFINITY;
+        for (WeightedEdge<Node> edge : graph.neighbors(a)) {
+            if (edge.to().equals(b)) {
+                weight = Math.min(weight, edge.weight());
+            }
+        }
+        return weight;
+    }
+
+    /**
+     * Returns the cost of driving straight along the road both start and end are closest to, if
+     * route is that road's two nodes in the direction driven, or infinity otherwise.
+     */
+    private static double costAlongRoad(StreetMapGraph graph, Coordinate start, Coordinate end, List<Node> route) {
+        if (route.size() != 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+        Node a = route.get(0);
+        Node b = route.get(1);
+        RoadPoint startRoad = nearestRoad(graph, start);
+        RoadPoint endRoad = nearestRoad(graph, end);
+        double startFraction = startRoad.fractionFrom(a, b);
+        double endFraction = endRoad.fractionFrom(a, b);
+        // NaN, for a road other than a-b, fails this comparison too.
+        if (!(startFraction <= endFraction)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return startRoad.walk + endRoad.walk + (endFraction - startFraction) * weight(graph, a, b);
+    }
+
+    /**
+     * Returns the cost of the route with snapping, asserting that it is a path between candidates
+     * unless it is a drive along the road both ends are closest to.
+     */
+    private static double routeCost(StreetMapGraph graph, Coordinate start, Coordinate end,
+                                    Map<Node, Double> starts, Map<Node, Double> ends, List<Node> route) {
+        Node first = route.get(0);
+        Node last = route.get(route.size() - 1);
+        double along = costAlongRoad(graph, start, end, route);
+        if (along < Double.POSITIVE_INFINITY && !(starts.containsKey(first) && ends.containsKey(last))) {
+            return along;
+        }
+        assertThat(starts).as("start candidates").containsKey(first);
+        assertThat(ends).as("end candidates").containsKey(last);
+        double cost = starts.get(first) + ends.get(last);
+        for (int i = 0; i + 1 < route.size(); i += 1) {
+            double weight = weight(graph, route.get(i), route.get(i + 1));
+            assertThat(weight).as("edge from %s to %s", route.get(i).id(), route.get(i + 1).id())
+                .isLessThan(Double.POSITIVE_INFINITY);
+            cost += weight;
+        }
+        return Math.min(cost, along);
+    }
+
+    private static List<Node> nodes(StreetMapGraph graph, Long... ids) {
+        Map<Long, Node> byId = new HashMap<>();
+        for (Node node : graph.allNodes()) {
+            byId.put(node.id(), node);
+        }
+        List<Node> nodes = new ArrayList<>();
+        for (long id : ids) {
+            nodes.add(byId.get(id));
+        }
+        return nodes;
+    }
+
+    /** A street map graph built by hand, node by node and road by road. */
+    protected static class TestGraph extends StreetMapGraph {
+        private long nextId = 1;
+
+        /** Adds and returns a new node at the given coordinate. */
+        public Node node(double lat, double lon) {
+            Node node = new TestNode(nextId, lat, lon);
+            nextId += 1;
+            addNode(node);
+            return node;
+        }
+
+        /** Adds a two-way road between a and b. */
+        public void road(Node a, Node b) {
+            addWeightedEdge(a, b, null);
+            addWeightedEdge(b, a, null);
+        }
+
+        /** Adds a one-way road from a to b. */
+        public void oneWay(Node a, Node b) {
+            addWeightedEdge(a, b, null);
+        }
+    }
+
+    protected static class TestNode extends Node {
+        public TestNode(long id, double lat, double lon) {
+            super(id, lat, lon, null, 0);
+        }
+    }
+
+    private static List<Long> ids(List<Node> route) {
+        List<Long> ids = new ArrayList<>();
+        for (Node node : route) {
+            ids.add(node.id());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,149 @@
+package huskymaps.routing;
+
+import huskymaps.graph.Coordinate;
+import huskymaps.graph.Node;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static huskymaps.utils.Constants.SNAP_CANDIDATES;
+import static huskymaps.utils.Constants.SNAP_COST_FACTOR;
+import static huskymaps.utils.Spatial.greatCircleDistance;
+
+/** Routes on small hand-built graphs, for how route ends are snapped to the road network. */
+public class RouterSnappingTests extends BaseRouterTest {
+    @Test
+    void shortestPath_whenClosestNodeIsOnIsland_startsFromConnectedNode() {
+        TestGraph graph = new TestGraph();
+        Node a = graph.node(47.600, -122.300);
+        Node b = graph.node(47.600, -122.290);
+        Node c = graph.node(47.600, -122.280);
+        graph.road(a, b);
+        graph.road(b, c);
+        // A short road that nothing else connects to, right next to the start.
+        Node island1 = graph.node(47.6010, -122.2905);
+        Node island2 = graph.node(47.6011, -122.2904);
+        graph.road(island1, island2);
+
+        Coordinate start = new Coordinate(47.6009, -122.2906);
+        Coordinate end = Coordinate.fromNode(c);
+        DefaultRouter router = new DefaultRouter(graph);
+        List<Node> actual = router.shortestPath(start, end);
+        assertThat(actual.get(0)).isEqualTo(b);
+        assertRouteNoWorseThan(graph, start, end, actual, b.id(), c.id());
+    }
+
+    @Test
+    void shortestPath_whenStartIsMidBlock_drivesAlongBlock() {
+        TestGraph graph = new TestGraph();
+        Node a = graph.node(47.600, -122.300);
+        Node b = graph.node(47.600, -122.280);
+        Node c = graph.node(47.600, -122.270);
+        graph.road(a, b);
+        graph.road(b, c);
+        // A side street whose corner node is closer to the start than either end of the block.
+        Node corner = graph.node(47.6012, -122.290);
+        Node west = graph.node(47.6012, -122.300);
+        graph.road(corner, west);
+        graph.road(west, a);
+
+        Coordinate start = new Coordinate(47.6005, -122.290);
+        Coordinate end = Coordinate.fromNode(c);
+        DefaultRouter router = new DefaultRouter(graph);
+        assertThat(router.closestEdge(start).from()).isIn(a, b);
+        List<Node> actual = router.shortestPath(start, end);
+        assertThat(actual).containsExactly(b, c);
+        assertRouteNoWorseThan(graph, start, end, actual, b.id(), c.id());
+    }
+
+    @Test
+    void snapCandidates_whenStartIsMidBlock_costsWalkToBlockPlusDriveAlongIt() {
+        TestGraph graph = new TestGraph();
+        Node a = graph.node(47.600, -122.300);
+        Node b = graph.node(47.600, -122.280);
+        Node c = graph.node(47.600, -122.270);
+        graph.road(a, b);
+        graph.road(b, c);
+        Node corner = graph.node(47.6012, -122.290);
+        Node west = graph.node(47.6012, -122.300);
+        graph.road(corner, west);
+        graph.road(west, a);
+
+        Coordinate start = new Coordinate(47.6005, -122.290);
+        Coordinate midBlock = new Coordinate(47.600, -122.290);
+        double walkToBlock = SNAP_COST_FACTOR * greatCircleDistance(start, midBlock);
+        double halfBlock = greatCircleDistance(Coordinate.fromNode(a), Coordinate.fromNode(b)) / 2;
+        DefaultRouter router = new DefaultRouter(graph);
+        Map<Node, Double> candidates = router.snapCandidates(start, true);
+        // The four nearest nodes, with a and b cheaper by driving half the block than by walking.
+        assertThat(candidates).containsOnlyKeys(corner, a, b, west);
+        assertThat(candidates.get(corner))
+            .isCloseTo(SNAP_COST_FACTOR * greatCircleDistance(start, Coordinate.fromNode(corner)), within(1e-6));
+        assertThat(candidates.get(west))
+            .isCloseTo(SNAP_COST_FACTOR * greatCircleDistance(start, Coordinate.fromNode(west)), within(1e-6));
+        assertThat(candidates.get(a)).isCloseTo(walkToBlock + halfBlock, within(1e-6));
+        assertThat(candidates.get(b)).isCloseTo(walkToBlock + halfBlock, within(1e-6));
+        assertThat(candidates).isEqualTo(expectedCandidates(graph, start, true));
+    }
+
+    @Test
+    void shortestPath_whenBothEndsAreOnOneRoad_staysOnRoad() {
+        TestGraph graph = new TestGraph();
+        Node a = graph.node(47.600, -122.300);
+        Node b = graph.node(47.600, -122.280);
+        Node c = graph.node(47.600, -122.270);
+        graph.road(a, b);
+        graph.road(b, c);
+        // A parallel street a block north, whose nodes are all closer to both ends than a and b.
+        Node[] north = new Node[19];
+        for (int i = 0; i < north.length; i += 1) {
+            north[i] = graph.node(47.6008, -122.299 + 0.001 * i);
+            if (i > 0) {
+                graph.road(north[i - 1], north[i]);
+            }
+        }
+        graph.road(a, north[0]);
+        graph.road(north[north.length - 1], b);
+
+        Coordinate west = new Coordinate(47.6001, -122.296);
+        Coordinate east = new Coordinate(47.6001, -122.286);
+        // Neither end of the block is among the nearest nodes; both are candidates only as the
+        // ends of the nearest road.
+        assertThat(expectedCandidates(graph, west, true)).hasSize(SNAP_CANDIDATES + 2);
+        assertThat(expectedCandidates(graph, east, false)).hasSize(SNAP_CANDIDATES + 2);
+        Long[] northward = new Long[11];
+        Long[] southward = new Long[11];
+        for (int i = 0; i < northward.length; i += 1) {
+            northward[i] = north[3 + i].id();
+            southward[i] = north[13 - i].id();
+        }
+        DefaultRouter router = new DefaultRouter(graph);
+        List<Node> eastbound = router.shortestPath(west, east);
+        assertThat(eastbound).containsExactly(a, b);
+        assertRouteNoWorseThan(graph, west, east, eastbound, northward);
+        List<Node> westbound = router.shortestPath(east, west);
+        assertThat(westbound).containsExactly(b, a);
+        assertRouteNoWorseThan(graph, east, west, westbound, southward);
+    }
+
+    @Test
+    void shortestPath_whenOneWayRoadLeadsAway_goesAroundBlock() {
+        TestGraph graph = new TestGraph();
+        Node a = graph.node(47.600, -122.300);
+        Node b = graph.node(47.600, -122.280);
+        Node d = graph.node(47.602, -122.280);
+        Node e = graph.node(47.602, -122.300);
+        graph.oneWay(a, b);
+        graph.road(b, d);
+        graph.road(d, e);
+        graph.road(e, a);
+
+        Coordinate start = new Coordinate(47.6001, -122.286);
+        Coordinate end = new Coordinate(47.6001, -122.296);
+        DefaultRouter router = new DefaultRouter(graph);
+        List<Node> actual = router.shortestPath(start, end);
+        assertThat(actual).containsExactly(b, d, e, a);
+        assertRouteNoWorseThan(graph, start, end, actual, b.id(), d.id(), e.id(), a.id());
+    }
+}
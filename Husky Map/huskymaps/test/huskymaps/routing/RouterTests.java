@@ -3,7 +3,6 @@ package huskymaps.routing;
 import com.google.gson.FieldNamingPolicy;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import edu.washington.cse373.BaseTest;
 import huskymaps.graph.Coordinate;
 import huskymaps.graph.Node;
 import huskymaps.graph.StreetMapGraph;
@@ -22,10 +21,11 @@ import static huskymaps.TestConstants.TEST_DATA_ROOT;
 import static huskymaps.utils.Constants.OSM_GZ_RESOURCE_NAME;
 import static huskymaps.utils.Constants.PLACES_RESOURCE_NAME;
 /**
- * Some randomly-generated test cases for Router.
+ * Some randomly-generated test cases for Router. Each result is the shortest path between the
+ * nodes closest to the request's ends, which a route must match unless snapping finds a cheaper one.
  */
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
-public class RouterTests extends BaseTest {
+public class RouterTests extends BaseRouterTest {
     private static final Path RASTERER_FILES_DIR = TEST_DATA_ROOT.resolve("router");
     private static final String REQUEST_FORMAT = "request%d.json";
     private static final String RESULT_FORMAT = "result%d.json";
@@ -54,10 +54,11 @@ public class RouterTests extends BaseTest {
             request = loadRequest(i);
             Coordinate start = new Coordinate(request.startLat, request.startLon);
             Coordinate end = new Coordinate(request.endLat, request.endLon);
-            List<Node> actual = new DefaultRouter(this.graph).shortestPath(start, end);
+            DefaultRouter router = new DefaultRouter(this.graph);
+            List<Node> actual = router.shortestPath(start, end);
             Long[] expected;
             expected = loadResult(i);
-            assertThat(actual).extracting(Node::id).containsExactly(expected);
+            assertRecordedRouteUnlessCheaper(this.graph, start, end, actual, expected);
         }
     }
 
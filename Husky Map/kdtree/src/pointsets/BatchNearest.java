@@ -0,0 +1,141 @@
+package pointsets;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * Answers a batch of nearest-point queries in parallel, for {@link PointSet#nearestAll}.
+ *
+ * Queries are first sorted along a Hilbert curve through their bounding box, so that queries
+ * answered one after another are close together and mostly visit the same parts of the point
+ * set, which are then still in cache. The sorted queries are split into contiguous runs that a
+ * ForkJoinPool answers in parallel, each writing its answers straight into the result array.
+ * Each run gets its own Query, which may keep scratch space from one query to the next.
+ */
+final class BatchNearest {
+    /** The number of queries below which a run is answered by one task rather than split. */
+    private static final int RUN_LENGTH = 1 << 11;
+    /**
+     * Each coordinate is scaled to this many bits for its position along the Hilbert curve, which
+     * then fits in 30 bits, so that sort keys stay positive.
+     */
+    private static final int HILBERT_BITS = 15;
+
+    private BatchNearest() {
+    }
+
+    /** Returns the id of the point nearest to (x, y). Only called by one thread at a time. */
+    interface Query {
+        int nearestId(double x, double y);
+    }
+
+    /**
+     * Returns, for each i, the answer for (xs[i], ys[i]) of a Query from queries, which is asked
+     * for a new Query once per run of up to RUN_LENGTH queries.
+     *
+     * @throws IllegalArgumentException if xs and ys have different lengths
+     */
+    static int[] nearestAll(double[] xs, double[] ys, Supplier<? extends Query> queries) {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("Need as many y coordinates as x coordinates");
+        }
+        int[] order = hilbertOrder(xs, ys);
+        int[] result = new int[xs.length];
+        ForkJoinPool.commonPool().invoke(new Run(xs, ys, queries, order, result, 0, order.length));
+        return result;
+    }
+
+    /** Returns the indices of the queries, sorted along a Hilbert curve through their bounding box. */
+    private static int[] hilbertOrder(double[] xs, double[] ys) {
+        int n = xs.length;
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i += 1) {
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        int last = (1 << HILBERT_BITS) - 1;
+        double scaleX = maxX > minX ? last / (maxX - minX) : 0;
+        double scaleY = maxY > minY ? last / (maxY - minY) : 0;
+        // Each key holds the query's position along the curve above its index, so sorting the
+        // keys sorts the indices without allocating an object per query.
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i += 1) {
+            int x = (int) ((xs[i] - minX) * scaleX);
+            int y = (int) ((ys[i] - minY) * scaleY);
+            keys[i] = (long) hilbertIndex(x, y) << 32 | i;
+        }
+        Arrays.parallelSort(keys);
+        int[] order = new int[n];
+        for (int i = 0; i < n; i += 1) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    /** Returns the position of (x, y) along a Hilbert curve filling a 2^HILBERT_BITS square. */
+    static int hilbertIndex(int x, int y) {
+        int side = 1 << HILBERT_BITS;
+        int index = 0;
+        for (int s = side / 2; s > 0; s >>>= 1) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            index += s * s * ((3 * rx) ^ ry);
+            // Rotate the quadrant so that the curve inside it runs the right way.
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = side - 1 - x;
+                    y = side - 1 - y;
+                }
+                int temp = x;
+                x = y;
+                y = temp;
+            }
+        }
+        return index;
+    }
+
+    /** Answers the queries order[from, to), splitting them among tasks if there are many. */
+    private static class Run extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final double[] xs;
+        private final double[] ys;
+        private final transient Supplier<? extends Query> queries;
+        private final int[] order;
+        private final int[] result;
+        private final int from;
+        private final int to;
+
+        Run(double[] xs, double[] ys, Supplier<? extends Query> queries, int[] order, int[] result,
+            int from, int to) {
+            this.xs = xs;
+            this.ys = ys;
+            this.queries = queries;
+            this.order = order;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= RUN_LENGTH) {
+                Query query = queries.get();
+                for (int i = from; i < to; i += 1) {
+                    int q = order[i];
+                    result[q] = query.nearestId(xs[q], ys[q]);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Run(xs, ys, queries, order, result, from, middle),
+                new Run(xs, ys, queries, order, result, middle, to));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package pointsets;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Churns a {@link DynamicKDTreePointSet} through millions of updates, each deleting a random
+ * point and inserting a new one, and after every round of updates reports its nearest-query
+ * latency next to that of a KDTreePointSet freshly built from the same points.
+ *
+ * Half of the new points are drawn near a hotspot that drifts across the map, like POIs opening
+ * in one neighborhood after another, so that without rebalancing the tree would grow lopsided.
+ */
+public class DynamicKDTreeBenchmark {
+    private static final int POINTS = 200_000;
+    private static final int ROUNDS = 10;
+    private static final int UPDATES_PER_ROUND = 500_000;
+    private static final int QUERIES = 100_000;
+    private static final int TIMED_RUNS = 5;
+    private static final double SIDE = 1_000;
+
+    public static void main(String[] args) {
+        Random random = new Random(373);
+        List<Point> live = new ArrayList<>(POINTS);
+        for (int i = 0; i < POINTS; i += 1) {
+            live.add(new Point(random.nextDouble() * SIDE, random.nextDouble() * SIDE));
+        }
+        DynamicKDTreePointSet<Point> dynamic = new DynamicKDTreePointSet<>(live);
+        double[] queries = new double[2 * QUERIES];
+        for (int i = 0; i < queries.length; i += 1) {
+            queries[i] = random.nextDouble() * SIDE;
+        }
+
+        System.out.printf("%8s %12s %10s %12s %8s %12s%n", "updates", "update ns", "query ns",
+            "fresh query", "height", "tombstones");
+        report(0, 0, dynamic, live, queries);
+        long updates = 0;
+        for (int round = 1; round <= ROUNDS; round += 1) {
+            long start = System.nanoTime();
+            for (int i = 0; i < UPDATES_PER_ROUND; i += 1) {
+                // Remove a random point by swapping it with the last one.
+                int victim = random.nextInt(live.size());
+                Point removed = live.get(victim);
+                live.set(victim, live.get(live.size() - 1));
+                live.remove(live.size() - 1);
+                dynamic.delete(removed);
+
+                Point added = newPoint(random, updates + i);
+                live.add(added);
+                dynamic.insert(added);
+            }
+            double updateNanos = (double) (System.nanoTime() - start) / UPDATES_PER_ROUND;
+            updates += UPDATES_PER_ROUND;
+            report(updates, updateNanos, dynamic, live, queries);
+        }
+    }
+
+    /** Returns a new point, half the time near a hotspot that circles the map as updates go on. */
+    private static Point newPoint(Random random, long update) {
+        if (random.nextBoolean()) {
+            return new Point(random.nextDouble() * SIDE, random.nextDouble() * SIDE);
+        }
+        double angle = 2 * Math.PI * update / (ROUNDS * UPDATES_PER_ROUND);
+        double x = SIDE / 2 + SIDE / 3 * Math.cos(angle) + random.nextGaussian() * SIDE / 50;
+        double y = SIDE / 2 + SIDE / 3 * Math.sin(angle) + random.nextGaussian() * SIDE / 50;
+        return new Point(x, y);
+    }
+
+    private static void report(long updates, double updateNanos, DynamicKDTreePointSet<Point> dynamic,
+                               List<Point> live, double[] queries) {
+        KDTreePointSet<Point> fresh = KDTreePointSet.createAfterShuffling(new ArrayList<>(live));
+        System.out.printf("%8d %12.1f %10.1f %12.1f %8d %12d%n", updates, updateNanos,
+            queryNanos(dynamic, queries), queryNanos(fresh, queries), dynamic.height(),
+            dynamic.tombstones());
+    }
+
+    /** Returns the median time of a nearest query over several runs, in nanoseconds. */
+    private static double queryNanos(PointSet<Point> points, double[] queries) {
+        double checksum = 0;
+        double[] nanos = new double[TIMED_RUNS];
+        for (int run = 0; run < TIMED_RUNS; run += 1) {
+            long start = System.nanoTime();
+            for (int i = 0; i < queries.length; i += 2) {
+                checksum += points.nearest(queries[i], queries[i + 1]).x();
+            }
+            nanos[run] = (double) (System.nanoTime() - start) / QUERIES;
+        }
+        if (checksum == 0) {
+            System.out.println("(no points)");
+        }
+        Arrays.sort(nanos);
+        return nanos[TIMED_RUNS / 2];
+    }
+}
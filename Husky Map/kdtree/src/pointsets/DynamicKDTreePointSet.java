@@ -0,0 +1,407 @@
+package pointsets;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * A k-d tree that, unlike KDTreePointSet, supports inserting and deleting points after it is
+ * built, while keeping queries O(log N) however long it is updated.
+ *
+ * Balance is kept scapegoat style: when an insertion lands deeper than the tree's size allows,
+ * the nearest ancestor whose subtree is unevenly weighted is rebuilt around medians. Deleted
+ * points stay in the tree as tombstones, still guiding searches, until more than half of the
+ * tree is tombstones; then the whole tree is rebuilt from the live points. Both kinds of rebuild
+ * take amortized O(log N) time per update.
+ *
+ * Points left of (or below) a node's split are less than it, and the rest are greater or equal.
+ */
+public class DynamicKDTreePointSet<T extends Point> implements PointSet<T> {
+    /** A subtree is unbalanced if one child holds more than this fraction of its nodes. */
+    private static final double ALPHA = 0.7;
+
+    private Node<T> root = null;
+    /** The number of live points, and the number of tombstones. */
+    private int size = 0;
+    private int deleted = 0;
+    /** The nodes on the path of the last insertion, root first. */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Node<T>[] path = (Node<T>[]) new Node[64];
+
+    private static class Node<T extends Point> {
+        T value;
+        double x;
+        double y;
+        boolean splitsOnX;
+        boolean deleted = false;
+        /** The number of nodes in this subtree, tombstones included. */
+        int nodes = 1;
+        Node<T> left = null;
+        Node<T> right = null;
+
+        Node(T value, boolean splitsOnX) {
+            this.value = value;
+            this.x = value.x();
+            this.y = value.y();
+            this.splitsOnX = splitsOnX;
+        }
+
+        double key() {
+            return splitsOnX ? x : y;
+        }
+    }
+
+    /** Creates an empty point set. */
+    public DynamicKDTreePointSet() {
+    }
+
+    /** Creates a point set of the given points, built balanced in O(N log N) time. */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public DynamicKDTreePointSet(List<T> points) {
+        Node<T>[] nodes = (Node<T>[]) new Node[points.size()];
+        for (int i = 0; i < nodes.length; i += 1) {
+            nodes[i] = new Node<>(points.get(i), true);
+        }
+        root = build(nodes, 0, nodes.length, true);
+        size = nodes.length;
+    }
+
+    /** Returns the number of points in this set. */
+    public int size() {
+        return size;
+    }
+
+    /** Returns the height of the tree, tombstones included; 0 if it is empty. */
+    int height() {
+        return height(root);
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : 1 + Math.max(height(node.left), height(node.right));
+    }
+
+    /** Returns the number of deleted points still kept in the tree. */
+    int tombstones() {
+        return deleted;
+    }
+
+    /** Returns the greatest depth an insertion may reach in a tree of the given number of nodes. */
+    private static int maxDepth(int nodes) {
+        return (int) (Math.log(nodes) / Math.log(1 / ALPHA)) + 1;
+    }
+
+    private static int nodes(Node<?> node) {
+        return node == null ? 0 : node.nodes;
+    }
+
+    /**
+     * Adds a point to this set in amortized O(log N) time. Equal points may be added more than
+     * once, and are then kept as separate entries.
+     */
+    public void insert(T point) {
+        if (root == null) {
+            root = new Node<>(point, true);
+            size += 1;
+            return;
+        }
+        int depth = 0;
+        Node<T> current = root;
+        while (true) {
+            if (depth == path.length) {
+                path = Arrays.copyOf(path, 2 * depth);
+            }
+            path[depth] = current;
+            depth += 1;
+            current.nodes += 1;
+            double key = current.splitsOnX ? point.x() : point.y();
+            Node<T> next = key < current.key() ? current.left : current.right;
+            if (next == null) {
+                Node<T> added = new Node<>(point, !current.splitsOnX);
+                if (key < current.key()) {
+                    current.left = added;
+                } else {
+                    current.right = added;
+                }
+                break;
+            }
+            current = next;
+        }
+        size += 1;
+        if (depth > maxDepth(root.nodes)) {
+            rebalance(depth);
+        }
+    }
+
+    /**
+     * Rebuilds the lowest unbalanced ancestor on the last insertion's path, of which there must
+     * be one if the insertion went too deep.
+     */
+    private void rebalance(int depth) {
+        for (int i = depth - 1; i >= 0; i -= 1) {
+            Node<T> node = path[i];
+            if (Math.max(nodes(node.left), nodes(node.right)) > ALPHA * node.nodes) {
+                int before = node.nodes;
+                Node<T> rebuilt = rebuild(node);
+                replace(i, rebuilt, before - nodes(rebuilt));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Replaces the subtree at path[i] with the given rebuilt subtree, and corrects the counts of
+     * its ancestors for the tombstones it dropped.
+     */
+    private void replace(int i, Node<T> rebuilt, int dropped) {
+        Node<T> old = path[i];
+        if (i == 0) {
+            root = rebuilt;
+            return;
+        }
+        Node<T> parent = path[i - 1];
+        if (parent.left == old) {
+            parent.left = rebuilt;
+        } else {
+            parent.right = rebuilt;
+        }
+        for (int j = i - 1; j >= 0; j -= 1) {
+            path[j].nodes -= dropped;
+        }
+    }
+
+    /**
+     * Removes the given point from this set in O(log N) time (amortized, since it may compact the
+     * tree). Returns true if it was found. Points are matched by identity, not equals, so that of
+     * several equal points only the given one is removed.
+     */
+    public boolean delete(Point point) {
+        Node<T> current = root;
+        while (current != null) {
+            if (!current.deleted && current.value == point) {
+                current.deleted = true;
+                current.value = null;
+                size -= 1;
+                deleted += 1;
+                if (deleted > size) {
+                    compact();
+                }
+                return true;
+            }
+            double key = current.splitsOnX ? point.x() : point.y();
+            current = key < current.key() ? current.left : current.right;
+        }
+        return false;
+    }
+
+    /** Rebuilds the whole tree from its live points, dropping every tombstone. */
+    private void compact() {
+        root = root == null ? null : rebuild(root);
+        deleted = 0;
+    }
+
+    /** Rebuilds the subtree at node, balanced and without tombstones; returns its new root. */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Node<T> rebuild(Node<T> node) {
+        Node<T>[] live = (Node<T>[]) new Node[node.nodes];
+        int count = collectLive(node, live, 0);
+        deleted -= node.nodes - count;
+        return build(live, 0, count, node.splitsOnX);
+    }
+
+    private static <T extends Point> int collectLive(Node<T> node, Node<T>[] out, int count) {
+        if (node == null) {
+            return count;
+        }
+        count = collectLive(node.left, out, count);
+        if (!node.deleted) {
+            out[count] = node;
+            count += 1;
+        }
+        return collectLive(node.right, out, count);
+    }
+
+    /** Links nodes[from, to) into a balanced subtree and returns its root. */
+    private static <T extends Point> Node<T> build(Node<T>[] nodes, int from, int to, boolean splitsOnX) {
+        if (from >= to) {
+            return null;
+        }
+        int median = partition(nodes, from, to, splitsOnX);
+        Node<T> node = nodes[median];
+        node.splitsOnX = splitsOnX;
+        node.left = build(nodes, from, median, !splitsOnX);
+        node.right = build(nodes, median + 1, to, !splitsOnX);
+        node.nodes = to - from;
+        return node;
+    }
+
+    /**
+     * Puts the median node of nodes[from, to) in its sorted place, after every node with a
+     * smaller key and before the rest, and returns that place. Nodes with the same key as the
+     * median are all put after it, so that they can be found by following the insertion rule.
+     */
+    private static <T extends Point> int partition(Node<T>[] nodes, int from, int to, boolean splitsOnX) {
+        int low = from;
+        int high = to - 1;
+        int k = (from + to) >>> 1;
+        while (low < high) {
+            double pivot = key(nodes[(low + high) >>> 1], splitsOnX);
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (key(nodes[i], splitsOnX) < pivot) {
+                    i += 1;
+                }
+                while (key(nodes[j], splitsOnX) > pivot) {
+                    j -= 1;
+                }
+                if (i <= j) {
+                    swap(nodes, i, j);
+                    i += 1;
+                    j -= 1;
+                }
+            }
+            if (k <= j) {
+                high = j;
+            } else if (k >= i) {
+                low = i;
+            } else {
+                break;
+            }
+        }
+        double median = key(nodes[k], splitsOnX);
+        int smaller = from;
+        for (int i = from; i < k; i += 1) {
+            if (key(nodes[i], splitsOnX) < median) {
+                swap(nodes, i, smaller);
+                smaller += 1;
+            }
+        }
+        swap(nodes, smaller, k);
+        return smaller;
+    }
+
+    private static double key(Node<?> node, boolean splitsOnX) {
+        return splitsOnX ? node.x : node.y;
+    }
+
+    private static <T extends Point> void swap(Node<T>[] nodes, int i, int j) {
+        Node<T> temp = nodes[i];
+        nodes[i] = nodes[j];
+        nodes[j] = temp;
+    }
+
+    /**
+     * Returns the point in this set closest to the given point in O(log N) time on typical data.
+     * @throws NoSuchElementException if the set is empty
+     */
+    @Override
+    public T nearest(Point target) {
+        if (size == 0) {
+            throw new NoSuchElementException("Point set can't be empty");
+        }
+        return nearestRec(root, target.x(), target.y(), null).value;
+    }
+
+    private Node<T> nearestRec(Node<T> current, double x, double y, Node<T> best) {
+        if (current == null) {
+            return best;
+        }
+        double bestDistance = best == null ? Double.POSITIVE_INFINITY : distance(best, x, y);
+        if (!current.deleted && distance(current, x, y) < bestDistance) {
+            best = current;
+            bestDistance = distance(current, x, y);
+        }
+        double offset = current.splitsOnX ? x - current.x : y - current.y;
+        best = nearestRec(offset < 0 ? current.left : current.right, x, y, best);
+        if (best == null || offset * offset < distance(best, x, y)) {
+            best = nearestRec(offset < 0 ? current.right : current.left, x, y, best);
+        }
+        return best;
+    }
+
+    private static double distance(Node<?> node, double x, double y) {
+        double dx = node.x - x;
+        double dy = node.y - y;
+        return dx * dx + dy * dy;
+    }
+
+    /** Returns the k points in this set closest to the given point, nearest first. */
+    @Override
+    public List<T> kNearest(Point target, int k) {
+        NearestPoints<T> nearest = new NearestPoints<>(Math.min(k, size));
+        if (k > 0) {
+            kNearestRec(root, target.x(), target.y(), nearest);
+        }
+        return nearest.toList();
+    }
+
+    private void kNearestRec(Node<T> current, double x, double y, NearestPoints<T> nearest) {
+        if (current == null) {
+            return;
+        }
+        if (!current.deleted) {
+            nearest.offer(current.value, distance(current, x, y));
+        }
+        double offset = current.splitsOnX ? x - current.x : y - current.y;
+        kNearestRec(offset < 0 ? current.left : current.right, x, y, nearest);
+        if (offset * offset < nearest.bound()) {
+            kNearestRec(offset < 0 ? current.right : current.left, x, y, nearest);
+        }
+    }
+
+    @Override
+    public void rangeQuery(double minX, double minY, double maxX, double maxY,
+                           Consumer<? super T> action) {
+        searchRec(root, new Region.Rectangle(minX, minY, maxX, maxY), Double.NEGATIVE_INFINITY,
+            Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, action);
+    }
+
+    /** @throws IllegalArgumentException if radius is negative or NaN */
+    @Override
+    public void withinRadius(Point target, double radius, Consumer<? super T> action) {
+        searchRec(root, Region.disc(target, radius), Double.NEGATIVE_INFINITY,
+            Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, action);
+    }
+
+    private void searchRec(Node<T> current, Region region, double minX, double minY, double maxX,
+                           double maxY, Consumer<? super T> action) {
+        if (current == null || !region.intersects(minX, minY, maxX, maxY)) {
+            return;
+        }
+        if (region.covers(minX, minY, maxX, maxY)) {
+            reportAll(current, action);
+            return;
+        }
+        if (!current.deleted && region.contains(current.x, current.y)) {
+            action.accept(current.value);
+        }
+        if (current.splitsOnX) {
+            searchRec(current.left, region, minX, minY, current.x, maxY, action);
+            searchRec(current.right, region, current.x, minY, maxX, maxY, action);
+        } else {
+            searchRec(current.left, region, minX, minY, maxX, current.y, action);
+            searchRec(current.right, region, minX, current.y, maxX, maxY, action);
+        }
+    }
+
+    private void reportAll(Node<T> current, Consumer<? super T> action) {
+        if (current == null) {
+            return;
+        }
+        if (!current.deleted) {
+            action.accept(current.value);
+        }
+        reportAll(current.left, action);
+        reportAll(current.right, action);
+    }
+
+    /** Returns a new list of the points in this set, in O(N) time. */
+    @Override
+    public List<T> allPoints() {
+        List<T> points = new ArrayList<>(size);
+        reportAll(root, points::add);
+        return points;
+    }
+}
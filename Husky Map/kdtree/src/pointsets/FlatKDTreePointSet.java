@@ -0,0 +1,377 @@
+package pointsets;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Nearest-neighbor implementation using a perfectly balanced k-d tree, built in one pass and
+ * stored in flat arrays.
+ *
+ * The tree is built by splitting on the median point of each subtree, chosen by quickselect, and
+ * is laid out like a binary heap: the children of node i are nodes 2i + 1 and 2i + 2, with every
+ * level full except the last, which is filled from the left. Each node is just its coordinates
+ * and the id of its point, kept in primitive arrays in that order, so a query walks down arrays
+ * rather than chasing Node objects, and the tree's height is always floor(log2 N).
+ *
+ * A point's id is its index in {@link #allPoints()}, the order the points were given in. Queries
+ * that return ids (nearestId, kNearestIds, rangeQueryIds and withinRadiusIds) never touch the
+ * point objects; {@link #point(int)} resolves an id only when the caller needs the point.
+ *
+ * Returns the same nearest points as KDTreePointSet, though when several points are equally
+ * close it may pick a different one of them.
+ */
+public class FlatKDTreePointSet<T extends Point> implements PointSet<T> {
+    private final List<T> points;
+    /** The coordinates and ids of the points, in tree order. */
+    private final double[] xs;
+    private final double[] ys;
+    private final int[] ids;
+    private final int height;
+
+    /**
+     * Instantiates a new FlatKDTreePointSet with the given points in O(N log N) time.
+     *
+     * @param points a non-null, non-empty list of points to include
+     */
+    public FlatKDTreePointSet(List<T> points) {
+        if (points == null || points.isEmpty()) {
+            throw new IllegalArgumentException("List of points can't be null or empty");
+        }
+        this.points = new ArrayList<>(points);
+        int n = points.size();
+        xs = new double[n];
+        ys = new double[n];
+        ids = new int[n];
+        height = 31 - Integer.numberOfLeadingZeros(n);
+
+        int[] order = new int[n];
+        double[] px = new double[n];
+        double[] py = new double[n];
+        for (int i = 0; i < n; i += 1) {
+            order[i] = i;
+            px[i] = points.get(i).x();
+            py[i] = points.get(i).y();
+        }
+        build(0, order, 0, n, px, py);
+    }
+
+    /** Returns true if nodes at the given tree index split on x, false if they split on y. */
+    private static boolean splitsOnX(int index) {
+        return ((31 - Integer.numberOfLeadingZeros(index + 1)) & 1) == 0;
+    }
+
+    /**
+     * Returns how many of size nodes go in the left subtree of a tree with heap-shaped levels:
+     * all levels full except the last, which fills from the left.
+     */
+    private static int leftSize(int size) {
+        int levels = 31 - Integer.numberOfLeadingZeros(size);
+        int full = (1 << levels) - 1;
+        int lastLevel = size - full;
+        return (full - 1) / 2 + Math.min(lastLevel, (full + 1) / 2);
+    }
+
+    /** Builds the subtree rooted at tree index node from the points order[from, to). */
+    private void build(int node, int[] order, int from, int to, double[] px, double[] py) {
+        if (from >= to) {
+            return;
+        }
+        double[] keys = splitsOnX(node) ? px : py;
+        int median = from + leftSize(to - from);
+        select(order, from, to - 1, median, keys);
+        int point = order[median];
+        xs[node] = px[point];
+        ys[node] = py[point];
+        ids[node] = point;
+        build(2 * node + 1, order, from, median, px, py);
+        build(2 * node + 2, order, median + 1, to, px, py);
+    }
+
+    /**
+     * Rearranges order[low..high] so that order[k] holds the point whose key would be there if
+     * sorted, with no greater key before it and no smaller key after it (nth_element).
+     */
+    private static void select(int[] order, int low, int high, int k, double[] keys) {
+        while (low < high) {
+            double pivot = keys[order[(low + high) >>> 1]];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (keys[order[i]] < pivot) {
+                    i += 1;
+                }
+                while (keys[order[j]] > pivot) {
+                    j -= 1;
+                }
+                if (i <= j) {
+                    int temp = order[i];
+                    order[i] = order[j];
+                    order[j] = temp;
+                    i += 1;
+                    j -= 1;
+                }
+            }
+            if (k <= j) {
+                high = j;
+            } else if (k >= i) {
+                low = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the point in this set closest to the given point in O(log N) time on typical data,
+     * where N is the number of points in this set.
+     */
+    @Override
+    public T nearest(Point target) {
+        return points.get(nearestId(target.x(), target.y()));
+    }
+
+    /** Returns the point with the given id. */
+    public T point(int id) {
+        return points.get(id);
+    }
+
+    /** Returns the id of the point in this set closest to (x, y). */
+    public int nearestId(double x, double y) {
+        return nearestId(x, y, new int[height + 2], new double[height + 2]);
+    }
+
+    /**
+     * Returns the id of the point in this set closest to (x, y), using nodes and bounds, of
+     * length height + 2, as the search stack. Each entry is a subtree and a lower bound on the
+     * squared distance to any point in it.
+     */
+    private int nearestId(double x, double y, int[] nodes, double[] bounds) {
+        int n = xs.length;
+        int top = 0;
+        nodes[0] = 0;
+        bounds[0] = 0;
+        top += 1;
+        int best = 0;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        while (top > 0) {
+            top -= 1;
+            int node = nodes[top];
+            if (bounds[top] >= bestDistance) {
+                continue;
+            }
+            double dx = x - xs[node];
+            double dy = y - ys[node];
+            double distance = dx * dx + dy * dy;
+            if (distance < bestDistance) {
+                best = node;
+                bestDistance = distance;
+            }
+            double offset = splitsOnX(node) ? dx : dy;
+            int near = offset < 0 ? 2 * node + 1 : 2 * node + 2;
+            int far = offset < 0 ? 2 * node + 2 : 2 * node + 1;
+            // Push the far side first so that the near side is searched first.
+            if (far < n) {
+                nodes[top] = far;
+                bounds[top] = offset * offset;
+                top += 1;
+            }
+            if (near < n) {
+                nodes[top] = near;
+                bounds[top] = 0;
+                top += 1;
+            }
+        }
+        return ids[best];
+    }
+
+    /**
+     * Returns the k points in this set closest to the given point, nearest first, in O(k log N)
+     * time on typical data.
+     */
+    @Override
+    public List<T> kNearest(Point target, int k) {
+        int[] nearest = new int[Math.max(0, Math.min(k, xs.length))];
+        int count = kNearestIds(target.x(), target.y(), k, nearest);
+        List<T> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i += 1) {
+            result.add(points.get(nearest[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Copies the ids of the k points in this set closest to (x, y) into the start of out, nearest
+     * first, and returns how many there are: k, or every point if there are fewer than k.
+     *
+     * @throws IllegalArgumentException if k is negative or out is too short
+     */
+    public int kNearestIds(double x, double y, int k, int[] out) {
+        int n = xs.length;
+        NearestIds nearest = new NearestIds(Math.min(k, n));
+        if (out.length < Math.min(k, n)) {
+            throw new IllegalArgumentException("Need room for " + Math.min(k, n) + " ids");
+        }
+        if (k == 0) {
+            return 0;
+        }
+        int[] nodes = new int[height + 2];
+        double[] bounds = new double[height + 2];
+        int top = 0;
+        nodes[0] = 0;
+        bounds[0] = 0;
+        top += 1;
+        while (top > 0) {
+            top -= 1;
+            int node = nodes[top];
+            if (bounds[top] >= nearest.bound()) {
+                continue;
+            }
+            double dx = x - xs[node];
+            double dy = y - ys[node];
+            nearest.offer(ids[node], dx * dx + dy * dy);
+            double offset = splitsOnX(node) ? dx : dy;
+            int near = offset < 0 ? 2 * node + 1 : 2 * node + 2;
+            int far = offset < 0 ? 2 * node + 2 : 2 * node + 1;
+            if (far < n) {
+                nodes[top] = far;
+                bounds[top] = offset * offset;
+                top += 1;
+            }
+            if (near < n) {
+                nodes[top] = near;
+                bounds[top] = 0;
+                top += 1;
+            }
+        }
+        int count = nearest.size();
+        nearest.drainTo(out);
+        return count;
+    }
+
+    /**
+     * Passes every point in this set with minX <= x <= maxX and minY <= y <= maxY to action, in
+     * O(sqrt(N) + M) time on typical data, where M is the number of points passed.
+     */
+    @Override
+    public void rangeQuery(double minX, double minY, double maxX, double maxY,
+                           Consumer<? super T> action) {
+        rangeQueryIds(minX, minY, maxX, maxY, id -> action.accept(points.get(id)));
+    }
+
+    /** Like {@link #rangeQuery}, but passes the ids of the points instead. */
+    public void rangeQueryIds(double minX, double minY, double maxX, double maxY,
+                              IntConsumer action) {
+        search(new Region.Rectangle(minX, minY, maxX, maxY), action);
+    }
+
+    /**
+     * Passes every point in this set at most radius away from target to action, in
+     * O(sqrt(N) + M) time on typical data, where M is the number of points passed.
+     *
+     * @throws IllegalArgumentException if radius is negative or NaN
+     */
+    @Override
+    public void withinRadius(Point target, double radius, Consumer<? super T> action) {
+        withinRadiusIds(target, radius, id -> action.accept(points.get(id)));
+    }
+
+    /** Like {@link #withinRadius}, but passes the ids of the points instead. */
+    public void withinRadiusIds(Point target, double radius, IntConsumer action) {
+        search(Region.disc(target, radius), action);
+    }
+
+    /**
+     * Passes the id of every point that lies in region to action. Subtrees whose cells miss the
+     * region are skipped, and those whose cells it covers are reported without checking each point.
+     */
+    private void search(Region region, IntConsumer action) {
+        int n = xs.length;
+        // Each entry is a subtree and the cell that holds its points.
+        int[] nodes = new int[height + 2];
+        double[] cells = new double[4 * (height + 2)];
+        int top = 0;
+        nodes[0] = 0;
+        cells[0] = Double.NEGATIVE_INFINITY;
+        cells[1] = Double.NEGATIVE_INFINITY;
+        cells[2] = Double.POSITIVE_INFINITY;
+        cells[3] = Double.POSITIVE_INFINITY;
+        top += 1;
+        while (top > 0) {
+            top -= 1;
+            int node = nodes[top];
+            double minX = cells[4 * top];
+            double minY = cells[4 * top + 1];
+            double maxX = cells[4 * top + 2];
+            double maxY = cells[4 * top + 3];
+            if (!region.intersects(minX, minY, maxX, maxY)) {
+                continue;
+            }
+            if (region.covers(minX, minY, maxX, maxY)) {
+                reportAll(node, action);
+                continue;
+            }
+            if (region.contains(xs[node], ys[node])) {
+                action.accept(ids[node]);
+            }
+            // Points equal to the split may be on either side, so both cells include the split.
+            int left = 2 * node + 1;
+            if (left < n) {
+                nodes[top] = left;
+                cells[4 * top] = minX;
+                cells[4 * top + 1] = minY;
+                cells[4 * top + 2] = splitsOnX(node) ? xs[node] : maxX;
+                cells[4 * top + 3] = splitsOnX(node) ? maxY : ys[node];
+                top += 1;
+            }
+            if (left + 1 < n) {
+                nodes[top] = left + 1;
+                cells[4 * top] = splitsOnX(node) ? xs[node] : minX;
+                cells[4 * top + 1] = splitsOnX(node) ? minY : ys[node];
+                cells[4 * top + 2] = maxX;
+                cells[4 * top + 3] = maxY;
+                top += 1;
+            }
+        }
+    }
+
+    /** Passes every id in the subtree at node to action, one level of the tree at a time. */
+    private void reportAll(int node, IntConsumer action) {
+        int n = xs.length;
+        for (int first = node, width = 1; first < n; first = 2 * first + 1, width *= 2) {
+            int end = Math.min(first + width, n);
+            for (int i = first; i < end; i += 1) {
+                action.accept(ids[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns, for each i, the id of the point in this set closest to (xs[i], ys[i]), answering
+     * the queries in parallel in Hilbert-curve order. Each task reuses one search stack for all
+     * of its queries, so nothing is allocated per query.
+     *
+     * @throws IllegalArgumentException if xs and ys have different lengths
+     */
+    @Override
+    public int[] nearestAll(double[] xs, double[] ys) {
+        return BatchNearest.nearestAll(xs, ys, Searcher::new);
+    }
+
+    /** A search stack for nearest-point queries, reused by one thread across many of them. */
+    private class Searcher implements BatchNearest.Query {
+        private final int[] nodes = new int[height + 2];
+        private final double[] bounds = new double[height + 2];
+
+        @Override
+        public int nearestId(double x, double y) {
+            return FlatKDTreePointSet.this.nearestId(x, y, nodes, bounds);
+        }
+    }
+
+    @Override
+    public List<T> allPoints() {
+        return points;
+    }
+}
@@ -0,0 +1,280 @@
+package pointsets;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Nearest-neighbor implementation using a uniform grid of square cells over the points' bounding
+ * box, which on evenly spread data (such as street nodes in a city) answers a query by looking at
+ * a handful of cells near the target.
+ *
+ * The cell size is chosen so that each cell holds about {@link #POINTS_PER_CELL} points on
+ * average. A nearest query examines rings of cells around the target's cell, one ring at a time,
+ * and stops once the nearest point found so far is closer than any cell outside the rings
+ * searched. On clustered data most cells are empty or crowded and a k-d tree is usually faster.
+ *
+ * Like FlatKDTreePointSet, the points are kept as coordinates and int ids in primitive arrays,
+ * sorted by cell, and a point's id is its index in {@link #allPoints()}.
+ */
+public class GridPointSet<T extends Point> implements PointSet<T> {
+    /** The average number of points per cell that the cell size is chosen for. */
+    static final double POINTS_PER_CELL = 2;
+
+    private final List<T> points;
+    private final double minX;
+    private final double minY;
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    /** The points of cell c, numbered row by row, are at cellStarts[c] until cellStarts[c + 1]. */
+    private final int[] cellStarts;
+    private final double[] xs;
+    private final double[] ys;
+    private final int[] ids;
+
+    /**
+     * Instantiates a new GridPointSet with the given points in O(N) time.
+     *
+     * @param points a non-null, non-empty list of points to include
+     */
+    public GridPointSet(List<T> points) {
+        if (points == null || points.isEmpty()) {
+            throw new IllegalArgumentException("List of points can't be null or empty");
+        }
+        this.points = new ArrayList<>(points);
+        int n = points.size();
+        double lowX = Double.POSITIVE_INFINITY;
+        double lowY = Double.POSITIVE_INFINITY;
+        double highX = Double.NEGATIVE_INFINITY;
+        double highY = Double.NEGATIVE_INFINITY;
+        for (T point : points) {
+            lowX = Math.min(lowX, point.x());
+            lowY = Math.min(lowY, point.y());
+            highX = Math.max(highX, point.x());
+            highY = Math.max(highY, point.y());
+        }
+        minX = lowX;
+        minY = lowY;
+        cellSize = cellSize(highX - lowX, highY - lowY, n);
+        columns = (int) Math.min((highX - lowX) / cellSize, n) + 1;
+        rows = (int) Math.min((highY - lowY) / cellSize, n) + 1;
+
+        // Counting sort of the points by cell.
+        int[] cells = new int[n];
+        cellStarts = new int[columns * rows + 1];
+        for (int i = 0; i < n; i += 1) {
+            cells[i] = cellOf(points.get(i).x(), points.get(i).y());
+            cellStarts[cells[i] + 1] += 1;
+        }
+        for (int c = 0; c < columns * rows; c += 1) {
+            cellStarts[c + 1] += cellStarts[c];
+        }
+        int[] next = new int[columns * rows];
+        System.arraycopy(cellStarts, 0, next, 0, next.length);
+        xs = new double[n];
+        ys = new double[n];
+        ids = new int[n];
+        for (int i = 0; i < n; i += 1) {
+            int slot = next[cells[i]];
+            next[cells[i]] += 1;
+            xs[slot] = points.get(i).x();
+            ys[slot] = points.get(i).y();
+            ids[slot] = i;
+        }
+    }
+
+    /** Returns the side of a cell that holds about POINTS_PER_CELL of n points on average. */
+    private static double cellSize(double width, double height, int n) {
+        double area = width * height;
+        if (area > 0) {
+            return Math.sqrt(area * POINTS_PER_CELL / n);
+        }
+        // The points lie on a line, or are all the same point.
+        double length = Math.max(width, height);
+        return length > 0 ? length * POINTS_PER_CELL / n : 1;
+    }
+
+    private int column(double x) {
+        return (int) Math.max(0, Math.min((x - minX) / cellSize, columns - 1));
+    }
+
+    private int row(double y) {
+        return (int) Math.max(0, Math.min((y - minY) / cellSize, rows - 1));
+    }
+
+    private int cellOf(double x, double y) {
+        return row(y) * columns + column(x);
+    }
+
+    /** Returns the point with the given id. */
+    public T point(int id) {
+        return points.get(id);
+    }
+
+    /**
+     * Returns the point in this set closest to the given point, in O(1) time on evenly spread
+     * points.
+     */
+    @Override
+    public T nearest(Point target) {
+        return points.get(nearestId(target.x(), target.y()));
+    }
+
+    /** Returns the id of the point in this set closest to (x, y). */
+    public int nearestId(double x, double y) {
+        int column = column(x);
+        int row = row(y);
+        int best = -1;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        for (int ring = 0; bestDistance > boundSquared(x, y, column, row, ring - 1); ring += 1) {
+            int top = row + ring;
+            int bottom = row - ring;
+            for (int r = Math.max(bottom, 0); r <= Math.min(top, rows - 1); r += 1) {
+                // Every cell of the top and bottom rows of the ring, but only the ends of others.
+                int step = (r == top || r == bottom) ? 1 : Math.max(2 * ring, 1);
+                for (int c = column - ring; c <= column + ring; c += step) {
+                    if (c < 0 || c >= columns) {
+                        continue;
+                    }
+                    int cell = r * columns + c;
+                    for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i += 1) {
+                        double dx = xs[i] - x;
+                        double dy = ys[i] - y;
+                        double distance = dx * dx + dy * dy;
+                        if (distance < bestDistance) {
+                            best = i;
+                            bestDistance = distance;
+                        }
+                    }
+                }
+            }
+        }
+        return ids[best];
+    }
+
+    /**
+     * Returns the squared distance from (x, y) to the nearest cell outside the block of rings 0
+     * through ring around the given cell, or positive infinity if every cell is inside the block.
+     * For a ring of -1, before any cell is searched, returns 0.
+     */
+    private double boundSquared(double x, double y, int column, int row, int ring) {
+        if (ring < 0) {
+            return 0;
+        }
+        double bound = Double.POSITIVE_INFINITY;
+        if (column - ring > 0) {
+            bound = Math.min(bound, Math.max(0, x - (minX + (column - ring) * cellSize)));
+        }
+        if (column + ring < columns - 1) {
+            bound = Math.min(bound, Math.max(0, minX + (column + ring + 1) * cellSize - x));
+        }
+        if (row - ring > 0) {
+            bound = Math.min(bound, Math.max(0, y - (minY + (row - ring) * cellSize)));
+        }
+        if (row + ring < rows - 1) {
+            bound = Math.min(bound, Math.max(0, minY + (row + ring + 1) * cellSize - y));
+        }
+        return bound * bound;
+    }
+
+    /** Returns the k points in this set closest to the given point, nearest first. */
+    @Override
+    public List<T> kNearest(Point target, int k) {
+        int[] nearest = new int[Math.max(0, Math.min(k, xs.length))];
+        int count = kNearestIds(target.x(), target.y(), k, nearest);
+        List<T> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i += 1) {
+            result.add(points.get(nearest[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Copies the ids of the k points in this set closest to (x, y) into the start of out, nearest
+     * first, and returns how many there are: k, or every point if there are fewer than k.
+     *
+     * @throws IllegalArgumentException if k is negative or out is too short
+     */
+    public int kNearestIds(double x, double y, int k, int[] out) {
+        NearestIds nearest = new NearestIds(Math.min(k, xs.length));
+        if (out.length < Math.min(k, xs.length)) {
+            throw new IllegalArgumentException("Need room for " + Math.min(k, xs.length) + " ids");
+        }
+        if (k == 0) {
+            return 0;
+        }
+        int column = column(x);
+        int row = row(y);
+        for (int ring = 0; nearest.bound() > boundSquared(x, y, column, row, ring - 1); ring += 1) {
+            int top = row + ring;
+            int bottom = row - ring;
+            for (int r = Math.max(bottom, 0); r <= Math.min(top, rows - 1); r += 1) {
+                int step = (r == top || r == bottom) ? 1 : Math.max(2 * ring, 1);
+                for (int c = column - ring; c <= column + ring; c += step) {
+                    if (c < 0 || c >= columns) {
+                        continue;
+                    }
+                    int cell = r * columns + c;
+                    for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i += 1) {
+                        double dx = xs[i] - x;
+                        double dy = ys[i] - y;
+                        nearest.offer(ids[i], dx * dx + dy * dy);
+                    }
+                }
+            }
+        }
+        int count = nearest.size();
+        nearest.drainTo(out);
+        return count;
+    }
+
+    @Override
+    public void rangeQuery(double minX, double minY, double maxX, double maxY,
+                           Consumer<? super T> action) {
+        search(new Region.Rectangle(minX, minY, maxX, maxY), minX, minY, maxX, maxY,
+            id -> action.accept(points.get(id)));
+    }
+
+    /** @throws IllegalArgumentException if radius is negative or NaN */
+    @Override
+    public void withinRadius(Point target, double radius, Consumer<? super T> action) {
+        search(Region.disc(target, radius), target.x() - radius, target.y() - radius,
+            target.x() + radius, target.y() + radius, id -> action.accept(points.get(id)));
+    }
+
+    /** Passes the id of every point that lies in region, within the given box, to action. */
+    private void search(Region region, double lowX, double lowY, double highX, double highY,
+                        IntConsumer action) {
+        if (lowX > highX || lowY > highY) {
+            return;
+        }
+        for (int r = row(lowY); r <= row(highY); r += 1) {
+            for (int c = column(lowX); c <= column(highX); c += 1) {
+                int cell = r * columns + c;
+                for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i += 1) {
+                    if (region.contains(xs[i], ys[i])) {
+                        action.accept(ids[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns, for each i, the id of the point in this set closest to (xs[i], ys[i]), answering
+     * the queries in parallel in Hilbert-curve order without allocating anything per query.
+     *
+     * @throws IllegalArgumentException if xs and ys have different lengths
+     */
+    @Override
+    public int[] nearestAll(double[] xs, double[] ys) {
+        return BatchNearest.nearestAll(xs, ys, () -> this::nearestId);
+    }
+
+    @Override
+    public List<T> allPoints() {
+        return points;
+    }
+}
@@ -3,6 +3,7 @@ package pointsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Fast nearest-neighbor implementation using a k-d tree.
@@ -146,6 +147,99 @@ public class KDTreePointSet<T extends Point> implements PointSet<T> {
         }
     }
 
+    /**
+     * Returns the k points in this set closest to the given point, nearest first, in (usually)
+     * O(k log N) time. Subtrees are skipped once the k nearest points found so far are all closer
+     * than the subtree's splitting line.
+     */
+    @Override
+    public List<T> kNearest(Point target, int k) {
+        NearestPoints<T> nearest = new NearestPoints<>(Math.min(k, points.size()));
+        if (k > 0) {
+            kNearestRec(root, target, nearest);
+        }
+        return nearest.toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void kNearestRec(Node current, Point target, NearestPoints<T> nearest) {
+        if (current == null) {
+            return;
+        }
+        nearest.offer((T) current.value, target.distanceSquaredTo(current.value));
+        double offset = current.isHori
+            ? target.x() - current.value.x()
+            : target.y() - current.value.y();
+        Node goodSide = offset < 0 ? current.left : current.right;
+        Node badSide = offset < 0 ? current.right : current.left;
+        kNearestRec(goodSide, target, nearest);
+        if (offset * offset < nearest.bound()) {
+            kNearestRec(badSide, target, nearest);
+        }
+    }
+
+    /**
+     * Passes every point in this set with minX <= x <= maxX and minY <= y <= maxY to action, in
+     * (usually) O(sqrt(N) + M) time, where M is the number of points passed.
+     */
+    @Override
+    public void rangeQuery(double minX, double minY, double maxX, double maxY,
+                           Consumer<? super T> action) {
+        searchRec(root, new Region.Rectangle(minX, minY, maxX, maxY), Double.NEGATIVE_INFINITY,
+            Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, action);
+    }
+
+    /**
+     * Passes every point in this set at most radius away from target to action, in (usually)
+     * O(sqrt(N) + M) time, where M is the number of points passed.
+     *
+     * @throws IllegalArgumentException if radius is negative or NaN
+     */
+    @Override
+    public void withinRadius(Point target, double radius, Consumer<? super T> action) {
+        searchRec(root, Region.disc(target, radius), Double.NEGATIVE_INFINITY,
+            Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, action);
+    }
+
+    /**
+     * Passes the points of the subtree at current that lie in region to action, given the cell
+     * that holds every point of the subtree. Subtrees whose cells miss the region are skipped, and
+     * those whose cells it covers are reported without checking each point.
+     */
+    @SuppressWarnings("unchecked")
+    private void searchRec(Node current, Region region, double minX, double minY, double maxX,
+                           double maxY, Consumer<? super T> action) {
+        if (current == null || !region.intersects(minX, minY, maxX, maxY)) {
+            return;
+        }
+        if (region.covers(minX, minY, maxX, maxY)) {
+            reportAll(current, action);
+            return;
+        }
+        Point value = current.value;
+        if (region.contains(value.x(), value.y())) {
+            action.accept((T) value);
+        }
+        // Points left of (or below) the split are less than it; the rest are greater or equal.
+        if (current.isHori) {
+            searchRec(current.left, region, minX, minY, value.x(), maxY, action);
+            searchRec(current.right, region, value.x(), minY, maxX, maxY, action);
+        } else {
+            searchRec(current.left, region, minX, minY, maxX, value.y(), action);
+            searchRec(current.right, region, minX, value.y(), maxX, maxY, action);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void reportAll(Node current, Consumer<? super T> action) {
+        if (current == null) {
+            return;
+        }
+        action.accept((T) current.value);
+        reportAll(current.left, action);
+        reportAll(current.right, action);
+    }
+
     private double distance(Point a, Point b) {
         return Math.sqrt(a.distanceSquaredTo(b));
     }
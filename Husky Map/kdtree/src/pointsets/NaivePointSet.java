@@ -1,6 +1,7 @@
 package pointsets;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -43,6 +44,20 @@ public class NaivePointSet<T extends Point> implements PointSet<T> {
         return bestNode;
     }
 
+    /**
+     * Returns the k points in this set closest to the given point, nearest first, by sorting every
+     * point by distance in O(N log N) time. Meant as a reference for testing faster point sets.
+     */
+    @Override
+    public List<T> kNearest(Point target, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k cannot be negative");
+        }
+        List<T> byDistance = new ArrayList<>(pointList);
+        byDistance.sort(Comparator.comparingDouble(target::distanceSquaredTo));
+        return new ArrayList<>(byDistance.subList(0, Math.min(k, byDistance.size())));
+    }
+
     @Override
     public List<T> allPoints() {
         return pointList;
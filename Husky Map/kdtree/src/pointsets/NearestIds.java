@@ -0,0 +1,92 @@
+package pointsets;
+
+/**
+ * Collects the k nearest point ids offered to it, like {@link NearestPoints} but for point sets
+ * that refer to their points by int id, so that nothing is allocated per candidate.
+ */
+class NearestIds {
+    private final int k;
+    private final int[] ids;
+    private final double[] distances;
+    private int size = 0;
+
+    /**
+     * Creates a collector for the k nearest ids. Callers cap k at the number of points in the
+     * set, since the buffers are allocated up front.
+     *
+     * @throws IllegalArgumentException if k is negative
+     */
+    NearestIds(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k cannot be negative");
+        }
+        this.k = k;
+        this.ids = new int[k];
+        this.distances = new double[k];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the squared distance a point must be under to be kept: that of the farthest kept
+     * point once k are kept, or positive infinity until then.
+     */
+    double bound() {
+        return size == k ? (k == 0 ? Double.NEGATIVE_INFINITY : distances[0]) : Double.POSITIVE_INFINITY;
+    }
+
+    /** Keeps the id, at the given squared distance, if it is among the k nearest so far. */
+    void offer(int id, double distance) {
+        if (size < k) {
+            size += 1;
+            siftUp(size - 1, id, distance);
+        } else if (distance < bound()) {
+            siftDown(0, id, distance);
+        }
+    }
+
+    private void siftUp(int index, int id, double distance) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (distances[parent] >= distance) {
+                break;
+            }
+            ids[index] = ids[parent];
+            distances[index] = distances[parent];
+            index = parent;
+        }
+        ids[index] = id;
+        distances[index] = distance;
+    }
+
+    private void siftDown(int index, int id, double distance) {
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && distances[child + 1] > distances[child]) {
+                child += 1;
+            }
+            if (distance >= distances[child]) {
+                break;
+            }
+            ids[index] = ids[child];
+            distances[index] = distances[child];
+            index = child;
+        }
+        ids[index] = id;
+        distances[index] = distance;
+    }
+
+    /** Removes every kept id and copies them into the start of out, nearest first. */
+    void drainTo(int[] out) {
+        for (int i = size - 1; i >= 0; i -= 1) {
+            out[i] = ids[0];
+            size -= 1;
+            siftDown(0, ids[size], distances[size]);
+        }
+    }
+}
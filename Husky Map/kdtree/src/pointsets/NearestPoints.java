@@ -0,0 +1,101 @@
+package pointsets;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the k nearest points offered to it, for k-nearest-neighbor searches.
+ *
+ * The points are kept in a max-heap on squared distance, so the farthest of them is at the root,
+ * and {@link #bound()} tells a search how close a subtree must come to hold a better point.
+ */
+class NearestPoints<T extends Point> {
+    private final int k;
+    private final Object[] points;
+    private final double[] distances;
+    private int size = 0;
+
+    /**
+     * Creates a collector for the k nearest points. Callers cap k at the number of points in the
+     * set, since the buffers are allocated up front.
+     *
+     * @throws IllegalArgumentException if k is negative
+     */
+    NearestPoints(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k cannot be negative");
+        }
+        this.k = k;
+        this.points = new Object[k];
+        this.distances = new double[k];
+    }
+
+    /**
+     * Returns the squared distance a point must be under to be kept: that of the farthest kept
+     * point once k are kept, or positive infinity until then.
+     */
+    double bound() {
+        return size == k ? (k == 0 ? Double.NEGATIVE_INFINITY : distances[0]) : Double.POSITIVE_INFINITY;
+    }
+
+    /** Keeps the point, at the given squared distance, if it is among the k nearest so far. */
+    void offer(T point, double distance) {
+        if (size < k) {
+            size += 1;
+            siftUp(size - 1, point, distance);
+        } else if (distance < bound()) {
+            siftDown(0, point, distance);
+        }
+    }
+
+    private void siftUp(int index, Object point, double distance) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (distances[parent] >= distance) {
+                break;
+            }
+            points[index] = points[parent];
+            distances[index] = distances[parent];
+            index = parent;
+        }
+        points[index] = point;
+        distances[index] = distance;
+    }
+
+    private void siftDown(int index, Object point, double distance) {
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && distances[child + 1] > distances[child]) {
+                child += 1;
+            }
+            if (distance >= distances[child]) {
+                break;
+            }
+            points[index] = points[child];
+            distances[index] = distances[child];
+            index = child;
+        }
+        points[index] = point;
+        distances[index] = distance;
+    }
+
+    /** Removes every kept point and returns them, nearest first. */
+    @SuppressWarnings("unchecked")
+    List<T> toList() {
+        Object[] nearestFirst = new Object[size];
+        for (int i = size - 1; i >= 0; i -= 1) {
+            nearestFirst[i] = points[0];
+            size -= 1;
+            siftDown(0, points[size], distances[size]);
+            points[size] = null;
+        }
+        List<T> result = new ArrayList<>(nearestFirst.length);
+        for (Object point : nearestFirst) {
+            result.add((T) point);
+        }
+        return result;
+    }
+}
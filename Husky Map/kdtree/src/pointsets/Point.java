@@ -40,7 +40,9 @@ public class Point {
      * (x1, y1) and (x2, y2).
      */
     public static double distanceSquaredBetween(double x1, double x2, double y1, double y2) {
-        return Math.pow(x1 - x2, 2) + Math.pow(y1 - y2, 2);
+        double dx = x1 - x2;
+        double dy = y1 - y2;
+        return dx * dx + dy * dy;
     }
 
     public double x() {
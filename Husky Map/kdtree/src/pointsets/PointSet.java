@@ -1,6 +1,9 @@
 package pointsets;
 
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface PointSet<T extends Point> {
     /** Returns the point in this set closest to (x, y). */
@@ -11,6 +14,84 @@ public interface PointSet<T extends Point> {
     /** Returns the point in this set closest to the given point. */
     T nearest(Point target);
 
+    /**
+     * Returns the k points in this set closest to the given point, nearest first, or every point
+     * if there are fewer than k.
+     *
+     * The default implementation scans all points in O(N log k) time.
+     *
+     * @throws IllegalArgumentException if k is negative
+     */
+    default List<T> kNearest(Point target, int k) {
+        List<T> points = allPoints();
+        NearestPoints<T> nearest = new NearestPoints<>(Math.min(k, points.size()));
+        for (T point : points) {
+            nearest.offer(point, target.distanceSquaredTo(point));
+        }
+        return nearest.toList();
+    }
+
+    /**
+     * Passes every point in this set with minX <= x <= maxX and minY <= y <= maxY to action, in no
+     * particular order.
+     *
+     * The default implementation scans all points in O(N) time.
+     */
+    default void rangeQuery(double minX, double minY, double maxX, double maxY,
+                            Consumer<? super T> action) {
+        search(new Region.Rectangle(minX, minY, maxX, maxY), action);
+    }
+
+    /**
+     * Passes every point in this set at most radius away from target to action, in no particular
+     * order.
+     *
+     * The default implementation scans all points in O(N) time.
+     *
+     * @throws IllegalArgumentException if radius is negative or NaN
+     */
+    default void withinRadius(Point target, double radius, Consumer<? super T> action) {
+        search(Region.disc(target, radius), action);
+    }
+
+    /** Passes every point in this set that lies in region to action. */
+    private void search(Region region, Consumer<? super T> action) {
+        for (T point : allPoints()) {
+            if (region.contains(point.x(), point.y())) {
+                action.accept(point);
+            }
+        }
+    }
+
+    /**
+     * Returns, for each i, the index in allPoints() of the point in this set closest to
+     * (xs[i], ys[i]). The queries are sorted along a Hilbert curve, so that consecutive queries
+     * touch nearby points, and answered in parallel on the common ForkJoinPool.
+     *
+     * The default implementation calls nearest from several threads at once, which is safe as long
+     * as nothing updates this set meanwhile, and maps each answer to its index through a table
+     * built once per call.
+     *
+     * @throws IllegalArgumentException if xs and ys have different lengths
+     * @throws IllegalStateException if the default implementation finds a point that was not in
+     *                               this set when the call started, because the set was updated
+     */
+    default int[] nearestAll(double[] xs, double[] ys) {
+        List<T> points = allPoints();
+        Map<T, Integer> indices = new IdentityHashMap<>(points.size());
+        for (int i = 0; i < points.size(); i += 1) {
+            indices.put(points.get(i), i);
+        }
+        BatchNearest.Query query = (x, y) -> {
+            Integer index = indices.get(nearest(x, y));
+            if (index == null) {
+                throw new IllegalStateException("Point set changed during nearestAll");
+            }
+            return index;
+        };
+        return BatchNearest.nearestAll(xs, ys, () -> query);
+    }
+
     /** Returns a list of all points in this set, not necessarily in any particular order. */
     List<T> allPoints();
 }
@@ -0,0 +1,93 @@
+package pointsets;
+
+/**
+ * A closed region of the plane that a point set can be searched for, which can tell whether it
+ * misses or covers an axis-aligned cell so that k-d trees can skip or report whole subtrees.
+ */
+abstract class Region {
+    /**
+     * Returns the disc of points at most radius away from center.
+     * @throws IllegalArgumentException if radius is negative or NaN
+     */
+    static Region disc(Point center, double radius) {
+        if (!(radius >= 0)) {
+            throw new IllegalArgumentException("Radius must be non-negative");
+        }
+        return new Disc(center.x(), center.y(), radius);
+    }
+
+    /** Returns true if the region includes the point (x, y). */
+    abstract boolean contains(double x, double y);
+
+    /** Returns true if the region might include some point of the given cell. */
+    abstract boolean intersects(double minX, double minY, double maxX, double maxY);
+
+    /** Returns true if the region includes every point of the given cell. */
+    abstract boolean covers(double minX, double minY, double maxX, double maxY);
+
+    /** An axis-aligned rectangle, edges included. */
+    static class Rectangle extends Region {
+        private final double minX;
+        private final double minY;
+        private final double maxX;
+        private final double maxY;
+
+        Rectangle(double minX, double minY, double maxX, double maxY) {
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+        }
+
+        @Override
+        boolean contains(double x, double y) {
+            return minX <= x && x <= maxX && minY <= y && y <= maxY;
+        }
+
+        @Override
+        boolean intersects(double cellMinX, double cellMinY, double cellMaxX, double cellMaxY) {
+            return cellMinX <= maxX && minX <= cellMaxX && cellMinY <= maxY && minY <= cellMaxY;
+        }
+
+        @Override
+        boolean covers(double cellMinX, double cellMinY, double cellMaxX, double cellMaxY) {
+            return minX <= cellMinX && cellMaxX <= maxX && minY <= cellMinY && cellMaxY <= maxY;
+        }
+    }
+
+    /** A disc: every point within radius of a center, the boundary included. */
+    static class Disc extends Region {
+        private final double x;
+        private final double y;
+        private final double radiusSquared;
+
+        Disc(double x, double y, double radius) {
+            this.x = x;
+            this.y = y;
+            this.radiusSquared = radius * radius;
+        }
+
+        @Override
+        boolean contains(double px, double py) {
+            double dx = px - x;
+            double dy = py - y;
+            return dx * dx + dy * dy <= radiusSquared;
+        }
+
+        @Override
+        boolean intersects(double minX, double minY, double maxX, double maxY) {
+            // The distance to the nearest point of the cell.
+            double dx = x < minX ? minX - x : (x > maxX ? x - maxX : 0);
+            double dy = y < minY ? minY - y : (y > maxY ? y - maxY : 0);
+            return dx * dx + dy * dy <= radiusSquared;
+        }
+
+        @Override
+        boolean covers(double minX, double minY, double maxX, double maxY) {
+            // The distance to the farthest corner of the cell.
+            double dx = Math.max(x - minX, maxX - x);
+            double dy = Math.max(y - minY, maxY - y);
+            return dx * dx + dy * dy <= radiusSquared;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package pointsets;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An R-tree of line segments, such as road segments, that finds the segment nearest to a point
+ * along with the closest point on it.
+ *
+ * The tree is bulk-loaded with Sort-Tile-Recursive packing: the segments' bounding boxes are
+ * sorted by x into about sqrt(N / M) vertical slices, each slice is sorted by y, and runs of M
+ * boxes become leaf nodes; the leaves are packed into parents the same way, up to a single root.
+ * Every node is full except the last of each slice, and sibling nodes barely overlap, so a query
+ * visits only a few nodes near the target. Nodes and segments are stored in primitive arrays.
+ */
+public class SegmentRTree<E> {
+    /** The number of children of each node. */
+    private static final int FANOUT = 16;
+
+    private final List<E> items;
+    /** The segments in leaf order, and the index in items of each. */
+    private final double[] x1s;
+    private final double[] y1s;
+    private final double[] x2s;
+    private final double[] y2s;
+    private final int[] ids;
+    /**
+     * The nodes of each level, from the leaves (level 1) up to the root; level 0 stands for the
+     * segments themselves. Node i of level L covers the box minXs[L][i] .. maxYs[L][i] and has
+     * children firsts[L][i] until firsts[L][i] + counts[L][i] in level L - 1.
+     */
+    private final double[][] minXs;
+    private final double[][] minYs;
+    private final double[][] maxXs;
+    private final double[][] maxYs;
+    private final int[][] firsts;
+    private final int[][] counts;
+    private final int height;
+    /**
+     * Each thread's search state, kept between queries so that a query allocates nothing but its
+     * result.
+     */
+    private final ThreadLocal<Search> searches = ThreadLocal.withInitial(this::newSearch);
+
+    /** The segment nearest to a query point, and the point on it closest to the query. */
+    public static class Match<E> {
+        /** The segment's item. */
+        public final E item;
+        /** The point on the segment closest to the query. */
+        public final double x;
+        public final double y;
+        /** How far along the segment, from its first end (0) to its second (1), that point is. */
+        public final double fraction;
+        /** The squared distance from the query to that point. */
+        public final double distanceSquared;
+
+        Match(E item, double x, double y, double fraction, double distanceSquared) {
+            this.item = item;
+            this.x = x;
+            this.y = y;
+            this.fraction = fraction;
+            this.distanceSquared = distanceSquared;
+        }
+    }
+
+    /**
+     * Builds a tree of the segments from (x1s[i], y1s[i]) to (x2s[i], y2s[i]), each standing for
+     * items.get(i), in O(N log N) time.
+     *
+     * @throws IllegalArgumentException if items is null or empty, an array's length differs, or
+     *                                  a coordinate is NaN or infinite
+     */
+    public SegmentRTree(List<E> items, double[] x1s, double[] y1s, double[] x2s, double[] y2s) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("List of segments can't be null or empty");
+        }
+        int n = items.size();
+        if (x1s.length != n || y1s.length != n || x2s.length != n || y2s.length != n) {
+            throw new IllegalArgumentException("Need both ends of every segment");
+        }
+        for (int i = 0; i < n; i += 1) {
+            if (!Double.isFinite(x1s[i]) || !Double.isFinite(y1s[i])
+                || !Double.isFinite(x2s[i]) || !Double.isFinite(y2s[i])) {
+                throw new IllegalArgumentException("Segment " + i + " has a coordinate that is not finite");
+            }
+        }
+        this.items = new ArrayList<>(items);
+
+        // Level 0: the segments' own boxes, packed into leaf order.
+        double[] minX = new double[n];
+        double[] minY = new double[n];
+        double[] maxX = new double[n];
+        double[] maxY = new double[n];
+        for (int i = 0; i < n; i += 1) {
+            minX[i] = Math.min(x1s[i], x2s[i]);
+            minY[i] = Math.min(y1s[i], y2s[i]);
+            maxX[i] = Math.max(x1s[i], x2s[i]);
+            maxY[i] = Math.max(y1s[i], y2s[i]);
+        }
+        int[] order = tileOrder(minX, minY, maxX, maxY);
+        this.x1s = permute(x1s, order);
+        this.y1s = permute(y1s, order);
+        this.x2s = permute(x2s, order);
+        this.y2s = permute(y2s, order);
+        this.ids = order;
+
+        List<double[]> levelMinX = new ArrayList<>();
+        List<double[]> levelMinY = new ArrayList<>();
+        List<double[]> levelMaxX = new ArrayList<>();
+        List<double[]> levelMaxY = new ArrayList<>();
+        List<int[]> levelFirsts = new ArrayList<>();
+        List<int[]> levelCounts = new ArrayList<>();
+        minX = permute(minX, order);
+        minY = permute(minY, order);
+        maxX = permute(maxX, order);
+        maxY = permute(maxY, order);
+        int[] childFirsts = null;
+        int[] childCounts = null;
+        levelMinX.add(minX);
+        levelMinY.add(minY);
+        levelMaxX.add(maxX);
+        levelMaxY.add(maxY);
+        levelFirsts.add(null);
+        levelCounts.add(null);
+        while (true) {
+            // Group runs of FANOUT children into parents.
+            int children = minX.length;
+            int parents = (children + FANOUT - 1) / FANOUT;
+            double[] parentMinX = new double[parents];
+            double[] parentMinY = new double[parents];
+            double[] parentMaxX = new double[parents];
+            double[] parentMaxY = new double[parents];
+            int[] parentFirsts = new int[parents];
+            int[] parentCounts = new int[parents];
+            for (int p = 0; p < parents; p += 1) {
+                int first = p * FANOUT;
+                int end = Math.min(first + FANOUT, children);
+                parentFirsts[p] = first;
+                parentCounts[p] = end - first;
+                parentMinX[p] = Double.POSITIVE_INFINITY;
+                parentMinY[p] = Double.POSITIVE_INFINITY;
+                parentMaxX[p] = Double.NEGATIVE_INFINITY;
+                parentMaxY[p] = Double.NEGATIVE_INFINITY;
+                for (int c = first; c < end; c += 1) {
+                    parentMinX[p] = Math.min(parentMinX[p], minX[c]);
+                    parentMinY[p] = Math.min(parentMinY[p], minY[c]);
+                    parentMaxX[p] = Math.max(parentMaxX[p], maxX[c]);
+                    parentMaxY[p] = Math.max(parentMaxY[p], maxY[c]);
+                }
+            }
+            minX = parentMinX;
+            minY = parentMinY;
+            maxX = parentMaxX;
+            maxY = parentMaxY;
+            childFirsts = parentFirsts;
+            childCounts = parentCounts;
+            if (parents > 1) {
+                // Pack this level too; each node keeps its own range of children.
+                int[] parentOrder = tileOrder(minX, minY, maxX, maxY);
+                minX = permute(minX, parentOrder);
+                minY = permute(minY, parentOrder);
+                maxX = permute(maxX, parentOrder);
+                maxY = permute(maxY, parentOrder);
+                childFirsts = permute(childFirsts, parentOrder);
+                childCounts = permute(childCounts, parentOrder);
+            }
+            levelMinX.add(minX);
+            levelMinY.add(minY);
+            levelMaxX.add(maxX);
+            levelMaxY.add(maxY);
+            levelFirsts.add(childFirsts);
+            levelCounts.add(childCounts);
+            if (parents == 1) {
+                break;
+            }
+        }
+        height = levelMinX.size() - 1;
+        minXs = levelMinX.toArray(new double[0][]);
+        minYs = levelMinY.toArray(new double[0][]);
+        maxXs = levelMaxX.toArray(new double[0][]);
+        maxYs = levelMaxY.toArray(new double[0][]);
+        firsts = levelFirsts.toArray(new int[0][]);
+        counts = levelCounts.toArray(new int[0][]);
+    }
+
+    /**
+     * Returns the Sort-Tile-Recursive order of the given boxes: sorted by center x into vertical
+     * slices of about sqrt(N / FANOUT) runs each, and by center y within each slice.
+     */
+    private static int[] tileOrder(double[] minX, double[] minY, double[] maxX, double[] maxY) {
+        int n = minX.length;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i += 1) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> minX[i] + maxX[i]));
+        int runs = (n + FANOUT - 1) / FANOUT;
+        int sliceLength = (int) Math.ceil(Math.sqrt(runs)) * FANOUT;
+        for (int from = 0; from < n; from += sliceLength) {
+            Arrays.sort(order, from, Math.min(from + sliceLength, n),
+                Comparator.comparingDouble(i -> minY[i] + maxY[i]));
+        }
+        int[] result = new int[n];
+        for (int i = 0; i < n; i += 1) {
+            result[i] = order[i];
+        }
+        return result;
+    }
+
+    private static double[] permute(double[] values, int[] order) {
+        double[] result = new double[order.length];
+        for (int i = 0; i < order.length; i += 1) {
+            result[i] = values[order[i]];
+        }
+        return result;
+    }
+
+    private static int[] permute(int[] values, int[] order) {
+        int[] result = new int[order.length];
+        for (int i = 0; i < order.length; i += 1) {
+            result[i] = values[order[i]];
+        }
+        return result;
+    }
+
+    /** Returns the number of segments in the tree. */
+    public int size() {
+        return items.size();
+    }
+
+    /** The query point and the best segment found so far by a query. */
+    private static class Search {
+        double x;
+        double y;
+        /**
+         * The best segment's index in leaf order, or -1 until one is found, and its squared
+         * distance and fraction. Far enough away, every squared distance overflows to infinity;
+         * the first segment reached is then kept, so that a query always finds one.
+         */
+        int segment;
+        double distance;
+        double fraction;
+        /**
+         * Scratch space for each internal level: the children of the node being visited at that
+         * level, nearest first, and their box distances. One node per level is visited at a time.
+         */
+        final int[][] children;
+        final double[][] distances;
+
+        Search(int height) {
+            children = new int[height + 1][FANOUT];
+            distances = new double[height + 1][FANOUT];
+        }
+
+        void reset(double x, double y) {
+            this.x = x;
+            this.y = y;
+            segment = -1;
+            distance = Double.POSITIVE_INFINITY;
+        }
+    }
+
+    private Search newSearch() {
+        return new Search(height);
+    }
+
+    /**
+     * Returns the segment nearest to (x, y) and the point on it closest to (x, y). Safe to call
+     * from several threads at once.
+     *
+     * @throws IllegalArgumentException if x or y is NaN or infinite
+     */
+    public Match<E> nearest(double x, double y) {
+        if (!Double.isFinite(x) || !Double.isFinite(y)) {
+            throw new IllegalArgumentException("Query (" + x + ", " + y + ") is not finite");
+        }
+        Search search = searches.get();
+        search.reset(x, y);
+        visit(height, 0, search);
+        int s = search.segment;
+        double t = search.fraction;
+        return new Match<>(items.get(ids[s]), x1s[s] + t * (x2s[s] - x1s[s]),
+            y1s[s] + t * (y2s[s] - y1s[s]), t, search.distance);
+    }
+
+    /** Searches the subtree at the given node, skipping children that can't beat the best. */
+    private void visit(int level, int node, Search search) {
+        int first = firsts[level][node];
+        int count = counts[level][node];
+        if (level == 1) {
+            for (int s = first; s < first + count; s += 1) {
+                if (boxDistance(0, s, search.x, search.y) < search.distance || search.segment < 0) {
+                    offerSegment(s, search);
+                }
+            }
+            return;
+        }
+        // Visit the children nearest first, so that the best distance shrinks quickly.
+        int[] children = search.children[level];
+        double[] distances = search.distances[level];
+        for (int i = 0; i < count; i += 1) {
+            int child = first + i;
+            double distance = boxDistance(level - 1, child, search.x, search.y);
+            int j = i;
+            while (j > 0 && distances[j - 1] > distance) {
+                children[j] = children[j - 1];
+                distances[j] = distances[j - 1];
+                j -= 1;
+            }
+            children[j] = child;
+            distances[j] = distance;
+        }
+        for (int i = 0; i < count && (distances[i] < search.distance || search.segment < 0); i += 1) {
+            visit(level - 1, children[i], search);
+        }
+    }
+
+    /** Returns the squared distance from (x, y) to the box of the given node. */
+    private double boxDistance(int level, int node, double x, double y) {
+        double dx = Math.max(0, Math.max(minXs[level][node] - x, x - maxXs[level][node]));
+        double dy = Math.max(0, Math.max(minYs[level][node] - y, y - maxYs[level][node]));
+        return dx * dx + dy * dy;
+    }
+
+    /** Records segment s as the best so far if it is closer to the query than the best. */
+    private void offerSegment(int s, Search search) {
+        double dx = x2s[s] - x1s[s];
+        double dy = y2s[s] - y1s[s];
+        double lengthSquared = dx * dx + dy * dy;
+        double t = 0;
+        if (lengthSquared > 0) {
+            t = ((search.x - x1s[s]) * dx + (search.y - y1s[s]) * dy) / lengthSquared;
+            t = Math.max(0, Math.min(1, t));
+        }
+        double ex = x1s[s] + t * dx - search.x;
+        double ey = y1s[s] + t * dy - search.y;
+        double distance = ex * ex + ey * ey;
+        if (distance < search.distance || search.segment < 0) {
+            search.segment = s;
+            search.distance = distance;
+            search.fraction = t;
+        }
+    }
+}
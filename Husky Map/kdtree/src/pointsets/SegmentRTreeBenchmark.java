@@ -0,0 +1,105 @@
+package pointsets;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Times {@link SegmentRTree} on a road-like network: a jittered street grid of about the size of
+ * a city's road graph, with every street stored once in each direction, as DefaultRouter indexes
+ * a StreetMapGraph's edges. Reports the build time and the median nearest-query time, which the
+ * router needs to stay within a few microseconds, and checks a sample of the answers against a
+ * scan of every segment.
+ */
+public class SegmentRTreeBenchmark {
+    /** Intersections per side of the grid; the network has 4 * SIDE * SIDE directed segments. */
+    private static final int SIDE = 400;
+    /** The length of a block, in the projected units DefaultRouter uses. */
+    private static final double BLOCK = 100;
+    private static final int QUERIES = 200_000;
+    private static final int CHECKED_QUERIES = 200;
+    private static final int TIMED_RUNS = 5;
+
+    public static void main(String[] args) {
+        Random random = new Random(373);
+        double[] xs = new double[SIDE * SIDE];
+        double[] ys = new double[SIDE * SIDE];
+        for (int i = 0; i < xs.length; i += 1) {
+            xs[i] = (i % SIDE + random.nextDouble() * 0.4 - 0.2) * BLOCK;
+            ys[i] = (i / SIDE + random.nextDouble() * 0.4 - 0.2) * BLOCK;
+        }
+        List<int[]> streets = new ArrayList<>();
+        for (int i = 0; i < xs.length; i += 1) {
+            if (i % SIDE + 1 < SIDE) {
+                streets.add(new int[]{i, i + 1});
+                streets.add(new int[]{i + 1, i});
+            }
+            if (i + SIDE < xs.length) {
+                streets.add(new int[]{i, i + SIDE});
+                streets.add(new int[]{i + SIDE, i});
+            }
+        }
+        int n = streets.size();
+        List<Integer> items = new ArrayList<>(n);
+        double[] x1s = new double[n];
+        double[] y1s = new double[n];
+        double[] x2s = new double[n];
+        double[] y2s = new double[n];
+        for (int i = 0; i < n; i += 1) {
+            int[] street = streets.get(i);
+            items.add(i);
+            x1s[i] = xs[street[0]];
+            y1s[i] = ys[street[0]];
+            x2s[i] = xs[street[1]];
+            y2s[i] = ys[street[1]];
+        }
+
+        long start = System.nanoTime();
+        SegmentRTree<Integer> tree = new SegmentRTree<>(items, x1s, y1s, x2s, y2s);
+        System.out.printf("%d segments, built in %.1f ms%n", n, (System.nanoTime() - start) / 1e6);
+
+        double[] queries = new double[2 * QUERIES];
+        for (int i = 0; i < queries.length; i += 1) {
+            queries[i] = random.nextDouble() * SIDE * BLOCK;
+        }
+        for (int q = 0; q < CHECKED_QUERIES; q += 1) {
+            double x = queries[2 * q];
+            double y = queries[2 * q + 1];
+            double best = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < n; i += 1) {
+                best = Math.min(best, distanceSquared(x1s[i], y1s[i], x2s[i], y2s[i], x, y));
+            }
+            if (tree.nearest(x, y).distanceSquared != best) {
+                throw new AssertionError("Wrong nearest segment for (" + x + ", " + y + ")");
+            }
+        }
+
+        double checksum = 0;
+        double[] nanos = new double[TIMED_RUNS];
+        for (int run = 0; run < TIMED_RUNS; run += 1) {
+            start = System.nanoTime();
+            for (int i = 0; i < queries.length; i += 2) {
+                checksum += tree.nearest(queries[i], queries[i + 1]).fraction;
+            }
+            nanos[run] = (double) (System.nanoTime() - start) / QUERIES;
+        }
+        if (checksum == 0) {
+            System.out.println("(every match at a segment's start)");
+        }
+        Arrays.sort(nanos);
+        System.out.printf("nearest: median %.1f ns per query (fastest %.1f, slowest %.1f)%n",
+            nanos[TIMED_RUNS / 2], nanos[0], nanos[TIMED_RUNS - 1]);
+    }
+
+    /** Returns the squared distance from (x, y) to the closest point of the segment. */
+    private static double distanceSquared(double x1, double y1, double x2, double y2, double x, double y) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, ((x - x1) * dx + (y - y1) * dy) / lengthSquared));
+        double ex = x1 + t * dx - x;
+        double ey = y1 + t * dy - y;
+        return ex * ex + ey * ey;
+    }
+}
@@ -0,0 +1,325 @@
+package pointsets;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A point set that many threads can query while others update it, without readers ever taking a
+ * lock or seeing a half-updated tree.
+ *
+ * Queries go to the current snapshot, an immutable point set held in an AtomicReference. Updates
+ * are queued, and publish() builds a new point set from the previous snapshot's points plus the
+ * queued updates, then makes it current with a single reference swap. Queries that started on the
+ * old snapshot finish on it, and later queries see the new one. Only publishers wait for each
+ * other; queuing an update takes a brief lock, and building happens outside it.
+ *
+ * A caller that makes several queries and needs them to agree should query {@link #snapshot()}.
+ */
+public class SnapshotPointSet<T extends Point> implements PointSet<T> {
+    private final Function<List<T>, ? extends PointSet<T>> builder;
+    private final int batchSize;
+    private final AtomicReference<Snapshot<T>> current = new AtomicReference<>();
+
+    private final Object pendingLock = new Object();
+    /** Queued updates, oldest first. */
+    private List<Update> pending = new ArrayList<>();
+    /** When the oldest queued update was queued, if any are. */
+    private long oldestPendingNanos;
+
+    private final ReentrantLock publishLock = new ReentrantLock();
+    private volatile long lastPublishNanos = 0;
+    private volatile long maxPublishNanos = 0;
+    private volatile long lastVisibilityDelayNanos = 0;
+
+    /** One published version of the point set. */
+    private static class Snapshot<T extends Point> {
+        final long version;
+        final long publishedNanos;
+        final List<T> points;
+        /** Null if there are no points, since point sets need at least one. */
+        final PointSet<T> tree;
+
+        Snapshot(long version, List<T> points, PointSet<T> tree) {
+            this.version = version;
+            this.publishedNanos = System.nanoTime();
+            this.points = points;
+            this.tree = tree;
+        }
+    }
+
+    /** A queued addition of a point, or removal of a point equal to it. */
+    private static class Update {
+        final Point point;
+        final boolean add;
+
+        Update(Point point, boolean add) {
+            this.point = point;
+            this.add = add;
+        }
+    }
+
+    /** A summary of how fresh the current snapshot is and how long publishing takes. */
+    public static class Metrics {
+        /** The number of snapshots published so far, counting the first. */
+        public final long version;
+        /** How long ago the current snapshot was published. */
+        public final long snapshotAgeNanos;
+        /** The number of updates queued but not yet published. */
+        public final int pendingUpdates;
+        /** How long the last publish took to build its point set and swap it in. */
+        public final long lastPublishNanos;
+        /** The longest any publish has taken to build its point set and swap it in. */
+        public final long maxPublishNanos;
+        /** How long the oldest update in the last published batch waited to become visible. */
+        public final long lastVisibilityDelayNanos;
+
+        Metrics(long version, long snapshotAgeNanos, int pendingUpdates, long lastPublishNanos,
+                long maxPublishNanos, long lastVisibilityDelayNanos) {
+            this.version = version;
+            this.snapshotAgeNanos = snapshotAgeNanos;
+            this.pendingUpdates = pendingUpdates;
+            this.lastPublishNanos = lastPublishNanos;
+            this.maxPublishNanos = maxPublishNanos;
+            this.lastVisibilityDelayNanos = lastVisibilityDelayNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("version %d, age %.1f ms, %d pending, last publish %.1f ms, "
+                    + "max publish %.1f ms, last visibility delay %.1f ms", version,
+                snapshotAgeNanos / 1e6, pendingUpdates, lastPublishNanos / 1e6,
+                maxPublishNanos / 1e6, lastVisibilityDelayNanos / 1e6);
+        }
+    }
+
+    /**
+     * Creates a point set whose snapshots are built by builder, such as FlatKDTreePointSet::new,
+     * starting with the given points. Updates are only published by calls to publish().
+     */
+    public SnapshotPointSet(List<T> points, Function<List<T>, ? extends PointSet<T>> builder) {
+        this(points, builder, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Like {@link #SnapshotPointSet(List, Function)}, but the update that fills a batch of
+     * batchSize queued updates also publishes them.
+     */
+    public SnapshotPointSet(List<T> points, Function<List<T>, ? extends PointSet<T>> builder,
+                            int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.builder = builder;
+        this.batchSize = batchSize;
+        current.set(build(1, new ArrayList<>(points)));
+    }
+
+    /**
+     * Returns a snapshot of the given points. Its points are listed in the order of its tree's
+     * allPoints(), so that the tree's nearestAll indices also index the snapshot's points.
+     */
+    private Snapshot<T> build(long version, List<T> points) {
+        if (points.isEmpty()) {
+            return new Snapshot<>(version, Collections.unmodifiableList(points), null);
+        }
+        PointSet<T> tree = builder.apply(new ArrayList<>(points));
+        return new Snapshot<>(version, Collections.unmodifiableList(tree.allPoints()), tree);
+    }
+
+    /** Returns the current snapshot, which never changes, for making several consistent queries. */
+    public PointSet<T> snapshot() {
+        Snapshot<T> snapshot = current.get();
+        return snapshot.tree == null ? new EmptyPointSet() : snapshot.tree;
+    }
+
+    /** Queues a point to be added at the next publish. */
+    public void add(T point) {
+        enqueue(new Update(point, true));
+    }
+
+    /**
+     * Queues one point equal to the given point to be removed at the next publish. Removing a
+     * point that isn't there by then has no effect.
+     */
+    public void remove(Point point) {
+        enqueue(new Update(point, false));
+    }
+
+    private void enqueue(Update update) {
+        boolean full;
+        synchronized (pendingLock) {
+            if (pending.isEmpty()) {
+                oldestPendingNanos = System.nanoTime();
+            }
+            pending.add(update);
+            full = pending.size() >= batchSize;
+        }
+        if (full) {
+            publish();
+        }
+    }
+
+    /**
+     * Builds a point set with every queued update applied and makes it the current snapshot.
+     * Does nothing if no updates are queued. Blocks while another thread is publishing.
+     */
+    @SuppressWarnings("unchecked")
+    public void publish() {
+        publishLock.lock();
+        try {
+            List<Update> updates;
+            long queuedNanos;
+            synchronized (pendingLock) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                updates = pending;
+                queuedNanos = oldestPendingNanos;
+                pending = new ArrayList<>();
+            }
+            long start = System.nanoTime();
+            Snapshot<T> old = current.get();
+            // A removal cancels the latest earlier addition of an equal point in this batch, if
+            // there is one, and otherwise removes an equal point of the old snapshot.
+            List<T> adds = new ArrayList<>();
+            Map<Point, List<Integer>> addIndices = new HashMap<>();
+            Map<Point, Integer> removals = new HashMap<>();
+            for (Update update : updates) {
+                List<Integer> indices = addIndices.get(update.point);
+                if (update.add) {
+                    addIndices.computeIfAbsent(update.point, p -> new ArrayList<>()).add(adds.size());
+                    adds.add((T) update.point);
+                } else if (indices != null && !indices.isEmpty()) {
+                    adds.set(indices.remove(indices.size() - 1), null);
+                } else {
+                    removals.merge(update.point, 1, Integer::sum);
+                }
+            }
+            List<T> points = new ArrayList<>(old.points.size() + adds.size());
+            for (T point : old.points) {
+                Integer count = removals.get(point);
+                if (count == null) {
+                    points.add(point);
+                } else if (count == 1) {
+                    removals.remove(point);
+                } else {
+                    removals.put(point, count - 1);
+                }
+            }
+            for (T point : adds) {
+                if (point != null) {
+                    points.add(point);
+                }
+            }
+            swap(build(old.version + 1, points), start, queuedNanos);
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    /**
+     * Replaces every point, and drops any queued updates, in one publish. Blocks while another
+     * thread is publishing.
+     */
+    public void replaceAll(List<T> points) {
+        publishLock.lock();
+        try {
+            long queuedNanos;
+            synchronized (pendingLock) {
+                pending = new ArrayList<>();
+                queuedNanos = System.nanoTime();
+            }
+            long start = System.nanoTime();
+            Snapshot<T> old = current.get();
+            swap(build(old.version + 1, new ArrayList<>(points)), start, queuedNanos);
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    /** Makes next the current snapshot and records how long it took; holds publishLock. */
+    private void swap(Snapshot<T> next, long start, long queuedNanos) {
+        current.set(next);
+        long now = System.nanoTime();
+        lastPublishNanos = now - start;
+        maxPublishNanos = Math.max(maxPublishNanos, lastPublishNanos);
+        lastVisibilityDelayNanos = now - queuedNanos;
+    }
+
+    /** Returns the current metrics. Safe to call from any thread. */
+    public Metrics metrics() {
+        Snapshot<T> snapshot = current.get();
+        int queued;
+        synchronized (pendingLock) {
+            queued = pending.size();
+        }
+        return new Metrics(snapshot.version, System.nanoTime() - snapshot.publishedNanos, queued,
+            lastPublishNanos, maxPublishNanos, lastVisibilityDelayNanos);
+    }
+
+    /**
+     * Returns the point in the current snapshot closest to the given point.
+     * @throws NoSuchElementException if the snapshot has no points
+     */
+    @Override
+    public T nearest(Point target) {
+        return snapshot().nearest(target);
+    }
+
+    @Override
+    public List<T> kNearest(Point target, int k) {
+        return snapshot().kNearest(target, k);
+    }
+
+    @Override
+    public void rangeQuery(double minX, double minY, double maxX, double maxY,
+                           Consumer<? super T> action) {
+        snapshot().rangeQuery(minX, minY, maxX, maxY, action);
+    }
+
+    @Override
+    public void withinRadius(Point target, double radius, Consumer<? super T> action) {
+        snapshot().withinRadius(target, radius, action);
+    }
+
+    /**
+     * Returns, for each i, the index in allPoints() of the point closest to (xs[i], ys[i]). Every
+     * query is answered by the same snapshot, even if another thread publishes meanwhile; a caller
+     * that may race with publishers should query {@link #snapshot()} for both the indices and the
+     * points they refer to.
+     *
+     * @throws IllegalArgumentException if xs and ys have different lengths
+     * @throws NoSuchElementException if the snapshot has no points and there are queries
+     */
+    @Override
+    public int[] nearestAll(double[] xs, double[] ys) {
+        return snapshot().nearestAll(xs, ys);
+    }
+
+    /** Returns the points of the current snapshot, as an unmodifiable list. */
+    @Override
+    public List<T> allPoints() {
+        return current.get().points;
+    }
+
+    /** The snapshot of an empty set, which answers every query with nothing. */
+    private class EmptyPointSet implements PointSet<T> {
+        @Override
+        public T nearest(Point target) {
+            throw new NoSuchElementException("Point set can't be empty");
+        }
+
+        @Override
+        public List<T> allPoints() {
+            return Collections.emptyList();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package pointsets;
+
+import edu.washington.cse373.BaseTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks a point set against {@link NaivePointSet} on the same points. Points are compared by
+ * distance, so that sets that break ties between equally distant points differently still agree.
+ * Subclasses supply the point set under test.
+ */
+public abstract class BasePointSetTest extends BaseTest {
+    private static final int QUERIES = 200;
+
+    /** Returns the point set under test, holding the given points. */
+    protected abstract PointSet<Point> createPointSet(List<Point> points);
+
+    /** Returns n points spread uniformly over the unit square. */
+    protected static List<Point> randomPoints(int n, long seed) {
+        Random random = new Random(seed);
+        List<Point> points = new ArrayList<>(n);
+        for (int i = 0; i < n; i += 1) {
+            points.add(new Point(random.nextDouble(), random.nextDouble()));
+        }
+        return points;
+    }
+
+    /**
+     * Returns the points of a side-by-side lattice, each twice, so that there are many ties and
+     * points in the same place.
+     */
+    protected static List<Point> latticePoints(int side) {
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < side; i += 1) {
+            for (int j = 0; j < side; j += 1) {
+                points.add(new Point(i, j));
+                points.add(new Point(i, j));
+            }
+        }
+        return points;
+    }
+
+    /** Returns query points spread over and a little beyond the box of the given points. */
+    protected static List<Point> queries(List<Point> points, long seed) {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (Point p : points) {
+            minX = Math.min(minX, p.x());
+            minY = Math.min(minY, p.y());
+            maxX = Math.max(maxX, p.x());
+            maxY = Math.max(maxY, p.y());
+        }
+        double marginX = (maxX - minX) / 4;
+        double marginY = (maxY - minY) / 4;
+        Random random = new Random(seed);
+        List<Point> queries = new ArrayList<>(QUERIES);
+        for (int i = 0; i < QUERIES; i += 1) {
+            queries.add(new Point(minX - marginX + random.nextDouble() * (maxX - minX + 2 * marginX),
+                minY - marginY + random.nextDouble() * (maxY - minY + 2 * marginY)));
+        }
+        return queries;
+    }
+
+    protected static List<Double> distances(Point target, List<Point> points) {
+        List<Double> distances = new ArrayList<>(points.size());
+        for (Point p : points) {
+            distances.add(target.distanceSquaredTo(p));
+        }
+        return distances;
+    }
+
+    /** Asserts that actual answers every kind of query the way naive does. */
+    protected void assertSameAsNaive(PointSet<Point> actual, List<Point> points, long seed) {
+        NaivePointSet<Point> naive = new NaivePointSet<>(points);
+        double extent = 0;
+        for (Point p : points) {
+            extent = Math.max(extent, Math.max(Math.abs(p.x()), Math.abs(p.y())));
+        }
+        Random random = new Random(seed);
+        for (Point q : queries(points, seed)) {
+            assertThat(q.distanceSquaredTo(actual.nearest(q))).as("nearest to %s", q)
+                .isEqualTo(q.distanceSquaredTo(naive.nearest(q)));
+            for (int k : new int[]{1, 2, 7, 30}) {
+                assertThat(distances(q, actual.kNearest(q, k))).as("%d nearest to %s", k, q)
+                    .containsExactlyElementsOf(distances(q, naive.kNearest(q, k)));
+            }
+            double radius = extent * random.nextDouble() / 5;
+            assertThat(withinRadius(actual, q, radius)).as("within %s of %s", radius, q)
+                .containsExactlyInAnyOrderElementsOf(withinRadius(naive, q, radius));
+            assertThat(range(actual, q, radius)).as("box around %s", q)
+                .containsExactlyInAnyOrderElementsOf(range(naive, q, radius));
+        }
+    }
+
+    private static List<Point> withinRadius(PointSet<Point> set, Point q, double radius) {
+        List<Point> found = new ArrayList<>();
+        set.withinRadius(q, radius, found::add);
+        return found;
+    }
+
+    private static List<Point> range(PointSet<Point> set, Point q, double halfWidth) {
+        List<Point> found = new ArrayList<>();
+        set.rangeQuery(q.x() - halfWidth, q.y() - halfWidth / 2,
+            q.x() + halfWidth, q.y() + halfWidth / 2, found::add);
+        return found;
+    }
+
+    @Test
+    void queries_onRandomPoints_matchNaive() {
+        List<Point> points = randomPoints(2000, 373);
+        assertSameAsNaive(createPointSet(new ArrayList<>(points)), points, 1);
+    }
+
+    @Test
+    void queries_onLatticeWithDuplicates_matchNaive() {
+        List<Point> points = latticePoints(20);
+        assertSameAsNaive(createPointSet(new ArrayList<>(points)), points, 2);
+    }
+
+    @Test
+    void queries_onSinglePoint_matchNaive() {
+        List<Point> points = List.of(new Point(3, 4));
+        assertSameAsNaive(createPointSet(new ArrayList<>(points)), points, 3);
+    }
+
+    @Test
+    void kNearest_whenKIsZero_isEmpty() {
+        PointSet<Point> set = createPointSet(randomPoints(50, 4));
+        assertThat(set.kNearest(new Point(0.5, 0.5), 0)).isEmpty();
+    }
+
+    @Test
+    void kNearest_whenKExceedsSize_returnsEveryPoint() {
+        List<Point> points = randomPoints(100, 5);
+        PointSet<Point> set = createPointSet(new ArrayList<>(points));
+        Point q = new Point(0.3, 0.6);
+        List<Double> expected = distances(q, new NaivePointSet<>(points).kNearest(q, points.size()));
+        assertThat(distances(q, set.kNearest(q, points.size() + 1))).containsExactlyElementsOf(expected);
+        assertThat(distances(q, set.kNearest(q, Integer.MAX_VALUE))).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void kNearest_whenKIsNegative_throws() {
+        PointSet<Point> set = createPointSet(randomPoints(10, 6));
+        assertThatThrownBy(() -> set.kNearest(new Point(0, 0), -1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void nearestAll_matchesNearest() {
+        List<Point> points = randomPoints(3000, 7);
+        PointSet<Point> set = createPointSet(new ArrayList<>(points));
+        NaivePointSet<Point> naive = new NaivePointSet<>(points);
+        // Enough queries that the batch is split among several tasks.
+        Random random = new Random(8);
+        int n = 5000;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i += 1) {
+            xs[i] = random.nextDouble();
+            ys[i] = random.nextDouble();
+        }
+        int[] ids = set.nearestAll(xs, ys);
+        List<Point> all = set.allPoints();
+        for (int i = 0; i < n; i += 1) {
+            Point q = new Point(xs[i], ys[i]);
+            assertThat(q.distanceSquaredTo(all.get(ids[i]))).as("nearest to %s", q)
+                .isEqualTo(q.distanceSquaredTo(naive.nearest(q)));
+        }
+    }
+
+    @Test
+    void nearestAll_whenLengthsDiffer_throws() {
+        PointSet<Point> set = createPointSet(randomPoints(10, 9));
+        assertThatThrownBy(() -> set.nearestAll(new double[2], new double[3]))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
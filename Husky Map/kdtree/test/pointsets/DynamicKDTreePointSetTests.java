@@ -0,0 +1,74 @@
+package pointsets;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+public class DynamicKDTreePointSetTests extends BasePointSetTest {
+    @Override
+    protected PointSet<Point> createPointSet(List<Point> points) {
+        return new DynamicKDTreePointSet<>(points);
+    }
+
+    @Test
+    void insertAndDelete_matchNaive() {
+        Random random = new Random(31);
+        DynamicKDTreePointSet<Point> set = new DynamicKDTreePointSet<>();
+        List<Point> live = new ArrayList<>();
+        // Sorted insertions, which would make a plain KD-tree spindly, then random deletions
+        // enough to compact the tree, then more insertions.
+        for (int i = 0; i < 1500; i += 1) {
+            Point p = new Point(i / 1500.0, random.nextDouble());
+            set.insert(p);
+            live.add(p);
+        }
+        for (int i = 0; i < 1000; i += 1) {
+            Point p = live.remove(random.nextInt(live.size()));
+            assertThat(set.delete(p)).isTrue();
+        }
+        for (Point p : randomPoints(500, 32)) {
+            set.insert(p);
+            live.add(p);
+        }
+        assertThat(set.size()).isEqualTo(live.size());
+        assertThat(set.allPoints()).containsExactlyInAnyOrderElementsOf(live);
+        assertSameAsNaive(set, live, 33);
+    }
+
+    @Test
+    void delete_whenAbsent_returnsFalse() {
+        DynamicKDTreePointSet<Point> set = new DynamicKDTreePointSet<>(randomPoints(100, 34));
+        assertThat(set.delete(new Point(2, 2))).isFalse();
+        assertThat(set.size()).isEqualTo(100);
+    }
+
+    @Test
+    void delete_matchesByIdentity() {
+        DynamicKDTreePointSet<Point> set = new DynamicKDTreePointSet<>(randomPoints(100, 36));
+        Point first = new Point(0.5, 0.5);
+        Point second = new Point(0.5, 0.5);
+        set.insert(first);
+        set.insert(second);
+        assertThat(set.delete(new Point(0.5, 0.5))).isFalse();
+        assertThat(set.delete(second)).isTrue();
+        assertThat(set.delete(second)).isFalse();
+        assertThat(set.nearest(new Point(0.5, 0.5))).isSameAs(first);
+        assertThat(set.size()).isEqualTo(101);
+    }
+
+    @Test
+    void nearest_whenEverythingDeleted_throws() {
+        List<Point> points = randomPoints(20, 35);
+        DynamicKDTreePointSet<Point> set = new DynamicKDTreePointSet<>(points);
+        for (Point p : points) {
+            set.delete(p);
+        }
+        assertThat(set.allPoints()).isEmpty();
+        assertThat(set.kNearest(new Point(0, 0), 3)).isEmpty();
+        assertThatThrownBy(() -> set.nearest(new Point(0, 0)))
+            .isInstanceOf(NoSuchElementException.class);
+    }
+}
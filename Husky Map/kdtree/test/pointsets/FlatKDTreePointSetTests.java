@@ -0,0 +1,55 @@
+package pointsets;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class FlatKDTreePointSetTests extends BasePointSetTest {
+    @Override
+    protected PointSet<Point> createPointSet(List<Point> points) {
+        return new FlatKDTreePointSet<>(points);
+    }
+
+    @Test
+    void idQueries_matchPointQueries() {
+        List<Point> points = randomPoints(1000, 11);
+        FlatKDTreePointSet<Point> set = new FlatKDTreePointSet<>(points);
+        int[] ids = new int[10];
+        for (Point q : queries(points, 12)) {
+            assertThat(set.point(set.nearestId(q.x(), q.y()))).isSameAs(set.nearest(q));
+            int count = set.kNearestIds(q.x(), q.y(), ids.length, ids);
+            List<Point> byId = new ArrayList<>();
+            for (int i = 0; i < count; i += 1) {
+                byId.add(set.point(ids[i]));
+            }
+            assertThat(byId).containsExactlyElementsOf(set.kNearest(q, ids.length));
+
+            List<Point> inRange = new ArrayList<>();
+            set.rangeQueryIds(q.x() - 0.1, q.y() - 0.1, q.x() + 0.1, q.y() + 0.1,
+                id -> inRange.add(set.point(id)));
+            List<Point> expectedInRange = new ArrayList<>();
+            set.rangeQuery(q.x() - 0.1, q.y() - 0.1, q.x() + 0.1, q.y() + 0.1, expectedInRange::add);
+            assertThat(inRange).containsExactlyInAnyOrderElementsOf(expectedInRange);
+
+            List<Point> inRadius = new ArrayList<>();
+            set.withinRadiusIds(q, 0.1, id -> inRadius.add(set.point(id)));
+            List<Point> expectedInRadius = new ArrayList<>();
+            set.withinRadius(q, 0.1, expectedInRadius::add);
+            assertThat(inRadius).containsExactlyInAnyOrderElementsOf(expectedInRadius);
+        }
+    }
+
+    @Test
+    void kNearestIds_whenOutIsTooShort_throws() {
+        FlatKDTreePointSet<Point> set = new FlatKDTreePointSet<>(randomPoints(10, 13));
+        assertThatThrownBy(() -> set.kNearestIds(0, 0, 5, new int[4]))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void constructor_whenEmpty_throws() {
+        assertThatThrownBy(() -> new FlatKDTreePointSet<>(new ArrayList<Point>()))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,39 @@
+package pointsets;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class GridPointSetTests extends BasePointSetTest {
+    @Override
+    protected PointSet<Point> createPointSet(List<Point> points) {
+        return new GridPointSet<>(points);
+    }
+
+    @Test
+    void queries_onClusteredPoints_matchNaive() {
+        // Most points in one corner, so that most cells are empty and a few are crowded.
+        List<Point> points = randomPoints(1500, 21);
+        for (Point p : randomPoints(1500, 22)) {
+            points.add(new Point(p.x() / 100, p.y() / 100));
+        }
+        assertSameAsNaive(new GridPointSet<>(new ArrayList<>(points)), points, 23);
+    }
+
+    @Test
+    void idQueries_matchPointQueries() {
+        List<Point> points = randomPoints(1000, 24);
+        GridPointSet<Point> set = new GridPointSet<>(points);
+        int[] ids = new int[10];
+        for (Point q : queries(points, 25)) {
+            assertThat(set.point(set.nearestId(q.x(), q.y()))).isSameAs(set.nearest(q));
+            int count = set.kNearestIds(q.x(), q.y(), ids.length, ids);
+            List<Point> byId = new ArrayList<>();
+            for (int i = 0; i < count; i += 1) {
+                byId.add(set.point(ids[i]));
+            }
+            assertThat(byId).containsExactlyElementsOf(set.kNearest(q, ids.length));
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package pointsets;
+
+import java.util.List;
+
+public class KDTreePointSetTests extends BasePointSetTest {
+    @Override
+    protected PointSet<Point> createPointSet(List<Point> points) {
+        return KDTreePointSet.createAfterShuffling(points);
+    }
+}
@@ -0,0 +1,55 @@
+package pointsets;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Checks the default implementations in PointSet, through a set that only scans its points. */
+public class PointSetTests extends BasePointSetTest {
+    @Override
+    protected PointSet<Point> createPointSet(List<Point> points) {
+        return new ScanningPointSet(points);
+    }
+
+    /** A point set that overrides nothing it doesn't have to. */
+    private static class ScanningPointSet implements PointSet<Point> {
+        private final List<Point> points;
+
+        ScanningPointSet(List<Point> points) {
+            this.points = points;
+        }
+
+        @Override
+        public Point nearest(Point target) {
+            Point best = null;
+            for (Point p : points) {
+                if (best == null || target.distanceSquaredTo(p) < target.distanceSquaredTo(best)) {
+                    best = p;
+                }
+            }
+            return best;
+        }
+
+        @Override
+        public List<Point> allPoints() {
+            return points;
+        }
+    }
+
+    @Test
+    void nearestAll_whenNearestReturnsUnlistedPoint_throws() {
+        List<Point> points = new ArrayList<>(randomPoints(10, 51));
+        PointSet<Point> set = new ScanningPointSet(points) {
+            @Override
+            public Point nearest(Point target) {
+                // As if another thread had replaced the point after nearestAll listed the points.
+                Point found = super.nearest(target);
+                return new Point(found.x(), found.y());
+            }
+        };
+        assertThatThrownBy(() -> set.nearestAll(new double[]{0.5}, new double[]{0.5}))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("changed during nearestAll");
+    }
+}
@@ -0,0 +1,171 @@
+package pointsets;
+
+import edu.washington.cse373.BaseTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks SegmentRTree against a scan of every segment. Matches are compared by distance, so that
+ * ties between equally distant segments may be broken either way.
+ */
+public class SegmentRTreeTests extends BaseTest {
+    private static final int QUERIES = 300;
+
+    /** Segments numbered 0 to n - 1, with both ends of segment i at (x1s[i], y1s[i]) and (x2s[i], y2s[i]). */
+    private static class Segments {
+        final List<Integer> items = new ArrayList<>();
+        final double[] x1s;
+        final double[] y1s;
+        final double[] x2s;
+        final double[] y2s;
+
+        /**
+         * Returns n short segments in random directions, spread over the unit square; every
+         * zeroLengthEvery-th one has both ends in the same place.
+         */
+        Segments(int n, int zeroLengthEvery, long seed) {
+            Random random = new Random(seed);
+            x1s = new double[n];
+            y1s = new double[n];
+            x2s = new double[n];
+            y2s = new double[n];
+            for (int i = 0; i < n; i += 1) {
+                items.add(i);
+                x1s[i] = random.nextDouble();
+                y1s[i] = random.nextDouble();
+                double length = i % zeroLengthEvery == 0 ? 0 : random.nextDouble() * 0.05;
+                double angle = random.nextDouble() * 2 * Math.PI;
+                x2s[i] = x1s[i] + length * Math.cos(angle);
+                y2s[i] = y1s[i] + length * Math.sin(angle);
+            }
+        }
+
+        SegmentRTree<Integer> tree() {
+            return new SegmentRTree<>(items, x1s, y1s, x2s, y2s);
+        }
+
+        /** Returns the squared distance from (x, y) to the closest point of segment i. */
+        double distanceSquared(int i, double x, double y) {
+            double dx = x2s[i] - x1s[i];
+            double dy = y2s[i] - y1s[i];
+            double lengthSquared = dx * dx + dy * dy;
+            double t = lengthSquared == 0 ? 0
+                : Math.max(0, Math.min(1, ((x - x1s[i]) * dx + (y - y1s[i]) * dy) / lengthSquared));
+            double ex = x1s[i] + t * dx - x;
+            double ey = y1s[i] + t * dy - y;
+            return ex * ex + ey * ey;
+        }
+    }
+
+    /** Asserts that the tree finds a nearest segment, and the right point on it, for many queries. */
+    private static void assertMatchesScan(Segments segments, long seed) {
+        SegmentRTree<Integer> tree = segments.tree();
+        assertThat(tree.size()).isEqualTo(segments.items.size());
+        Random random = new Random(seed);
+        for (int q = 0; q < QUERIES; q += 1) {
+            double x = random.nextDouble() * 1.5 - 0.25;
+            double y = random.nextDouble() * 1.5 - 0.25;
+            double best = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < segments.items.size(); i += 1) {
+                best = Math.min(best, segments.distanceSquared(i, x, y));
+            }
+            SegmentRTree.Match<Integer> match = tree.nearest(x, y);
+            int i = match.item;
+            assertThat(match.distanceSquared).as("query (%s, %s)", x, y).isCloseTo(best, within(1e-12));
+            assertThat(segments.distanceSquared(i, x, y)).isCloseTo(best, within(1e-12));
+            // The match's point is on segment i, at its fraction, and at its distance from the query.
+            assertThat(match.fraction).isBetween(0.0, 1.0);
+            assertThat(match.x).isCloseTo(
+                segments.x1s[i] + match.fraction * (segments.x2s[i] - segments.x1s[i]), within(1e-12));
+            assertThat(match.y).isCloseTo(
+                segments.y1s[i] + match.fraction * (segments.y2s[i] - segments.y1s[i]), within(1e-12));
+            double ex = match.x - x;
+            double ey = match.y - y;
+            assertThat(ex * ex + ey * ey).isCloseTo(match.distanceSquared, within(1e-12));
+        }
+    }
+
+    @Test
+    void nearest_withOneSegment_matchesScan() {
+        assertMatchesScan(new Segments(1, 2, 1), 2);
+    }
+
+    @Test
+    void nearest_withSingleLeaf_matchesScan() {
+        // At most 16 segments fit in one leaf, which is then the root.
+        assertMatchesScan(new Segments(16, 4, 3), 4);
+    }
+
+    @Test
+    void nearest_withTwoLevels_matchesScan() {
+        assertMatchesScan(new Segments(17, 4, 5), 6);
+        assertMatchesScan(new Segments(256, 4, 7), 8);
+    }
+
+    @Test
+    void nearest_withThreeOrMoreLevels_matchesScan() {
+        // 257 segments need 17 leaves, so 2 nodes above them and a root; 5000 need 4 levels.
+        assertMatchesScan(new Segments(257, 4, 9), 10);
+        assertMatchesScan(new Segments(5000, 10, 11), 12);
+    }
+
+    @Test
+    void nearest_whenEverySegmentHasZeroLength_matchesScan() {
+        assertMatchesScan(new Segments(1000, 1, 13), 14);
+    }
+
+    @Test
+    void nearest_whenSegmentsShareEnds_matchesScan() {
+        // A lattice of roads, each stored both ways, like the two directed edges of a street.
+        List<double[]> roads = new ArrayList<>();
+        for (int i = 0; i < 20; i += 1) {
+            for (int j = 0; j < 20; j += 1) {
+                roads.add(new double[]{i, j, i + 1, j});
+                roads.add(new double[]{i + 1, j, i, j});
+                roads.add(new double[]{i, j, i, j + 1});
+                roads.add(new double[]{i, j + 1, i, j});
+            }
+        }
+        Segments lattice = new Segments(roads.size(), Integer.MAX_VALUE, 15);
+        for (int i = 0; i < roads.size(); i += 1) {
+            lattice.x1s[i] = roads.get(i)[0] / 20;
+            lattice.y1s[i] = roads.get(i)[1] / 20;
+            lattice.x2s[i] = roads.get(i)[2] / 20;
+            lattice.y2s[i] = roads.get(i)[3] / 20;
+        }
+        assertMatchesScan(lattice, 16);
+    }
+
+    @Test
+    void nearest_whenQueryIsNotFinite_throws() {
+        SegmentRTree<Integer> tree = new Segments(100, 4, 18).tree();
+        assertThatThrownBy(() -> tree.nearest(Double.NaN, 0.5)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> tree.nearest(0.5, Double.NaN)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> tree.nearest(Double.POSITIVE_INFINITY, 0.5))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> tree.nearest(0.5, Double.NEGATIVE_INFINITY))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void nearest_whenDistancesOverflow_stillMatches() {
+        SegmentRTree<Integer> tree = new Segments(300, 4, 19).tree();
+        SegmentRTree.Match<Integer> match = tree.nearest(1e200, -1e200);
+        assertThat(match.item).isNotNull();
+        assertThat(match.distanceSquared).isEqualTo(Double.POSITIVE_INFINITY);
+    }
+
+    @Test
+    void constructor_whenInputIsInvalid_throws() {
+        Segments segments = new Segments(10, 4, 20);
+        assertThatThrownBy(() -> new SegmentRTree<>(new ArrayList<Integer>(), new double[0], new double[0],
+            new double[0], new double[0])).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SegmentRTree<>(segments.items, segments.x1s, segments.y1s,
+            segments.x2s, new double[9])).isInstanceOf(IllegalArgumentException.class);
+        segments.y2s[3] = Double.NaN;
+        assertThatThrownBy(segments::tree).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,96 @@
+package pointsets;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SnapshotPointSetTests extends BasePointSetTest {
+    @Override
+    protected PointSet<Point> createPointSet(List<Point> points) {
+        return new SnapshotPointSet<>(points, FlatKDTreePointSet::new);
+    }
+
+    @Test
+    void updates_areVisibleOnlyAfterPublish() {
+        List<Point> points = randomPoints(500, 41);
+        SnapshotPointSet<Point> set = new SnapshotPointSet<>(points, FlatKDTreePointSet::new);
+        PointSet<Point> before = set.snapshot();
+        List<Point> live = new ArrayList<>(points);
+        for (Point p : randomPoints(200, 42)) {
+            set.add(p);
+            live.add(p);
+        }
+        for (int i = 0; i < 100; i += 1) {
+            set.remove(live.remove(i));
+        }
+        assertThat(set.allPoints()).containsExactlyInAnyOrderElementsOf(points);
+        set.publish();
+        assertThat(set.allPoints()).containsExactlyInAnyOrderElementsOf(live);
+        assertThat(before.allPoints()).containsExactlyInAnyOrderElementsOf(points);
+        assertSameAsNaive(set, live, 43);
+    }
+
+    @Test
+    void remove_ofPointAddedInSameBatch_cancelsTheAdd() {
+        List<Point> points = randomPoints(50, 44);
+        SnapshotPointSet<Point> set = new SnapshotPointSet<>(points, FlatKDTreePointSet::new);
+        Point p = new Point(2, 2);
+        set.add(p);
+        set.remove(p);
+        set.publish();
+        assertThat(set.allPoints()).containsExactlyInAnyOrderElementsOf(points);
+    }
+
+    @Test
+    void batchSize_publishesWhenFull() {
+        SnapshotPointSet<Point> set = new SnapshotPointSet<>(randomPoints(50, 45),
+            FlatKDTreePointSet::new, 10);
+        for (Point p : randomPoints(25, 46)) {
+            set.add(p);
+        }
+        assertThat(set.allPoints()).hasSize(70);
+        assertThat(set.metrics().pendingUpdates).isEqualTo(5);
+    }
+
+    @Test
+    void nearestAll_whilePublishing_answersFromOneSnapshot() throws InterruptedException {
+        // KDTreePointSet shuffles its points, so its allPoints() order differs from the input.
+        SnapshotPointSet<Point> set = new SnapshotPointSet<>(randomPoints(2000, 47),
+            KDTreePointSet::createAfterShuffling);
+        Thread publisher = new Thread(() -> {
+            for (int i = 0; i < 200; i += 1) {
+                set.replaceAll(randomPoints(2000, 100 + i));
+            }
+        });
+        double[] xs = new double[5000];
+        double[] ys = new double[5000];
+        List<Point> queries = randomPoints(xs.length, 48);
+        for (int i = 0; i < xs.length; i += 1) {
+            xs[i] = queries.get(i).x();
+            ys[i] = queries.get(i).y();
+        }
+        publisher.start();
+        while (publisher.isAlive()) {
+            int[] ids = set.nearestAll(xs, ys);
+            assertThat(ids.length).isEqualTo(xs.length);
+        }
+        publisher.join();
+        int[] ids = set.nearestAll(xs, ys);
+        List<Point> all = set.allPoints();
+        NaivePointSet<Point> naive = new NaivePointSet<>(all);
+        for (int i = 0; i < xs.length; i += 1) {
+            Point q = queries.get(i);
+            assertThat(q.distanceSquaredTo(all.get(ids[i]))).isEqualTo(q.distanceSquaredTo(naive.nearest(q)));
+        }
+    }
+
+    @Test
+    void queries_whenEmpty_findNothing() {
+        SnapshotPointSet<Point> set = new SnapshotPointSet<>(new ArrayList<>(), FlatKDTreePointSet::new);
+        assertThat(set.kNearest(new Point(0, 0), 3)).isEmpty();
+        List<Point> found = new ArrayList<>();
+        set.withinRadius(new Point(0, 0), 1, found::add);
+        assertThat(found).isEmpty();
+    }
+}